@@ -2,7 +2,10 @@ package ru.romanov.moneytransferservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Главный класс приложения для перевода денежных средств.
@@ -10,11 +13,17 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
  * Этот класс инициализирует приложение Spring Boot для работы с сервисом перевода денег.
  * Он использует аннотации {@code @SpringBootApplication} для автоматической настройки Spring Boot и {@code @EnableFeignClients}
  * для включения поддержки Feign клиентов, что позволяет использовать HTTP-клиенты для взаимодействия с другими микросервисами.
+ * Аннотация {@code @EnableRetry} включает повторные попытки операций, помеченных {@code @Retryable},
+ * {@code @EnableScheduling} включает фоновые задачи по расписанию,
+ * а {@code @ConfigurationPropertiesScan} регистрирует классы настроек приложения.
  * <p>
  * В методе {@code main} создается экземпляр {@code SpringApplication}, который запускает приложение Spring Boot.
  */
 @SpringBootApplication
 @EnableFeignClients
+@EnableRetry
+@EnableScheduling
+@ConfigurationPropertiesScan
 public class MoneyTransferServiceApplication {
     /**
      * Точка входа в приложение.
@@ -1,5 +1,6 @@
 package ru.romanov.moneytransferservice.client;
 
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -32,6 +33,21 @@ public interface CurrencyConverterClient {
                    @RequestParam("to") String toCurrency,
                    @RequestParam("amount") Double amount);
 
+    /**
+     * Метод для конвертации валюты с таймаутами, заданными для этого вызова.
+     *
+     * @param fromCurrency Из какой валюты.
+     * @param toCurrency   В какую валюту.
+     * @param amount       Сумма для конвертации.
+     * @param options      Таймауты соединения и чтения.
+     * @return Конвертированная сумма.
+     */
+    @GetMapping("/api/currency/convert")
+    Double convert(@RequestParam("from") String fromCurrency,
+                   @RequestParam("to") String toCurrency,
+                   @RequestParam("amount") Double amount,
+                   Request.Options options);
+
     /**
      * Метод для получения списка поддерживаемых валютных кодов.
      *
@@ -47,4 +63,13 @@ public interface CurrencyConverterClient {
      */
     @GetMapping("/supported-currency-map")
     Map<String, String> supportedCurrencyMap();
-}
\ No newline at end of file
+
+    /**
+     * Метод для получения карты поддерживаемых валют с таймаутами, заданными для этого вызова.
+     *
+     * @param options Таймауты соединения и чтения.
+     * @return {@link Map}<{@link String}, {@link String}>, где ключом является валютный код, а значением - название валюты
+     */
+    @GetMapping("/supported-currency-map")
+    Map<String, String> supportedCurrencyMap(Request.Options options);
+}
@@ -0,0 +1,179 @@
+package ru.romanov.moneytransferservice.client;
+
+import feign.Request;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.romanov.moneytransferservice.config.ConverterResilienceProperties;
+import ru.romanov.moneytransferservice.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Отказоустойчивая обёртка над {@link CurrencyConverterClient}.
+ * <p>
+ * Каждый вызов ограничен общим временем (deadline): таймауты соединения и чтения каждой попытки
+ * не превышают оставшегося времени, а повторная попытка не начинается, если время истекло.
+ * Временные ошибки повторяются с экспоненциальной задержкой со случайным разбросом (jitter).
+ * Автоматический выключатель (circuit breaker) отклоняет вызовы, пока сервис конвертации неисправен,
+ * а ограничитель параллелизма (bulkhead) не даёт медленному сервису занять все потоки приложения.
+ * Метрики состояния выключателя и ограничителя экспортируются с тегом {@code name=currency-converter},
+ * а переходы состояний и отклонённые вызовы — счётчиками {@code currency.converter.circuit.transitions}
+ * и {@code currency.converter.rejected}.
+ */
+@Slf4j
+@Component
+public class ResilientCurrencyConverterClient {
+    private static final String NAME = "currency-converter";
+
+    private final CurrencyConverterClient currencyConverterClient;
+    private final ConverterResilienceProperties properties;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    /**
+     * Конструктор обёртки. Создаёт выключатель и ограничитель параллелизма и регистрирует их метрики.
+     *
+     * @param currencyConverterClient Клиент сервиса конвертации валют.
+     * @param properties              Настройки отказоустойчивости.
+     * @param meterRegistry           Реестр метрик.
+     */
+    public ResilientCurrencyConverterClient(CurrencyConverterClient currencyConverterClient,
+                                            ConverterResilienceProperties properties,
+                                            MeterRegistry meterRegistry) {
+        this.currencyConverterClient = currencyConverterClient;
+        this.properties = properties;
+
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(properties.getOpenStateDuration())
+                .permittedNumberOfCallsInHalfOpenState(properties.getPermittedCallsInHalfOpenState())
+                .recordExceptions(RetryableException.class)
+                .ignoreExceptions(BulkheadFullException.class)
+                .build());
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                .maxWaitDuration(properties.getMaxWait())
+                .build());
+        this.bulkhead = bulkheadRegistry.bulkhead(NAME);
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Currency converter circuit breaker: {}", event.getStateTransition());
+            meterRegistry.counter("currency.converter.circuit.transitions",
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name()).increment();
+        });
+        circuitBreaker.getEventPublisher().onCallNotPermitted(event ->
+                meterRegistry.counter("currency.converter.rejected", "reason", "circuit_open").increment());
+        bulkhead.getEventPublisher().onCallRejected(event ->
+                meterRegistry.counter("currency.converter.rejected", "reason", "bulkhead").increment());
+    }
+
+    /**
+     * Конвертирует сумму в пределах времени {@code currency.converter.resilience.deadline}.
+     * Курс загружается один раз на всех ожидающих его вызывающих (см. {@code CurrencyConversionServiceImpl}),
+     * поэтому время вызова задаётся настройкой, а не временем отдельного вызывающего.
+     *
+     * @param fromCurrency Из какой валюты.
+     * @param toCurrency   В какую валюту.
+     * @param amount       Сумма для конвертации.
+     * @return Конвертированная сумма.
+     * @throws ServiceUnavailableException Если сервис недоступен или время вызова истекло.
+     */
+    public Double convert(String fromCurrency, String toCurrency, Double amount) {
+        return call(properties.getDeadline(), options -> currencyConverterClient.convert(fromCurrency, toCurrency, amount, options));
+    }
+
+    /**
+     * Возвращает карту поддерживаемых валют в пределах времени по умолчанию.
+     *
+     * @return {@link Map}<{@link String}, {@link String}>, где ключом является валютный код, а значением - название валюты
+     * @throws ServiceUnavailableException Если сервис недоступен или время вызова истекло.
+     */
+    public Map<String, String> supportedCurrencyMap() {
+        return call(properties.getDeadline(), currencyConverterClient::supportedCurrencyMap);
+    }
+
+    /**
+     * Выполняет вызов через выключатель и ограничитель параллелизма, повторяя временные ошибки до истечения времени.
+     *
+     * @param timeout Общее время на вызов.
+     * @param request Вызов клиента с таймаутами попытки.
+     * @param <T>     Тип результата.
+     * @return Результат вызова.
+     */
+    private <T> T call(Duration timeout, Function<Request.Options, T> request) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long backoff = properties.getInitialBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) throw unavailable("deadline exceeded", null);
+            Request.Options options = new Request.Options(remaining, TimeUnit.MILLISECONDS, remaining, TimeUnit.MILLISECONDS, true);
+            try {
+                return circuitBreaker.executeSupplier(() -> bulkhead.executeSupplier(() -> request.apply(options)));
+            } catch (CallNotPermittedException e) {
+                throw unavailable("circuit breaker is open", e);
+            } catch (BulkheadFullException e) {
+                throw unavailable("too many concurrent calls", e);
+            } catch (RetryableException e) {
+                long delay = jitter(backoff);
+                if (attempt >= properties.getMaxAttempts() || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) >= deadline)
+                    throw unavailable(e.getMessage(), e);
+                log.info("Currency converter attempt {} failed: {}. Retrying in {} ms", attempt, e.getMessage(), delay);
+                sleep(delay, e);
+                backoff = Math.min(backoff * 2, properties.getMaxBackoff().toMillis());
+            }
+        }
+    }
+
+    /**
+     * Возвращает задержку со случайным разбросом в диапазоне от половины до полной задержки.
+     *
+     * @param backoff Задержка в миллисекундах.
+     * @return Задержка со случайным разбросом.
+     */
+    private long jitter(long backoff) {
+        long half = backoff / 2;
+        return half + ThreadLocalRandom.current().nextLong(backoff - half + 1);
+    }
+
+    /**
+     * Создаёт исключение недоступности сервиса конвертации валют.
+     *
+     * @param reason Причина недоступности.
+     * @param cause  Исходное исключение (может быть {@code null}).
+     * @return Исключение с сообщением "Currency converter is unavailable: &lt;причина&gt;".
+     */
+    private static ServiceUnavailableException unavailable(String reason, Throwable cause) {
+        return new ServiceUnavailableException("Currency converter is unavailable: " + reason, cause);
+    }
+
+    private void sleep(long delay, RetryableException cause) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw unavailable("interrupted", cause);
+        }
+    }
+}
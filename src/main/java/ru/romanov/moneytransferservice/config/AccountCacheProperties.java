@@ -0,0 +1,18 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша сведений о счетах (идентификатор, валюта, владелец).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.account-cache")
+public class AccountCacheProperties {
+    private Duration ttl = Duration.ofMinutes(10);  // Время хранения сведений о счёте после загрузки
+    private int maxSize = 100_000;                  // Максимальное количество счетов в кэше
+}
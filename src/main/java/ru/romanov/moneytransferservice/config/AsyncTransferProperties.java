@@ -0,0 +1,17 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки асинхронного выполнения переводов.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.async")
+public class AsyncTransferProperties {
+    private int maxConcurrency = 64;              // Максимальное количество одновременно выполняемых переводов
+    private int maxBacklog = 10000;               // Максимальное количество принятых, но не завершённых переводов, сверх которого запросы получают 503
+    private long staleRunningTimeout = 300_000;   // Время в состоянии RUNNING в миллисекундах, после которого перевод считается прерванным
+}
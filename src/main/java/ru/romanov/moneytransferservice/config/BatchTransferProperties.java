@@ -0,0 +1,15 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки пакетных переводов.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.batch")
+public class BatchTransferProperties {
+    private int maxSize = 1000;   // Максимальное количество переводов в одном пакете
+}
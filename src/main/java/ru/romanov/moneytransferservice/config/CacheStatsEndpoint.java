@@ -0,0 +1,47 @@
+package ru.romanov.moneytransferservice.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Конечная точка actuator {@code /actuator/cachestats} с долей попаданий в кэши приложения.
+ * <p>
+ * Общая конечная точка {@code metrics} не публикуется: она позволяет перечислить значения тегов всех метрик.
+ * Эта конечная точка возвращает только агрегированную долю попаданий по именам кэшей, вычисленную
+ * по счётчикам {@code cache.gets}, которые регистрирует {@code CaffeineCacheMetrics}.
+ */
+@Component
+@AllArgsConstructor
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Возвращает долю попаданий в каждый кэш.
+     *
+     * @return {@link Map}, где ключом является имя кэша, а значением - доля попаданий от 0 до 1
+     * ({@code 0}, если к кэшу ещё не обращались).
+     */
+    @ReadOperation
+    public Map<String, Double> hitRatios() {
+        Map<String, Double> hits = new HashMap<>();
+        Map<String, Double> requests = new HashMap<>();
+        for (FunctionCounter counter : meterRegistry.find("cache.gets").functionCounters()) {
+            String cache = counter.getId().getTag("cache");
+            if (cache == null) continue;
+            requests.merge(cache, counter.count(), Double::sum);
+            if ("hit".equals(counter.getId().getTag("result"))) hits.merge(cache, counter.count(), Double::sum);
+        }
+        Map<String, Double> ratios = new TreeMap<>();
+        requests.forEach((cache, total) -> ratios.put(cache, total > 0 ? hits.getOrDefault(cache, 0.0) / total : 0.0));
+        return ratios;
+    }
+}
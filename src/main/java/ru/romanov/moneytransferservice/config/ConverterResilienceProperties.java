@@ -0,0 +1,27 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки отказоустойчивости вызовов сервиса конвертации валют.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "currency.converter.resilience")
+public class ConverterResilienceProperties {
+    private Duration deadline = Duration.ofSeconds(3);            // Общее время на вызов, включая повторные попытки
+    private int maxAttempts = 3;                                  // Максимальное количество попыток
+    private Duration initialBackoff = Duration.ofMillis(100);     // Начальная задержка перед повторной попыткой
+    private Duration maxBackoff = Duration.ofSeconds(1);          // Максимальная задержка перед повторной попыткой
+    private int maxConcurrentCalls = 20;                          // Максимальное количество одновременных вызовов
+    private Duration maxWait = Duration.ofMillis(100);            // Время ожидания свободного места для вызова
+    private float failureRateThreshold = 50;                      // Доля ошибок в процентах, при которой размыкается цепь
+    private int slidingWindowSize = 20;                           // Количество последних вызовов для расчёта доли ошибок
+    private int minimumNumberOfCalls = 10;                        // Минимальное количество вызовов для расчёта доли ошибок
+    private Duration openStateDuration = Duration.ofSeconds(30);  // Время, в течение которого цепь разомкнута
+    private int permittedCallsInHalfOpenState = 3;                // Количество пробных вызовов после размыкания
+}
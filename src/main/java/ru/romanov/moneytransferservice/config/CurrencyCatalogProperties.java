@@ -0,0 +1,18 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки каталога поддерживаемых валют.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "currency.catalog")
+public class CurrencyCatalogProperties {
+    private long refreshInterval = 600_000;          // Интервал обновления каталога в миллисекундах
+    private Duration maxAge = Duration.ofMinutes(5);  // Время кэширования каталога клиентами (Cache-Control: max-age)
+}
@@ -20,13 +20,14 @@ import java.util.Collections;
 public class CurrencyConverterConfiguration {
 
     /**
-     * Создает и возвращает бин {@link Retryer} для настройки повторных попыток в Feign клиенте.
+     * Создает и возвращает бин {@link Retryer}, отключающий повторные попытки внутри Feign клиента.
+     * Повторные попытки с учётом общего времени вызова выполняет {@code ResilientCurrencyConverterClient}.
      *
-     * @return Объект {@link Retryer} для настройки повторных попыток.
+     * @return Объект {@link Retryer}, не выполняющий повторных попыток.
      */
     @Bean
     public Retryer retryer() {
-        return new FeignIntervalRetryer();
+        return Retryer.NEVER_RETRY;
     }
 
     /**
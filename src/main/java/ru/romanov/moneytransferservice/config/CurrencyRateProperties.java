@@ -0,0 +1,20 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша курсов валют.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "currency.rates")
+public class CurrencyRateProperties {
+    private Duration ttl = Duration.ofMinutes(5);           // Время, после которого курс удаляется из кэша
+    private Duration refreshAfter = Duration.ofMinutes(1);  // Время, после которого курс обновляется в фоне
+    private int maxSize = 1000;                             // Максимальное количество валютных пар в кэше
+    private Duration failureTtl = Duration.ofSeconds(1);    // Время, в течение которого ошибка загрузки курса возвращается без повторного вызова
+}
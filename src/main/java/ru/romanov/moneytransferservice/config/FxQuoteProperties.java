@@ -0,0 +1,18 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки котировок курсов валют.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "currency.quotes")
+public class FxQuoteProperties {
+    private Duration ttl = Duration.ofSeconds(30);  // Время, в течение которого курс котировки зафиксирован
+    private int maxSize = 100_000;                  // Максимальное количество действующих котировок в памяти
+}
@@ -0,0 +1,19 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки хранилища ключей идемпотентности.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.idempotency")
+public class IdempotencyProperties {
+    private int cacheSize = 10_000;               // Максимальное количество ответов в памяти
+    private Duration ttl = Duration.ofHours(24);  // Время хранения ключа
+    private Duration lease = Duration.ofMinutes(1);  // Через сколько незавершённый ключ может быть зарезервирован повторно
+}
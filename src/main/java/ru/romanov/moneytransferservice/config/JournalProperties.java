@@ -0,0 +1,20 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки локального журнала транзакций.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.journal")
+public class JournalProperties {
+    private boolean enabled = false;                // Подтверждать транзакции после записи в журнал, а не в базу данных
+    private String directory = "journal";           // Каталог сегментов журнала
+    private long segmentSize = 16 * 1024 * 1024;    // Размер сегмента в байтах, после которого открывается новый сегмент
+    private long maxBatchDelay = 2;                 // Бюджет задержки группового fsync в миллисекундах
+    private int maxBatchSize = 1000;                // Максимальное количество запросов в одном групповом fsync
+    private long drainInterval = 1000;              // Интервал переноса сегментов в базу данных в миллисекундах
+}
@@ -0,0 +1,26 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки движка проведения операций.
+ * <p>
+ * В режиме {@code jpa} каждая операция выполняется транзакцией базы данных.
+ * В режиме {@code sharded} балансы счетов хранятся в памяти однопоточных шардов,
+ * а изменения записываются в базу данных пачками; операция подтверждается после записи своей пачки.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.engine")
+public class LedgerProperties {
+    private String mode = "jpa";                                        // Режим движка: jpa или sharded
+    private int shards = Runtime.getRuntime().availableProcessors();    // Количество шардов
+    private int journalCapacity = 100_000;                              // Максимальное количество незаписанных операций
+    private int flushBatchSize = 500;                                   // Максимальное количество операций в одной записи в базу данных
+    private long flushInterval = 50;                                    // Интервал ожидания новых операций в миллисекундах
+    private int maxFlushAttempts = 5;                                   // Количество попыток записи пачки до переноса в хранилище недоставленных изменений
+    private String deadLetterDirectory = "ledger-dead-letter";          // Каталог хранилища недоставленных изменений
+    private long flushTimeout = 10_000;                                 // Максимальное время ожидания записи операции в миллисекундах
+}
@@ -0,0 +1,21 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки режима пессимистической блокировки счетов при переводах.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.locking")
+public class LockingProperties {
+    private boolean enabled = false;                  // Блокировать счета (SELECT ... FOR UPDATE) перед изменением балансов
+    private int maxAttempts = 3;                      // Максимальное количество попыток перевода при таймауте блокировки
+    private long retryDelay = 50;                     // Начальная задержка между попытками в миллисекундах
+    private long lockTimeout = 3000;                  // Таймаут ожидания блокировки счёта в миллисекундах (SET LOCAL lock_timeout)
+    private int contendedAccounts = 10;               // Количество наиболее конкурентных счетов в метрике account.lock.wait.top
+    private int contentionTrackedAccounts = 10_000;   // Максимальное количество счетов, ожидание блокировки которых учитывается за интервал
+    private long contentionInterval = 60_000;         // Интервал обновления метрики account.lock.wait.top в миллисекундах
+}
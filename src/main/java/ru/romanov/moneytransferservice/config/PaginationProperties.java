@@ -0,0 +1,27 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки курсорной пагинации списков.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "pagination")
+public class PaginationProperties {
+    private int defaultLimit = 100;   // Размер страницы, если параметр limit не указан
+    private int maxLimit = 1000;      // Максимальный размер страницы
+
+    /**
+     * Приводит запрошенный размер страницы к допустимому диапазону.
+     *
+     * @param limit Запрошенный размер страницы (может быть {@code null}).
+     * @return Размер страницы от {@code 1} до {@link #maxLimit}.
+     */
+    public int resolveLimit(Integer limit) {
+        if (limit == null) return Math.min(defaultLimit, maxLimit);
+        return Math.max(1, Math.min(limit, maxLimit));
+    }
+}
@@ -0,0 +1,20 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки обслуживания секций таблицы транзакций.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.partitions")
+public class PartitionProperties {
+    private boolean enabled = true;                  // Создавать и архивировать месячные секции таблицы transaction
+    private int premakeMonths = 3;                   // На сколько месяцев вперёд заранее создаются секции
+    private int retentionMonths = 24;                // Сколько полных месяцев секции хранятся в базе данных
+    private String archiveDirectory = "archive";     // Каталог сжатых выгрузок удалённых секций
+    private long maintenanceInterval = 3_600_000;    // Интервал обслуживания секций в миллисекундах
+    private long lockTimeout = 500;                  // Ожидание блокировки таблицы при отсоединении секции в миллисекундах
+}
@@ -0,0 +1,128 @@
+package ru.romanov.moneytransferservice.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фильтр, ограничивающий количество одновременно обрабатываемых запросов в режиме виртуальных потоков.
+ * <p>
+ * С виртуальными потоками Tomcat больше не ограничивает параллелизм размером пула потоков. Фильтр возвращает
+ * общую границу числа запросов в обработке: лишние запросы ожидают место не дольше {@code acquire-timeout},
+ * после чего получают ответ 503. Граница не связана с размером пула соединений, так как многие запросы
+ * не удерживают соединение (ожидание сервиса конвертации, чтение кэшей); доступ к соединениям ограничивает
+ * сам пул Hikari, и запрос, не получивший соединение за {@code spring.datasource.hikari.connection-timeout},
+ * также получает ответ 503 вместо ошибки 500.
+ * <p>
+ * Для асинхронных запросов ({@code WebAsyncTask}) место освобождается только после завершения асинхронной
+ * обработки, поскольку выгрузка и загрузка данных продолжают работать после возврата из фильтра.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class RequestConcurrencyFilter extends OncePerRequestFilter {
+    private final Semaphore permits;
+    private final VirtualThreadProperties virtualThreadProperties;
+
+    /**
+     * Конструктор фильтра.
+     *
+     * @param virtualThreadProperties Настройки ограничения нагрузки.
+     */
+    public RequestConcurrencyFilter(VirtualThreadProperties virtualThreadProperties) {
+        this.virtualThreadProperties = virtualThreadProperties;
+        this.permits = new Semaphore(virtualThreadProperties.getMaxConcurrentRequests(), true);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(virtualThreadProperties.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("Request rejected, concurrency limit reached: {} {}", request.getMethod(), request.getRequestURI());
+            reject(response);
+            return;
+        }
+        boolean asyncStarted = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new PermitReleasingListener());
+                asyncStarted = true;
+            }
+        } catch (ServletException | RuntimeException e) {
+            if (!isConnectionTimeout(e) || response.isCommitted()) throw e;
+            log.warn("Request rejected, database connection not acquired: {} {}", request.getMethod(), request.getRequestURI());
+            reject(response);
+        } finally {
+            if (!asyncStarted) permits.release();
+        }
+    }
+
+    /**
+     * Отвечает кодом 503 с предложением повторить запрос через секунду.
+     *
+     * @param response HTTP-ответ.
+     */
+    private void reject(HttpServletResponse response) throws IOException {
+        response.reset();
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    /**
+     * Проверяет, вызвана ли ошибка истечением времени ожидания соединения в пуле Hikari.
+     *
+     * @param e Ошибка обработки запроса.
+     * @return {@code true}, если соединение с базой данных не было получено вовремя.
+     */
+    private static boolean isConnectionTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+            if (cause instanceof SQLTransientConnectionException) return true;
+        return false;
+    }
+
+    /**
+     * Освобождает место асинхронного запроса после завершения его обработки.
+     * {@code onComplete} вызывается и после истечения времени ожидания или ошибки.
+     */
+    private class PermitReleasingListener implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permits.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -3,19 +3,24 @@ package ru.romanov.moneytransferservice.config;
 import feign.Response;
 import feign.RetryableException;
 import feign.codec.ErrorDecoder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Set;
 
 /**
- * Класс для декодирования ошибок Feign клиента с возможностью повторных попыток при возникновении определенных ошибок.
+ * Класс для декодирования ошибок Feign клиента с разделением ошибок на временные и постоянные.
  */
+@Slf4j
 public class RetryableErrorDecoder implements ErrorDecoder {
+    private static final Set<Integer> TRANSIENT_STATUSES = Set.of(429, 500, 502, 503, 504);
 
     private final ErrorDecoder defaultErrorDecoder = new Default();
 
     /**
      * Метод для декодирования ошибки, возвращаемой сервером.
-     * Если статус ответа равен 429 (Too Many Requests) или >= 500 (ошибки сервера),
-     * генерируется {@link RetryableException} для повторной попытки запроса.
-     * В противном случае используется стандартный декодер ошибок.
+     * Для временных ошибок (429 Too Many Requests, 500, 502, 503, 504) возвращается {@link RetryableException}:
+     * такие вызовы повторяются и учитываются автоматическим выключателем как сбои сервиса.
+     * Для остальных ошибок используется стандартный декодер, и вызов не повторяется.
      *
      * @param methodKey Ключ метода Feign клиента.
      * @param response  Ответ сервера.
@@ -23,16 +28,17 @@ public class RetryableErrorDecoder implements ErrorDecoder {
      */
     @Override
     public Exception decode(String methodKey, Response response) {
-        if (response.status() == 429 || response.status() >= 500) {
-            System.out.println(response.status());
+        if (TRANSIENT_STATUSES.contains(response.status())) {
+            log.warn("Transient error from currency converter. Method: {}, status: {}", methodKey, response.status());
             return new RetryableException(
                     response.status(),
-                    "Retrying due to server error",
+                    "Transient server error",
                     response.request().httpMethod(),
                     null,
                     response.request()
             );
         }
+        log.error("Permanent error from currency converter. Method: {}, status: {}", methodKey, response.status());
         return defaultErrorDecoder.decode(methodKey, response);
     }
 }
@@ -0,0 +1,17 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки потоковой выгрузки истории транзакций.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.export")
+public class TransactionExportProperties {
+    private Duration timeout = Duration.ofMinutes(10);  // Максимальная длительность одной выгрузки (соединение и транзакция заняты всё это время)
+}
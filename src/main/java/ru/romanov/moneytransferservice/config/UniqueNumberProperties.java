@@ -0,0 +1,15 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки генерации уникальных номеров счетов и пользователей.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.numbers")
+public class UniqueNumberProperties {
+    private Integer nodeId;   // Идентификатор экземпляра сервиса (0..65535); если не задан, выбирается случайно при запуске
+}
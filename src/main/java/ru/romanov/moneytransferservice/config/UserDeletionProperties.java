@@ -0,0 +1,15 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки пакетного удаления пользователей.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.user-deletion")
+public class UserDeletionProperties {
+    private int maxBatchSize = 1000;   // Максимальное количество пользователей в одном запросе на удаление
+}
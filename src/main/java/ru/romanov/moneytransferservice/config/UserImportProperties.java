@@ -0,0 +1,28 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки потокового импорта пользователей.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.user-import")
+public class UserImportProperties {
+    private int chunkSize = 500;                        // Количество строк, проверяемых и сохраняемых в одной транзакции
+    private int parallelism = 0;                        // Количество потоков проверки строк (0 - по числу процессоров)
+    private Duration timeout = Duration.ofMinutes(30);  // Максимальная длительность одного импорта
+
+    /**
+     * Возвращает количество потоков проверки строк с учётом значения по умолчанию.
+     *
+     * @return Количество потоков.
+     */
+    public int resolveParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,18 @@
+package ru.romanov.moneytransferservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки ограничения нагрузки в режиме виртуальных потоков.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "transfer.virtual-threads")
+public class VirtualThreadProperties {
+    private int maxConcurrentRequests = 1000;                 // Максимальное количество одновременно обрабатываемых запросов, включая асинхронные
+    private Duration acquireTimeout = Duration.ofSeconds(1);  // Время ожидания свободного места перед ответом 503
+}
@@ -1,8 +1,14 @@
 package ru.romanov.moneytransferservice.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,13 +17,26 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.romanov.moneytransferservice.config.CurrencyCatalogProperties;
+import ru.romanov.moneytransferservice.config.TransactionExportProperties;
+import ru.romanov.moneytransferservice.enums.ExportFormatEnum;
+import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
 import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
 import ru.romanov.moneytransferservice.exception.CodeNotSupportedException;
 import ru.romanov.moneytransferservice.exception.UserNotFoundException;
+import ru.romanov.moneytransferservice.model.dto.CurrencyCatalogDto;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
 import ru.romanov.moneytransferservice.model.entity.Account;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
 import ru.romanov.moneytransferservice.service.AccountService;
+import ru.romanov.moneytransferservice.service.CurrencyCatalogService;
+import ru.romanov.moneytransferservice.service.TransactionExportService;
+import ru.romanov.moneytransferservice.service.TransactionHistoryService;
 
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 /**
@@ -29,6 +48,11 @@ import java.util.Map;
 @AllArgsConstructor
 public class AccountController {
     private AccountService accountService;
+    private CurrencyCatalogService currencyCatalogService;
+    private CurrencyCatalogProperties currencyCatalogProperties;
+    private TransactionExportService transactionExportService;
+    private TransactionHistoryService transactionHistoryService;
+    private TransactionExportProperties transactionExportProperties;
 
     /**
      * Создает новый счёт.
@@ -49,28 +73,45 @@ public class AccountController {
     }
 
     /**
-     * Возвращает список всех счетов.
+     * Возвращает страницу счетов в порядке возрастания идентификатора.
+     * Фильтры применяются в запросе к базе данных.
      *
-     * @return {@link ResponseEntity} со списком счетов или кодом ошибки.
+     * @param after             Курсор {@code next} предыдущей страницы (не указывается для первой страницы).
+     * @param limit             Размер страницы.
+     * @param ownerUniqueNumber Фильтр по уникальному номеру владельца.
+     * @param currency          Фильтр по коду валюты.
+     * @return {@link ResponseEntity} со страницей счетов или кодом {@code 204}, если счетов нет.
      */
     @GetMapping
-    public ResponseEntity<List<Account>> getAccounts() {
-        List<Account> accounts = accountService.getAccounts();
-        if (accounts.isEmpty()) {
+    public ResponseEntity<CursorPage<Account>> getAccounts(@RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) Integer limit,
+                                                           @RequestParam(required = false) String ownerUniqueNumber,
+                                                           @RequestParam(required = false) String currency) {
+        CursorPage<Account> page = accountService.getAccounts(after, limit, ownerUniqueNumber, currency);
+        if (page.getItems().isEmpty()) {
             log.warn("[204 NO CONTENT] AccountController.getAccounts()");
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         }
-        return ResponseEntity.ok(accounts);
+        return ResponseEntity.ok(page);
     }
 
     /**
      * Возвращает карту поддерживаемых валют.
+     * Ответ содержит заголовки {@code ETag} и {@code Cache-Control}; если версия каталога у клиента
+     * совпадает с текущей, возвращается {@code 304 Not Modified} без тела. Заголовок {@code If-None-Match}
+     * проверяется средствами Spring, поэтому поддерживаются списки версий, слабые версии ({@code W/})
+     * и {@code *}.
      *
+     * @param request Запрос с заголовком {@code If-None-Match} (может отсутствовать).
      * @return {@link ResponseEntity} с картой поддерживаемых валют.
      */
     @GetMapping("/supported-currency-map")
-    public ResponseEntity<Map<String, String>> getSupportedCurrencyMap() {
-        return ResponseEntity.ok(accountService.getSupportedCurrencyMap());
+    public ResponseEntity<Map<String, String>> getSupportedCurrencyMap(WebRequest request) {
+        CurrencyCatalogDto catalog = currencyCatalogService.getCatalog();
+        CacheControl cacheControl = CacheControl.maxAge(currencyCatalogProperties.getMaxAge()).cachePublic();
+        if (request.checkNotModified(catalog.getEtag()))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.getEtag()).cacheControl(cacheControl).build();
+        return ResponseEntity.ok().eTag(catalog.getEtag()).cacheControl(cacheControl).body(catalog.getCurrencies());
     }
 
     /**
@@ -82,13 +123,83 @@ public class AccountController {
     @GetMapping("/{account_number}")
     public ResponseEntity<Account> getAccount(@PathVariable String account_number) {
         try {
-            return ResponseEntity.ok(accountService.getAccountByAccountNumber(account_number));
+            return ResponseEntity.ok(accountService.getCurrentAccount(account_number));
         } catch (AccountNotFoundException e) {
             log.error("[404 NOT FOUND] AccountController.getAccount() / message: {}", e.getMessage());
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
 
+    /**
+     * Возвращает страницу истории транзакций счёта в порядке возрастания даты.
+     *
+     * @param account_number Номер счёта.
+     * @param from           Начало периода в формате ISO, включительно.
+     * @param to             Конец периода в формате ISO, не включительно.
+     * @param type           Тип транзакции.
+     * @param after          Курсор {@code next} предыдущей страницы (не указывается для первой страницы).
+     * @param limit          Размер страницы.
+     * @return {@link ResponseEntity} со страницей транзакций или кодом ошибки.
+     */
+    @GetMapping("/{account_number}/transactions")
+    public ResponseEntity<CursorPage<Transaction>> getTransactions(@PathVariable String account_number,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                   @RequestParam(required = false) TypeTransactionEnum type,
+                                                                   @RequestParam(required = false) String after,
+                                                                   @RequestParam(required = false) Integer limit) {
+        try {
+            accountService.getAccountInfo(account_number);
+        } catch (AccountNotFoundException e) {
+            log.error("[404 NOT FOUND] AccountController.getTransactions() / message: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok(transactionHistoryService.getAccountHistory(account_number, from, to, type, after, limit));
+    }
+
+    /**
+     * Выгружает историю транзакций счёта потоком в формате NDJSON или CSV.
+     * Строки записываются в ответ по мере чтения из базы данных, поэтому размер выгрузки не ограничен памятью.
+     * Выгрузка выполняется асинхронно с собственным таймаутом {@code transfer.export.timeout}: всё это время
+     * она занимает соединение пула и транзакцию чтения, а общий таймаут асинхронных запросов не меняется.
+     * По истечении таймаута Spring MVC прерывает поток выгрузки, и выгрузка останавливается, освобождая соединение.
+     *
+     * @param account_number Номер счёта.
+     * @param format         Формат выгрузки: {@code ndjson} (по умолчанию) или {@code csv}.
+     * @param response       HTTP-ответ, в который записывается выгрузка.
+     * @return Асинхронная задача выгрузки или {@code null}, если в ответ записан код ошибки.
+     */
+    @GetMapping("/{account_number}/transactions/export")
+    public WebAsyncTask<Void> exportTransactions(@PathVariable String account_number,
+                                                 @RequestParam(defaultValue = "ndjson") String format,
+                                                 HttpServletResponse response) {
+        ExportFormatEnum exportFormat;
+        try {
+            exportFormat = ExportFormatEnum.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.error("[400 BAD REQUEST] AccountController.exportTransactions() / unsupported format: {}", format);
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return null;
+        }
+        try {
+            accountService.getAccountInfo(account_number);
+        } catch (AccountNotFoundException e) {
+            log.error("[404 NOT FOUND] AccountController.exportTransactions() / message: {}", e.getMessage());
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return null;
+        }
+        MediaType mediaType = exportFormat == ExportFormatEnum.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        String filename = account_number + "-transactions." + exportFormat.name().toLowerCase();
+        response.setContentType(mediaType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        return new WebAsyncTask<>(transactionExportProperties.getTimeout().toMillis(), () -> {
+            transactionExportService.exportAccountHistory(account_number, exportFormat, response.getOutputStream());
+            return null;
+        });
+    }
+
     /**
      * Удаляет счёт по его номеру.
      *
@@ -0,0 +1,34 @@
+package ru.romanov.moneytransferservice.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.romanov.moneytransferservice.service.UserService;
+
+import java.util.List;
+
+/**
+ * Контроллер административных операций.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@AllArgsConstructor
+public class AdminController {
+    private UserService userService;
+
+    /**
+     * Удаляет пользователей по списку идентификаторов вместе со всеми их счетами.
+     *
+     * @param ids Идентификаторы пользователей.
+     * @return {@link ResponseEntity} с количеством удалённых пользователей или кодом ошибки, если список пуст.
+     */
+    @PostMapping("/users/bulk-delete")
+    public ResponseEntity<String> deleteUsers(@RequestBody List<Long> ids) {
+        if (ids == null || ids.isEmpty()) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        return ResponseEntity.ok("Users deleted: " + userService.deleteUsers(ids));
+    }
+}
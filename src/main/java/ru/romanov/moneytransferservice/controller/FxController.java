@@ -0,0 +1,36 @@
+package ru.romanov.moneytransferservice.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.romanov.moneytransferservice.model.dto.FxQuoteDto;
+import ru.romanov.moneytransferservice.service.FxQuoteService;
+
+/**
+ * Контроллер для работы с котировками курсов валют.
+ */
+@RestController
+@RequestMapping("/api/fx")
+@AllArgsConstructor
+public class FxController {
+    private FxQuoteService fxQuoteService;
+
+    /**
+     * Создает котировку, фиксирующую курс валютной пары на ограниченное время.
+     * Идентификатор котировки передаётся в перевод, чтобы перевод выполнялся без обращения к сервису конвертации.
+     *
+     * @param fromCurrency Из какой валюты.
+     * @param toCurrency   В какую валюту.
+     * @return {@link ResponseEntity} с созданной котировкой или кодом ошибки.
+     */
+    @PostMapping("/quotes")
+    public ResponseEntity<FxQuoteDto> createQuote(@RequestParam String fromCurrency, @RequestParam String toCurrency) {
+        if (fromCurrency.equalsIgnoreCase(toCurrency)) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(fxQuoteService.createQuote(fromCurrency.toUpperCase(), toCurrency.toUpperCase()));
+    }
+}
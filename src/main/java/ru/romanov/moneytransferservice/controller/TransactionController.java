@@ -3,13 +3,26 @@ package ru.romanov.moneytransferservice.controller;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.dto.BatchTransferResultDto;
+import ru.romanov.moneytransferservice.model.dto.TransferRequestDto;
+import ru.romanov.moneytransferservice.model.entity.PendingTransfer;
 import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.service.AsyncTransferService;
+import ru.romanov.moneytransferservice.service.IdempotencyService;
 import ru.romanov.moneytransferservice.service.TransactionService;
 
+import java.util.List;
+import java.util.function.Supplier;
+
 /**
  * Контроллер для управления транзакциями.
  */
@@ -17,51 +30,136 @@ import ru.romanov.moneytransferservice.service.TransactionService;
 @RequestMapping("/api/transactions")
 @AllArgsConstructor
 public class TransactionController {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private TransactionService transactionService;
+    private IdempotencyService idempotencyService;
+    private AsyncTransferService asyncTransferService;
 
     /**
      * Выполняет перевод денег между счетами.
      *
      * @param fromAccount Номер счёта, с которого производится перевод.
      * @param toAccount   Номер счёта, на который производится перевод.
-     * @param amount      Сумма перевода.
+     * @param amount         Сумма перевода.
+     * @param quoteId        Идентификатор котировки курса, полученной в {@code POST /api/fx/quotes} (необязательный).
+     * @param idempotencyKey Ключ идемпотентности (необязательный).
      * @return {@link ResponseEntity} с созданной транзакцией или кодом ошибки.
      */
     @PostMapping("/transfer")
     public ResponseEntity<Transaction> transferMoney(@RequestParam String fromAccount,
                                                      @RequestParam String toAccount,
-                                                     @RequestParam double amount) {
-        if ((fromAccount == null && toAccount == null) || amount <= 0)
+                                                     @RequestParam Money amount,
+                                                     @RequestParam(required = false) String quoteId,
+                                                     @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if ((fromAccount == null && toAccount == null) || amount.signum() <= 0)
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         else if (fromAccount != null && toAccount != null)
             if (fromAccount.equals(toAccount)) return new ResponseEntity<>(HttpStatus.CONFLICT);
-        return ResponseEntity.status(HttpStatus.CREATED).body(transactionService.transferMoney(fromAccount, toAccount, amount));
+        if (idempotencyKey == null || idempotencyKey.isBlank())
+            return ResponseEntity.status(HttpStatus.CREATED).body(transactionService.transferMoney(fromAccount, toAccount, amount, quoteId));
+        // Курс определяется до транзакции, в которой выполняется перевод и сохраняется ответ
+        return ResponseEntity.status(HttpStatus.CREATED).body(idempotencyService.execute(idempotencyKey,
+                "transfer:" + fromAccount + ":" + toAccount + ":" + fingerprint(amount) + ":" + quoteId,
+                () -> transactionService.prepareTransfer(fromAccount, toAccount, amount, quoteId),
+                prepared -> transactionService.transferMoney(prepared)));
+    }
+
+    /**
+     * Принимает перевод денег между счетами к асинхронному выполнению.
+     *
+     * @param fromAccount Номер счёта, с которого производится перевод.
+     * @param toAccount   Номер счёта, на который производится перевод.
+     * @param amount      Сумма перевода.
+     * @return {@link ResponseEntity} с принятым переводом или кодом ошибки.
+     */
+    @PostMapping(value = "/transfer", params = "async=true")
+    public ResponseEntity<PendingTransfer> submitTransfer(@RequestParam String fromAccount,
+                                                          @RequestParam String toAccount,
+                                                          @RequestParam Money amount) {
+        if (amount.signum() <= 0) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        if (fromAccount.equals(toAccount)) return new ResponseEntity<>(HttpStatus.CONFLICT);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(asyncTransferService.submitTransfer(fromAccount, toAccount, amount));
+    }
+
+    /**
+     * Возвращает состояние асинхронного перевода.
+     *
+     * @param id Идентификатор перевода.
+     * @return {@link ResponseEntity} с переводом и его состоянием ({@code PENDING}, {@code RUNNING}, {@code COMPLETED}, {@code FAILED}).
+     */
+    @GetMapping("/{id}/status")
+    public ResponseEntity<PendingTransfer> getTransferStatus(@PathVariable Long id) {
+        return ResponseEntity.ok(asyncTransferService.getTransfer(id));
+    }
+
+    /**
+     * Выполняет пакет переводов между счетами в одной транзакции.
+     *
+     * @param transfers Список переводов.
+     * @return {@link ResponseEntity} с результатом каждого перевода или кодом ошибки, если пакет пуст.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchTransferResultDto>> transferMoneyBatch(@RequestBody List<TransferRequestDto> transfers) {
+        if (transfers == null || transfers.isEmpty()) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        return ResponseEntity.ok(transactionService.transferMoneyBatch(transfers));
     }
 
     /**
      * Выполняет зачисление денег на счёт.
      *
      * @param toAccount Номер счёта, на который производится зачисление.
-     * @param amount    Сумма зачисления.
+     * @param amount         Сумма зачисления.
+     * @param idempotencyKey Ключ идемпотентности (необязательный).
      * @return {@link ResponseEntity} с созданной транзакцией.
      */
     @PostMapping("/deposit")
     public ResponseEntity<Transaction> depositMoney(@RequestParam String toAccount,
-                                                    @RequestParam double amount) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(transactionService.depositMoney(toAccount, amount));
+                                                    @RequestParam Money amount,
+                                                    @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(idempotent(idempotencyKey,
+                "deposit:" + toAccount + ":" + fingerprint(amount),
+                () -> transactionService.depositMoney(toAccount, amount)));
     }
 
     /**
      * Выполняет списание денег со счёта.
      *
      * @param fromAccount Номер счёта, с которого производится списание.
-     * @param amount      Сумма списания.
+     * @param amount         Сумма списания.
+     * @param idempotencyKey Ключ идемпотентности (необязательный).
      * @return {@link ResponseEntity} с созданной транзакцией.
      */
     @PostMapping("/debit")
     public ResponseEntity<Transaction> debitMoney(@RequestParam String fromAccount,
-                                                  @RequestParam double amount) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(transactionService.debitMoney(fromAccount, amount));
+                                                  @RequestParam Money amount,
+                                                  @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(idempotent(idempotencyKey,
+                "debit:" + fromAccount + ":" + fingerprint(amount),
+                () -> transactionService.debitMoney(fromAccount, amount)));
+    }
+
+    /**
+     * Выполняет операцию через сервис идемпотентности, если клиент передал ключ.
+     *
+     * @param idempotencyKey Ключ идемпотентности (может быть {@code null}).
+     * @param fingerprint    Отпечаток параметров запроса.
+     * @param operation      Операция.
+     * @return Результат операции.
+     */
+    private Transaction idempotent(String idempotencyKey, String fingerprint, Supplier<Transaction> operation) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) return operation.get();
+        return idempotencyService.execute(idempotencyKey, fingerprint, operation);
     }
-}
 
+    /**
+     * Возвращает запись суммы для отпечатка запроса без незначащих нулей,
+     * чтобы повтор запроса с суммой {@code 10.5} вместо {@code 10.50} не считался другим запросом.
+     *
+     * @param amount Сумма.
+     * @return Десятичная запись суммы.
+     */
+    private static String fingerprint(Money amount) {
+        return amount.toBigDecimal().stripTrailingZeros().toPlainString();
+    }
+}
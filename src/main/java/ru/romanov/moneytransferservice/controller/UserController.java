@@ -1,8 +1,12 @@
 package ru.romanov.moneytransferservice.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,17 +15,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.romanov.moneytransferservice.config.UserImportProperties;
+import ru.romanov.moneytransferservice.enums.ImportFormatEnum;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
 import ru.romanov.moneytransferservice.model.dto.UserDto;
 import ru.romanov.moneytransferservice.model.entity.User;
+import ru.romanov.moneytransferservice.service.UserImportService;
 import ru.romanov.moneytransferservice.service.UserService;
 import ru.romanov.moneytransferservice.service.ValidationService;
 
-import java.util.List;
-
 /**
  * Контроллер для управления пользователями.
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/users")
 @AllArgsConstructor
@@ -29,6 +38,8 @@ import java.util.List;
 public class UserController {
     private UserService userService;
     private ValidationService validationService;
+    private UserImportService userImportService;
+    private UserImportProperties userImportProperties;
 
     /**
      * Создает нового пользователя.
@@ -49,13 +60,47 @@ public class UserController {
     }
 
     /**
-     * Возвращает список всех пользователей.
+     * Импортирует пользователей из CSV или NDJSON потоком.
+     * Тело запроса читается и сохраняется пачками, а результат по каждой строке возвращается в формате NDJSON
+     * по мере обработки, поэтому размер загрузки не ограничен памятью.
+     * Импорт выполняется асинхронно с собственным таймаутом {@code transfer.user-import.timeout},
+     * общий таймаут асинхронных запросов при этом не меняется.
+     *
+     * @param format   Формат входных данных: {@code ndjson} (по умолчанию) или {@code csv} с заголовком.
+     * @param request  HTTP-запрос с данными пользователей в теле.
+     * @param response HTTP-ответ, в который записываются результаты импорта.
+     * @return Асинхронная задача импорта или {@code null}, если в ответ записан код ошибки.
+     */
+    @PostMapping("/import")
+    public WebAsyncTask<Void> importUsers(@RequestParam(defaultValue = "ndjson") String format,
+                                          HttpServletRequest request,
+                                          HttpServletResponse response) {
+        ImportFormatEnum importFormat;
+        try {
+            importFormat = ImportFormatEnum.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.error("[400 BAD REQUEST] UserController.importUsers() / unsupported format: {}", format);
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return null;
+        }
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        return new WebAsyncTask<>(userImportProperties.getTimeout().toMillis(), () -> {
+            userImportService.importUsers(importFormat, request.getInputStream(), response.getOutputStream());
+            return null;
+        });
+    }
+
+    /**
+     * Возвращает страницу пользователей в порядке возрастания идентификатора.
      *
-     * @return {@link ResponseEntity} со списком пользователей.
+     * @param after Курсор {@code next} предыдущей страницы (не указывается для первой страницы).
+     * @param limit Размер страницы.
+     * @return {@link ResponseEntity} со страницей пользователей и курсором следующей страницы.
      */
     @GetMapping
-    public ResponseEntity<List<User>> getUsers() {
-        return ResponseEntity.ok(userService.getUsers());
+    public ResponseEntity<CursorPage<User>> getUsers(@RequestParam(required = false) Long after,
+                                                     @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.getUsers(after, limit));
     }
 
     /**
@@ -0,0 +1,21 @@
+package ru.romanov.moneytransferservice.enums;
+
+/**
+ * Перечисление для результатов переводов в пакетном запросе:
+ * <ul>
+ *     <li>SUCCESS - Перевод выполнен.</li>
+ *     <li>INVALID_REQUEST - Не указан счёт или сумма не положительна.</li>
+ *     <li>TRANSFER_YOURSELF - Попытка перевода на счёт отправителя.</li>
+ *     <li>ACCOUNT_NOT_FOUND - Счёт отправителя или получателя не найден.</li>
+ *     <li>INSUFFICIENT_FUNDS - На счёте отправителя недостаточно средств.</li>
+ *     <li>FAILED - Перевод не выполнен из-за ошибки (например, недоступен сервис конвертации валют).</li>
+ * </ul>
+ */
+public enum BatchTransferStatusEnum {
+    SUCCESS,
+    INVALID_REQUEST,
+    TRANSFER_YOURSELF,
+    ACCOUNT_NOT_FOUND,
+    INSUFFICIENT_FUNDS,
+    FAILED
+}
@@ -0,0 +1,13 @@
+package ru.romanov.moneytransferservice.enums;
+
+/**
+ * Перечисление для форматов выгрузки истории транзакций:
+ * <ul>
+ *     <li>NDJSON - Одна транзакция в формате JSON на строку.</li>
+ *     <li>CSV - Таблица с заголовком, разделитель - запятая.</li>
+ * </ul>
+ */
+public enum ExportFormatEnum {
+    NDJSON,
+    CSV
+}
@@ -0,0 +1,13 @@
+package ru.romanov.moneytransferservice.enums;
+
+/**
+ * Перечисление для состояний ключа идемпотентности:
+ * <ul>
+ *     <li>IN_PROGRESS - Запрос с ключом выполняется.</li>
+ *     <li>COMPLETED - Запрос с ключом выполнен, ответ сохранён.</li>
+ * </ul>
+ */
+public enum IdempotencyStatusEnum {
+    IN_PROGRESS,
+    COMPLETED
+}
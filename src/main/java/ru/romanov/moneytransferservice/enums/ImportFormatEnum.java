@@ -0,0 +1,13 @@
+package ru.romanov.moneytransferservice.enums;
+
+/**
+ * Перечисление для форматов импорта пользователей:
+ * <ul>
+ *     <li>NDJSON - Один пользователь в формате JSON на строку.</li>
+ *     <li>CSV - Таблица с заголовком из имён полей пользователя, разделитель - запятая.</li>
+ * </ul>
+ */
+public enum ImportFormatEnum {
+    NDJSON,
+    CSV
+}
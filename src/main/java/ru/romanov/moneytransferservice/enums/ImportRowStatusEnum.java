@@ -0,0 +1,15 @@
+package ru.romanov.moneytransferservice.enums;
+
+/**
+ * Перечисление для результатов импорта одной строки:
+ * <ul>
+ *     <li>CREATED - Пользователь создан.</li>
+ *     <li>INVALID - Строку не удалось разобрать или данные пользователя не прошли проверку.</li>
+ *     <li>FAILED - Ошибка при сохранении пачки строк в базу данных.</li>
+ * </ul>
+ */
+public enum ImportRowStatusEnum {
+    CREATED,
+    INVALID,
+    FAILED
+}
@@ -0,0 +1,17 @@
+package ru.romanov.moneytransferservice.enums;
+
+/**
+ * Перечисление для состояний асинхронного перевода:
+ * <ul>
+ *     <li>PENDING - Перевод принят и ожидает выполнения.</li>
+ *     <li>RUNNING - Перевод захвачен исполнителем и выполняется.</li>
+ *     <li>COMPLETED - Перевод выполнен.</li>
+ *     <li>FAILED - Перевод не выполнен из-за ошибки.</li>
+ * </ul>
+ */
+public enum TransferStatusEnum {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,21 @@
+package ru.romanov.moneytransferservice.enums;
+
+/**
+ * Перечисление для полей пользователя, которые могут не пройти проверку:
+ * <ul>
+ *     <li>LAST_NAME - Фамилия.</li>
+ *     <li>FIRST_NAME - Имя.</li>
+ *     <li>PATRONYMIC_NAME - Отчество.</li>
+ *     <li>BIRTH_DATE - Дата рождения.</li>
+ *     <li>EMAIL - Email.</li>
+ *     <li>PHONE_NUMBER - Номер телефона.</li>
+ * </ul>
+ */
+public enum UserFieldEnum {
+    LAST_NAME,
+    FIRST_NAME,
+    PATRONYMIC_NAME,
+    BIRTH_DATE,
+    EMAIL,
+    PHONE_NUMBER
+}
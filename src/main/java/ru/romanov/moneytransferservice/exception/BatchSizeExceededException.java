@@ -0,0 +1,17 @@
+package ru.romanov.moneytransferservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое при превышении максимального размера пакетного запроса (переводов, удаления пользователей).
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BatchSizeExceededException extends RuntimeException {
+    /**
+     * Конструктор исключения с сообщением "Batch size exceeded".
+     */
+    public BatchSizeExceededException() {
+        super("Batch size exceeded");
+    }
+}
@@ -0,0 +1,17 @@
+package ru.romanov.moneytransferservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое, если запрос с тем же ключом идемпотентности ещё выполняется на другом узле.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    /**
+     * Конструктор исключения с сообщением "Request with this idempotency key is in progress".
+     */
+    public IdempotencyKeyInProgressException() {
+        super("Request with this idempotency key is in progress");
+    }
+}
@@ -0,0 +1,17 @@
+package ru.romanov.moneytransferservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое при повторном использовании ключа идемпотентности с другими параметрами запроса.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    /**
+     * Конструктор исключения с сообщением "Idempotency key was used with different request".
+     */
+    public IdempotencyKeyMismatchException() {
+        super("Idempotency key was used with different request");
+    }
+}
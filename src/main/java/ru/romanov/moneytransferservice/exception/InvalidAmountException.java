@@ -0,0 +1,17 @@
+package ru.romanov.moneytransferservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое, если сумма операции после округления до масштаба валюты счёта не положительна.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidAmountException extends RuntimeException {
+    /**
+     * Конструктор исключения с сообщением "Amount must be positive in the account currency".
+     */
+    public InvalidAmountException() {
+        super("Amount must be positive in the account currency");
+    }
+}
@@ -0,0 +1,17 @@
+package ru.romanov.moneytransferservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое, если курсор пагинации повреждён или получен не от этого списка.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException {
+    /**
+     * Конструктор исключения с сообщением "Invalid pagination cursor".
+     */
+    public InvalidCursorException() {
+        super("Invalid pagination cursor");
+    }
+}
@@ -0,0 +1,17 @@
+package ru.romanov.moneytransferservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое при отсутствии асинхронного перевода.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class PendingTransferNotFoundException extends RuntimeException {
+    /**
+     * Конструктор исключения с сообщением "Transfer not found".
+     */
+    public PendingTransferNotFoundException() {
+        super("Transfer not found");
+    }
+}
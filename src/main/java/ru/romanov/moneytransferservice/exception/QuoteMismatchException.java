@@ -0,0 +1,17 @@
+package ru.romanov.moneytransferservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое, если валюты котировки не совпадают с валютами счетов перевода.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class QuoteMismatchException extends RuntimeException {
+    /**
+     * Конструктор исключения с сообщением "Quote currencies do not match accounts".
+     */
+    public QuoteMismatchException() {
+        super("Quote currencies do not match accounts");
+    }
+}
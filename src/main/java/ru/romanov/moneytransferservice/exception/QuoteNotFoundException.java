@@ -0,0 +1,17 @@
+package ru.romanov.moneytransferservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое, если котировка не найдена или срок её действия истёк.
+ */
+@ResponseStatus(HttpStatus.GONE)
+public class QuoteNotFoundException extends RuntimeException {
+    /**
+     * Конструктор исключения с сообщением "Quote not found or expired".
+     */
+    public QuoteNotFoundException() {
+        super("Quote not found or expired");
+    }
+}
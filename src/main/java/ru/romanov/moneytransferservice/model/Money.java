@@ -0,0 +1,244 @@
+package ru.romanov.moneytransferservice.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Денежная сумма с фиксированной точкой: целое количество минимальных единиц ({@code long}) и масштаб
+ * (количество знаков после запятой).
+ * <p>
+ * Сложение, вычитание и сравнение выполняются над {@code long} без {@link BigDecimal} и без упаковки;
+ * при переполнении выбрасывается {@link ArithmeticException}. Суммы с разным масштабом приводятся
+ * к большему масштабу без потери точности, поэтому {@code 10.5} и {@code 10.50} равны.
+ * Масштаб валюты определяется по ISO 4217 ({@link #scaleOf(String)}); суммы, поступающие в сервис,
+ * округляются до масштаба валюты счёта методом {@link #roundTo(String)}.
+ * <p>
+ * В JSON сумма представляется числом, в базе данных - {@code DECIMAL} (см. {@link MoneyConverter}).
+ */
+public final class Money implements Comparable<Money> {
+    /**
+     * Максимальный масштаб, который хранится в столбцах {@code DECIMAL(19,2)}.
+     */
+    public static final int MAX_SCALE = 2;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+    private static final Money ZERO = new Money(0, 0);
+
+    private final long minorUnits;
+    private final int scale;
+
+    private Money(long minorUnits, int scale) {
+        this.minorUnits = minorUnits;
+        this.scale = scale;
+    }
+
+    /**
+     * Создаёт сумму из количества минимальных единиц.
+     *
+     * @param minorUnits Количество минимальных единиц (например, центов).
+     * @param scale      Количество знаков после запятой.
+     * @return Сумма.
+     */
+    public static Money ofMinor(long minorUnits, int scale) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) throw new IllegalArgumentException("Unsupported scale " + scale);
+        return new Money(minorUnits, scale);
+    }
+
+    /**
+     * Создаёт сумму из десятичного значения без округления.
+     *
+     * @param amount Значение.
+     * @return Сумма.
+     * @throws ArithmeticException Если значение не помещается в {@code long} минимальных единиц.
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        BigDecimal value = amount.scale() < 0 ? amount.setScale(0, RoundingMode.UNNECESSARY) : amount;
+        return ofMinor(value.unscaledValue().longValueExact(), value.scale());
+    }
+
+    /**
+     * Создаёт сумму из строки. Используется в том числе при связывании параметров запроса.
+     *
+     * @param amount Значение в десятичной записи.
+     * @return Сумма.
+     */
+    public static Money valueOf(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    /**
+     * Возвращает нулевую сумму.
+     *
+     * @return Нулевая сумма.
+     */
+    public static Money zero() {
+        return ZERO;
+    }
+
+    /**
+     * Возвращает масштаб валюты по ISO 4217, ограниченный {@link #MAX_SCALE}.
+     * Для неизвестных кодов используется {@link #MAX_SCALE}.
+     *
+     * @param currencyCode Код валюты.
+     * @return Количество знаков после запятой.
+     */
+    public static int scaleOf(String currencyCode) {
+        try {
+            int digits = Currency.getInstance(currencyCode).getDefaultFractionDigits();
+            return digits < 0 ? MAX_SCALE : Math.min(digits, MAX_SCALE);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return MAX_SCALE;
+        }
+    }
+
+    /**
+     * Округляет сумму до масштаба валюты (банковское округление).
+     *
+     * @param currencyCode Код валюты.
+     * @return Сумма в масштабе валюты.
+     */
+    public Money roundTo(String currencyCode) {
+        int target = scaleOf(currencyCode);
+        if (target == scale) return this;
+        if (target > scale) return new Money(Math.multiplyExact(minorUnits, POWERS_OF_TEN[target - scale]), target);
+        return of(toBigDecimal().setScale(target, RoundingMode.HALF_EVEN));
+    }
+
+    /**
+     * Умножает сумму на курс и округляет результат до масштаба валюты (банковское округление).
+     *
+     * @param rate         Курс.
+     * @param currencyCode Код валюты результата.
+     * @return Сумма в валюте результата.
+     */
+    public Money multiply(double rate, String currencyCode) {
+        return of(toBigDecimal().multiply(BigDecimal.valueOf(rate)).setScale(scaleOf(currencyCode), RoundingMode.HALF_EVEN));
+    }
+
+    /**
+     * Складывает суммы.
+     *
+     * @param other Слагаемое.
+     * @return Сумма.
+     */
+    public Money plus(Money other) {
+        if (scale == other.scale) return new Money(Math.addExact(minorUnits, other.minorUnits), scale);
+        int target = Math.max(scale, other.scale);
+        return new Money(Math.addExact(rescale(target), other.rescale(target)), target);
+    }
+
+    /**
+     * Вычитает сумму.
+     *
+     * @param other Вычитаемое.
+     * @return Разность.
+     */
+    public Money minus(Money other) {
+        if (scale == other.scale) return new Money(Math.subtractExact(minorUnits, other.minorUnits), scale);
+        int target = Math.max(scale, other.scale);
+        return new Money(Math.subtractExact(rescale(target), other.rescale(target)), target);
+    }
+
+    /**
+     * Возвращает сумму с противоположным знаком.
+     *
+     * @return Сумма с противоположным знаком.
+     */
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), scale);
+    }
+
+    /**
+     * Возвращает знак суммы.
+     *
+     * @return {@code -1}, {@code 0} или {@code 1}.
+     */
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    /**
+     * Проверяет, что сумма не меньше указанной.
+     *
+     * @param other Сумма для сравнения.
+     * @return {@code true}, если сумма больше или равна {@code other}.
+     */
+    public boolean isGreaterThanOrEqual(Money other) {
+        return compareTo(other) >= 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        if (scale == other.scale) return Long.compare(minorUnits, other.minorUnits);
+        int target = Math.max(scale, other.scale);
+        return Long.compare(rescale(target), other.rescale(target));
+    }
+
+    /**
+     * Возвращает количество минимальных единиц.
+     *
+     * @return Количество минимальных единиц.
+     */
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * Возвращает масштаб суммы.
+     *
+     * @return Количество знаков после запятой.
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Возвращает сумму в виде {@link BigDecimal}. Используется для JSON и базы данных.
+     *
+     * @return Десятичное значение.
+     */
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Money money && compareTo(money) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        long value = minorUnits;
+        int normalizedScale = scale;
+        while (normalizedScale > 0 && value % 10 == 0) {
+            value /= 10;
+            normalizedScale--;
+        }
+        return 31 * Long.hashCode(value) + normalizedScale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    /**
+     * Приводит количество минимальных единиц к большему масштабу.
+     *
+     * @param target Масштаб не меньше текущего.
+     * @return Количество минимальных единиц в масштабе {@code target}.
+     */
+    private long rescale(int target) {
+        return Math.multiplyExact(minorUnits, POWERS_OF_TEN[target - scale]);
+    }
+}
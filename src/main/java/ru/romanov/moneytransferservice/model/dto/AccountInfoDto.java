@@ -0,0 +1,19 @@
+package ru.romanov.moneytransferservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Data Transfer Object (DTO) с неизменяемыми сведениями о счёте без баланса.
+ * Экземпляры хранятся в кэше и разделяются между потоками, поэтому не имеют сеттеров.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AccountInfoDto {
+    private final Long id;
+    private final String accountNumber;
+    private final String currency;
+    private final String ownerUniqueNumber;
+}
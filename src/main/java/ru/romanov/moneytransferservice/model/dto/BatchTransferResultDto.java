@@ -0,0 +1,21 @@
+package ru.romanov.moneytransferservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.romanov.moneytransferservice.enums.BatchTransferStatusEnum;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+
+/**
+ * Data Transfer Object (DTO) с результатом одного перевода из пакетного запроса.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResultDto {
+    private int index;
+    private BatchTransferStatusEnum status;
+    private Transaction transaction;
+}
@@ -0,0 +1,18 @@
+package ru.romanov.moneytransferservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) с загруженной версией каталога поддерживаемых валют.
+ */
+@Getter
+@AllArgsConstructor
+public class CurrencyCatalogDto {
+    private Map<String, String> currencies;   // Ключ - валютный код, значение - название валюты
+    private String etag;                      // Версия каталога для заголовка ETag
+    private Instant loadedAt;                 // Время загрузки каталога
+}
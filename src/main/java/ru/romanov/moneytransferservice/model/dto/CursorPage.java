@@ -0,0 +1,38 @@
+package ru.romanov.moneytransferservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Data Transfer Object (DTO) страницы списка с курсорной (keyset) пагинацией.
+ *
+ * @param <T> Тип элементов страницы.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;   // Элементы страницы в порядке ключа пагинации
+    private String next;     // Курсор следующей страницы (параметр after) или null, если страница последняя
+
+    /**
+     * Формирует страницу из строк, запрошенных с запасом в одну строку сверх лимита.
+     *
+     * @param rows   Строки в порядке ключа пагинации; не более {@code limit + 1}.
+     * @param limit  Размер страницы.
+     * @param cursor Функция получения курсора по последнему элементу страницы.
+     * @param <T>    Тип элементов страницы.
+     * @return Страница с курсором, если за ней есть ещё строки.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, String> cursor) {
+        if (rows.size() <= limit) return new CursorPage<>(rows, null);
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, cursor.apply(items.get(limit - 1)));
+    }
+}
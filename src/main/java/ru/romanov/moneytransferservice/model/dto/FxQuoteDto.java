@@ -0,0 +1,23 @@
+package ru.romanov.moneytransferservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object (DTO) с котировкой курса валютной пары, зафиксированной на ограниченное время.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FxQuoteDto {
+    private String id;
+    private String fromCurrency;
+    private String toCurrency;
+    private double rate;         // Сумма в валюте toCurrency за единицу fromCurrency
+    private Instant expiresAt;
+}
@@ -0,0 +1,23 @@
+package ru.romanov.moneytransferservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import ru.romanov.moneytransferservice.model.Money;
+
+/**
+ * Data Transfer Object (DTO) с переводом, суммы которого уже округлены и пересчитаны по курсу.
+ * Создаётся до начала транзакции базы данных, чтобы под блокировками счетов выполнялась только запись балансов.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class PreparedTransferDto {
+    private final String fromAccountNumber;
+    private final String toAccountNumber;
+    private final String fromCurrency;
+    private final Money debitAmount;      // Сумма списания в валюте счёта отправителя
+    private final Money creditAmount;     // Сумма зачисления в валюте счёта получателя
+}
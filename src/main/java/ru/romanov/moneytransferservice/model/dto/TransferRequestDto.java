@@ -0,0 +1,20 @@
+package ru.romanov.moneytransferservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.romanov.moneytransferservice.model.Money;
+
+/**
+ * Data Transfer Object (DTO) для одного перевода в пакетном запросе.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferRequestDto {
+    private String fromAccount;
+    private String toAccount;
+    private Money amount;
+}
@@ -0,0 +1,28 @@
+package ru.romanov.moneytransferservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.romanov.moneytransferservice.enums.ImportRowStatusEnum;
+import ru.romanov.moneytransferservice.enums.UserFieldEnum;
+
+import java.util.Set;
+
+/**
+ * Data Transfer Object (DTO) с результатом импорта одной строки.
+ * Строки нумеруются с единицы без учёта заголовка CSV.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResultDto {
+    private long row;
+    private ImportRowStatusEnum status;
+    private String uniqueNumber;
+    private String message;
+    private Set<UserFieldEnum> errors;
+}
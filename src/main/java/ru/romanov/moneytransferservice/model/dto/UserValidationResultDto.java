@@ -0,0 +1,21 @@
+package ru.romanov.moneytransferservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.romanov.moneytransferservice.enums.UserFieldEnum;
+
+import java.util.Set;
+
+/**
+ * Data Transfer Object (DTO) с результатом проверки одного пользователя из пакетного запроса.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserValidationResultDto {
+    private int index;
+    private Set<UserFieldEnum> errors;
+}
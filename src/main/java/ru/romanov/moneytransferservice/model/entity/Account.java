@@ -4,9 +4,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import ru.romanov.moneytransferservice.model.Money;
 
 /**
  * Сущность представляет собой банковский счет пользователя.
@@ -17,10 +19,11 @@ import lombok.ToString;
 @ToString
 public class Account {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_id")
+    @SequenceGenerator(name = "account_id", sequenceName = "account_seq", allocationSize = IdAllocation.SIZE)
     private Long id;
     private String accountNumber;
-    private double balance;
+    private Money balance;
     private String currency;
     private String ownerUniqueNumber;
 }
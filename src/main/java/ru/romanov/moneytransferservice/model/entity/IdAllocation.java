@@ -0,0 +1,19 @@
+package ru.romanov.moneytransferservice.model.entity;
+
+/**
+ * Параметры выделения идентификаторов сущностей из последовательностей базы данных.
+ * <p>
+ * Hibernate резервирует за одно обращение к последовательности диапазон из {@link #SIZE} идентификаторов
+ * (оптимизатор {@code pooled-lo}), поэтому новые сущности получают идентификаторы без запросов к базе данных,
+ * а вставки объединяются в пакеты JDBC. Значение должно совпадать с шагом последовательностей в
+ * {@code id-sequences.xml}; при его изменении шаг меняется новым набором изменений Liquibase.
+ */
+public final class IdAllocation {
+    /**
+     * Количество идентификаторов, выделяемых за одно обращение к последовательности.
+     */
+    public static final int SIZE = 50;
+
+    private IdAllocation() {
+    }
+}
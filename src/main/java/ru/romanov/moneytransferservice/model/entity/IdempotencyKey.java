@@ -0,0 +1,29 @@
+package ru.romanov.moneytransferservice.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import ru.romanov.moneytransferservice.enums.IdempotencyStatusEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сущность представляет собой ключ идемпотентности запроса и сохранённый ответ на него.
+ */
+@Getter
+@Setter
+@Entity(name = "idempotency_key")
+@ToString
+public class IdempotencyKey {
+    @Id
+    private String idempotencyKey;
+    private String fingerprint;
+    @Enumerated(EnumType.STRING)
+    private IdempotencyStatusEnum status;
+    private String response;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package ru.romanov.moneytransferservice.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сущность представляет собой отметку о сегменте журнала транзакций, перенесённом в базу данных.
+ */
+@Getter
+@Setter
+@Entity(name = "journal_segment")
+@ToString
+public class JournalSegment {
+    @Id
+    private String name;
+    private LocalDateTime drainedAt;
+}
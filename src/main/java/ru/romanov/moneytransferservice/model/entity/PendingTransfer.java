@@ -0,0 +1,37 @@
+package ru.romanov.moneytransferservice.model.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.enums.TransferStatusEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сущность представляет собой асинхронный перевод, принятый к выполнению.
+ */
+@Getter
+@Setter
+@Entity(name = "pending_transfer")
+@ToString
+public class PendingTransfer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String fromAccountNumber;
+    private String toAccountNumber;
+    private Money amount;
+    @Enumerated(EnumType.STRING)
+    private TransferStatusEnum status;
+    private Long transactionId;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -6,9 +6,11 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import ru.romanov.moneytransferservice.model.Money;
 import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
 
 import java.time.LocalDateTime;
@@ -22,13 +24,14 @@ import java.time.LocalDateTime;
 @ToString
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_id")
+    @SequenceGenerator(name = "transaction_id", sequenceName = "transaction_seq", allocationSize = IdAllocation.SIZE)
     private Long id;
     private LocalDateTime transactionDate;
     @Enumerated(EnumType.STRING)
     private TypeTransactionEnum type;
     private String fromAccountNumber;
     private String toAccountNumber;
-    private double amount;
+    private Money amount;
     private String currencyCode;
 }
\ No newline at end of file
@@ -1,26 +1,41 @@
 package ru.romanov.moneytransferservice.model.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDate;
 
 /**
  * Сущность представляет собой пользователя системы денежных переводов.
+ * <p>
+ * Пользователи хранятся в кэше второго уровня (регион {@code users}), а уникальный номер является
+ * неизменяемым естественным идентификатором с собственным кэшем (регион {@code users-natural-id}).
+ * Hibernate обновляет и удаляет записи обоих регионов при изменении и удалении пользователя через {@code EntityManager}.
  */
 @Getter
 @Setter
 @Entity(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-natural-id")
 @ToString
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id")
+    @SequenceGenerator(name = "users_id", sequenceName = "users_seq", allocationSize = IdAllocation.SIZE)
     private long id;
+    @NaturalId
     private String uniqueNumber;
     private String lastName;
     private String firstName;
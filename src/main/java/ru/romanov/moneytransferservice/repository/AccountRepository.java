@@ -1,9 +1,21 @@
 package ru.romanov.moneytransferservice.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.romanov.moneytransferservice.model.Money;
 import ru.romanov.moneytransferservice.model.entity.Account;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +40,39 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
      */
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    /**
+     * Задаёт таймаут ожидания блокировки строк до конца текущей транзакции ({@code SET LOCAL lock_timeout}).
+     * Вызывается перед блокирующими запросами, чтобы таймаут не распространялся на остальные запросы соединения.
+     * Указание таймаута подсказкой {@code jakarta.persistence.lock.timeout} диалект PostgreSQL игнорирует.
+     *
+     * @param lockTimeout Таймаут в формате PostgreSQL, например {@code 3000ms}.
+     * @return Установленное значение.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "account"))
+    @Query(nativeQuery = true, value = "SELECT set_config('lock_timeout', :lockTimeout, true)")
+    String setLocalLockTimeout(@Param("lockTimeout") String lockTimeout);
+
+    /**
+     * Находит счет по его номеру и блокирует его строку на запись ({@code SELECT ... FOR UPDATE})
+     * до завершения текущей транзакции.
+     *
+     * @param accountNumber Номер счета.
+     * @return {@link Optional} с заблокированным счетом, или {@code Optional.empty()}, если счет не найден.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Account> findForUpdateByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Находит счета по списку номеров и блокирует их строки на запись в порядке возрастания номера счета.
+     *
+     * @param accountNumbers Номера счетов.
+     * @return Список найденных и заблокированных счетов, упорядоченный по номеру счета.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.accountNumber")
+    List<Account> findAllForUpdateByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
+
     /**
      * Находит все счета, принадлежащие владельцу с указанным уникальным номером.
      *
@@ -35,5 +80,120 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
      * @return Список счетов, принадлежащих указанному владельцу.
      */
     List<Account> findByOwnerUniqueNumber(String ownerUniqueNumber);
-}
 
+    /**
+     * Находит номера счетов владельцев без блокировки.
+     *
+     * @param ownerUniqueNumbers Уникальные номера владельцев.
+     * @return Номера счетов.
+     */
+    @Query("SELECT a.accountNumber FROM Account a WHERE a.ownerUniqueNumber IN :ownerUniqueNumbers")
+    List<String> findAccountNumbersByOwnerUniqueNumberIn(@Param("ownerUniqueNumbers") Collection<String> ownerUniqueNumbers);
+
+    /**
+     * Находит счета владельцев и блокирует их строки на запись в порядке возрастания номера счёта.
+     *
+     * @param ownerUniqueNumbers Уникальные номера владельцев.
+     * @return Список заблокированных счетов, упорядоченный по номеру счёта.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.ownerUniqueNumber IN :ownerUniqueNumbers ORDER BY a.accountNumber")
+    List<Account> findAllForUpdateByOwnerUniqueNumberIn(@Param("ownerUniqueNumbers") Collection<String> ownerUniqueNumbers);
+
+    /**
+     * Создаёт одним запросом {@code INSERT ... SELECT} транзакции списания остатка со всех счетов владельцев
+     * с положительным балансом.
+     * Идентификатор берётся из {@code transaction_seq}: при оптимизаторе {@code pooled-lo} каждое значение
+     * последовательности резервирует собственный блок идентификаторов, поэтому пересечений с Hibernate нет.
+     *
+     * @param ownerUniqueNumbers Уникальные номера владельцев.
+     * @param transactionDate    Дата транзакций.
+     * @return Количество созданных транзакций.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "transaction"))
+    @Query(nativeQuery = true, value = """
+            INSERT INTO transaction (id, transaction_date, type, from_account_number, amount, currency_code)
+            SELECT nextval('transaction_seq'), :transactionDate, 'DEBIT', a.account_number, a.balance, a.currency
+            FROM account a
+            WHERE a.owner_unique_number IN (:ownerUniqueNumbers) AND a.balance > 0
+            """)
+    int insertClosingDebits(@Param("ownerUniqueNumbers") Collection<String> ownerUniqueNumbers,
+                            @Param("transactionDate") LocalDateTime transactionDate);
+
+    /**
+     * Удаляет одним запросом все счета владельцев.
+     *
+     * @param ownerUniqueNumbers Уникальные номера владельцев.
+     * @return Количество удалённых счетов.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Account a WHERE a.ownerUniqueNumber IN :ownerUniqueNumbers")
+    int deleteAllByOwners(@Param("ownerUniqueNumbers") Collection<String> ownerUniqueNumbers);
+
+    /**
+     * Находит страницу счетов с идентификатором больше указанного (keyset-пагинация).
+     * Для каждого сочетания фильтров используется отдельный запрос, чтобы план запроса
+     * выбирал соответствующий индекс ({@code idx_account_owner_id}, {@code idx_account_currency_id}).
+     *
+     * @param after Идентификатор последнего счёта предыдущей страницы.
+     * @param limit Максимальное количество счетов.
+     * @return Список счетов, упорядоченный по возрастанию идентификатора.
+     */
+    List<Account> findByIdGreaterThanOrderByIdAsc(long after, Limit limit);
+
+    /**
+     * Находит страницу счетов владельца с идентификатором больше указанного (keyset-пагинация).
+     *
+     * @param after             Идентификатор последнего счёта предыдущей страницы.
+     * @param ownerUniqueNumber Уникальный номер владельца.
+     * @param limit             Максимальное количество счетов.
+     * @return Список счетов, упорядоченный по возрастанию идентификатора.
+     */
+    List<Account> findByIdGreaterThanAndOwnerUniqueNumberOrderByIdAsc(long after, String ownerUniqueNumber, Limit limit);
+
+    /**
+     * Находит страницу счетов в валюте с идентификатором больше указанного (keyset-пагинация).
+     *
+     * @param after    Идентификатор последнего счёта предыдущей страницы.
+     * @param currency Код валюты.
+     * @param limit    Максимальное количество счетов.
+     * @return Список счетов, упорядоченный по возрастанию идентификатора.
+     */
+    List<Account> findByIdGreaterThanAndCurrencyOrderByIdAsc(long after, String currency, Limit limit);
+
+    /**
+     * Находит страницу счетов владельца в валюте с идентификатором больше указанного (keyset-пагинация).
+     *
+     * @param after             Идентификатор последнего счёта предыдущей страницы.
+     * @param ownerUniqueNumber Уникальный номер владельца.
+     * @param currency          Код валюты.
+     * @param limit             Максимальное количество счетов.
+     * @return Список счетов, упорядоченный по возрастанию идентификатора.
+     */
+    List<Account> findByIdGreaterThanAndOwnerUniqueNumberAndCurrencyOrderByIdAsc(long after, String ownerUniqueNumber, String currency, Limit limit);
+
+    /**
+     * Атомарно зачисляет сумму на счёт одним запросом {@code UPDATE}.
+     *
+     * @param accountNumber Номер счёта.
+     * @param amount        Сумма зачисления.
+     * @return Количество обновлённых строк: {@code 1}, если счёт найден, иначе {@code 0}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount WHERE a.accountNumber = :accountNumber")
+    int creditBalance(@Param("accountNumber") String accountNumber, @Param("amount") Money amount);
+
+    /**
+     * Атомарно списывает сумму со счёта одним условным запросом {@code UPDATE},
+     * если на счёте достаточно средств.
+     *
+     * @param accountNumber Номер счёта.
+     * @param amount        Сумма списания.
+     * @return Количество обновлённых строк: {@code 1} при успешном списании,
+     * {@code 0}, если счёт не найден или на нём недостаточно средств.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount WHERE a.accountNumber = :accountNumber AND a.balance >= :amount")
+    int debitBalance(@Param("accountNumber") String accountNumber, @Param("amount") Money amount);
+}
@@ -0,0 +1,77 @@
+package ru.romanov.moneytransferservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.romanov.moneytransferservice.model.entity.IdempotencyKey;
+
+import java.time.LocalDateTime;
+
+/**
+ * Репозиторий для работы с сущностью {@link IdempotencyKey}, предоставляющий методы для доступа к базе данных.
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+    /**
+     * Резервирует ключ идемпотентности, если он ещё не занят.
+     *
+     * @param idempotencyKey Ключ идемпотентности.
+     * @param fingerprint    Отпечаток параметров запроса.
+     * @param createdAt      Время резервирования.
+     * @return {@code 1}, если ключ зарезервирован, {@code 0}, если ключ уже существует.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_key (idempotency_key, fingerprint, status, created_at) " +
+            "VALUES (:idempotencyKey, :fingerprint, 'IN_PROGRESS', :createdAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int reserve(@Param("idempotencyKey") String idempotencyKey,
+                @Param("fingerprint") String fingerprint,
+                @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Повторно резервирует ключ, оставшийся в состоянии {@code IN_PROGRESS} дольше аренды.
+     * Ответ сохраняется в одной транзакции с операцией, поэтому такой ключ принадлежит операции,
+     * транзакция которой не была зафиксирована (например, узел остановился после резервирования).
+     *
+     * @param idempotencyKey Ключ идемпотентности.
+     * @param fingerprint    Отпечаток параметров запроса.
+     * @param createdAt      Новое время резервирования.
+     * @param threshold      Граница времени резервирования, раньше которой аренда истекла.
+     * @return {@code 1}, если ключ зарезервирован повторно, иначе {@code 0}.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE idempotency_key k SET k.createdAt = :createdAt WHERE k.idempotencyKey = :idempotencyKey " +
+            "AND k.fingerprint = :fingerprint AND k.createdAt < :threshold " +
+            "AND k.status = ru.romanov.moneytransferservice.enums.IdempotencyStatusEnum.IN_PROGRESS")
+    int reclaim(@Param("idempotencyKey") String idempotencyKey,
+                @Param("fingerprint") String fingerprint,
+                @Param("createdAt") LocalDateTime createdAt,
+                @Param("threshold") LocalDateTime threshold);
+
+    /**
+     * Сохраняет ответ на запрос и переводит ключ в состояние {@code COMPLETED}.
+     *
+     * @param idempotencyKey Ключ идемпотентности.
+     * @param response       Ответ на запрос в JSON.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE idempotency_key k SET k.status = ru.romanov.moneytransferservice.enums.IdempotencyStatusEnum.COMPLETED, " +
+            "k.response = :response WHERE k.idempotencyKey = :idempotencyKey")
+    void complete(@Param("idempotencyKey") String idempotencyKey, @Param("response") String response);
+
+    /**
+     * Удаляет ключи, созданные раньше указанного времени.
+     *
+     * @param threshold Граница времени создания.
+     * @return Количество удалённых ключей.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM idempotency_key k WHERE k.createdAt < :threshold")
+    int deleteByCreatedAtBefore(@Param("threshold") LocalDateTime threshold);
+}
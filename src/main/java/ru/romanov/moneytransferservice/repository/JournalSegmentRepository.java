@@ -0,0 +1,12 @@
+package ru.romanov.moneytransferservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.romanov.moneytransferservice.model.entity.JournalSegment;
+
+/**
+ * Репозиторий для работы с сущностью {@link JournalSegment}, предоставляющий методы для доступа к базе данных.
+ */
+@Repository
+public interface JournalSegmentRepository extends JpaRepository<JournalSegment, String> {
+}
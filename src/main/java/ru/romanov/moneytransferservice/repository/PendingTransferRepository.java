@@ -0,0 +1,113 @@
+package ru.romanov.moneytransferservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.romanov.moneytransferservice.enums.TransferStatusEnum;
+import ru.romanov.moneytransferservice.model.entity.PendingTransfer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Репозиторий для работы с сущностью {@link PendingTransfer}, предоставляющий методы для доступа к базе данных.
+ */
+@Repository
+public interface PendingTransferRepository extends JpaRepository<PendingTransfer, Long> {
+    /**
+     * Находит идентификаторы переводов в указанном состоянии.
+     *
+     * @param status Состояние перевода.
+     * @return Список идентификаторов в порядке принятия переводов.
+     */
+    @Query("SELECT p.id FROM pending_transfer p WHERE p.status = :status ORDER BY p.id")
+    List<Long> findIdsByStatus(@Param("status") TransferStatusEnum status);
+
+    /**
+     * Захватывает ожидающий перевод для выполнения, переводя его в состояние {@code RUNNING}.
+     * Фиксируется до выполнения перевода, поэтому перевод выполняет только один поток или узел.
+     *
+     * @param id        Идентификатор перевода.
+     * @param updatedAt Время изменения.
+     * @return {@code 1}, если перевод захвачен, {@code 0}, если перевод уже не ожидает выполнения.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE pending_transfer p SET p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.RUNNING, p.updatedAt = :updatedAt " +
+            "WHERE p.id = :id AND p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.PENDING")
+    int claim(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Возвращает захваченный перевод в состояние {@code PENDING}, если он не был выполнен.
+     *
+     * @param id        Идентификатор перевода.
+     * @param updatedAt Время изменения.
+     * @return {@code 1}, если состояние изменено, {@code 0}, если перевод уже не выполняется.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE pending_transfer p SET p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.PENDING, p.updatedAt = :updatedAt " +
+            "WHERE p.id = :id AND p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.RUNNING")
+    int release(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Возвращает в состояние {@code PENDING} переводы, находящиеся в состоянии {@code RUNNING} с момента до указанного,
+     * то есть прерванные остановкой узла.
+     *
+     * @param before    Граница времени последнего изменения.
+     * @param updatedAt Время изменения.
+     * @return Количество возвращённых переводов.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE pending_transfer p SET p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.PENDING, p.updatedAt = :updatedAt " +
+            "WHERE p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.RUNNING AND p.updatedAt < :before")
+    int releaseStale(@Param("before") LocalDateTime before, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Переводит в состояние {@code FAILED} переводы, находящиеся в состоянии {@code RUNNING} с момента до указанного.
+     *
+     * @param error     Сообщение об ошибке.
+     * @param before    Граница времени последнего изменения.
+     * @param updatedAt Время изменения.
+     * @return Количество изменённых переводов.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE pending_transfer p SET p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.FAILED, p.error = :error, p.updatedAt = :updatedAt " +
+            "WHERE p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.RUNNING AND p.updatedAt < :before")
+    int failStale(@Param("error") String error, @Param("before") LocalDateTime before, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Переводит выполняемый перевод в состояние {@code COMPLETED}.
+     * Выполняется в транзакции самого перевода, поэтому перевод и смена состояния фиксируются вместе.
+     *
+     * @param id            Идентификатор перевода.
+     * @param transactionId Идентификатор созданной транзакции (может быть {@code null}).
+     * @param updatedAt     Время изменения.
+     * @return {@code 1}, если состояние изменено, {@code 0}, если перевод уже не выполняется.
+     */
+    @Modifying
+    @Query("UPDATE pending_transfer p SET p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.COMPLETED, " +
+            "p.transactionId = :transactionId, p.updatedAt = :updatedAt " +
+            "WHERE p.id = :id AND p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.RUNNING")
+    int complete(@Param("id") Long id, @Param("transactionId") Long transactionId, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Переводит выполняемый перевод в состояние {@code FAILED}.
+     *
+     * @param id        Идентификатор перевода.
+     * @param error     Сообщение об ошибке.
+     * @param updatedAt Время изменения.
+     * @return {@code 1}, если состояние изменено, {@code 0}, если перевод уже не выполняется.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE pending_transfer p SET p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.FAILED, " +
+            "p.error = :error, p.updatedAt = :updatedAt " +
+            "WHERE p.id = :id AND p.status = ru.romanov.moneytransferservice.enums.TransferStatusEnum.RUNNING")
+    int fail(@Param("id") Long id, @Param("error") String error, @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -1,16 +1,31 @@
 package ru.romanov.moneytransferservice.repository;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.romanov.moneytransferservice.model.entity.Transaction;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Репозиторий для работы с сущностью {@link Transaction}, предоставляющий методы для доступа к базе данных.
  */
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    /**
+     * Размер пачки строк, загружаемой курсором при потоковой выгрузке.
+     */
+    int EXPORT_FETCH_SIZE = 1000;
+
     /**
      * Находит все транзакции, где указанный счет является отправителем или получателем.
      *
@@ -20,6 +35,66 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      */
     List<Transaction> findByFromAccountNumberOrToAccountNumber(String fromAccountNumber, String toAccountNumber);
 
+    /**
+     * Читает курсором все транзакции, где указанный счет является отправителем или получателем.
+     * Строки загружаются из базы данных пачками по {@value #EXPORT_FETCH_SIZE}; поток должен
+     * потребляться и закрываться внутри транзакции.
+     * <p>
+     * Как и в {@link #findHistoryPage}, условие «отправитель или получатель» разбито на две ветки {@code UNION ALL}.
+     * Каждая ветка читается по своему индексу {@code (account_number, transaction_date, id)} уже упорядоченной,
+     * и ветки сливаются без сортировки, поэтому первые строки отдаются сразу, а не после чтения всей истории.
+     *
+     * @param accountNumber Номер счета.
+     * @return Поток транзакций, упорядоченный по дате и идентификатору.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query(value = "SELECT * FROM transaction WHERE from_account_number = :accountNumber " +
+            "UNION ALL " +
+            "SELECT * FROM transaction WHERE to_account_number = :accountNumber " +
+            "ORDER BY transaction_date, id", nativeQuery = true)
+    Stream<Transaction> streamByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Находит страницу истории транзакций счета в порядке {@code (transaction_date, id)} после указанного курсора.
+     * <p>
+     * Условие «отправитель или получатель» разбито на две ветки {@code UNION ALL}, каждая из которых читает
+     * диапазон своего составного индекса и ограничена лимитом, после чего ветки сливаются. Переводы на тот же
+     * счёт запрещены, поэтому ветки не пересекаются.
+     *
+     * @param accountNumber Номер счета.
+     * @param from          Начало периода (включительно).
+     * @param to            Конец периода (не включительно).
+     * @param type          Тип транзакции или {@code null} для всех типов.
+     * @param afterDate     Дата транзакции из курсора.
+     * @param afterId       Идентификатор транзакции из курсора.
+     * @param limit         Максимальное количество транзакций.
+     * @return Список транзакций, упорядоченный по дате и идентификатору.
+     */
+    @Query(value = "SELECT * FROM (" +
+            "(SELECT * FROM transaction WHERE from_account_number = :accountNumber " +
+            "AND transaction_date >= :from AND transaction_date < :to " +
+            "AND (transaction_date, id) > (:afterDate, :afterId) " +
+            "AND (CAST(:type AS VARCHAR) IS NULL OR type = :type) " +
+            "ORDER BY transaction_date, id LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT * FROM transaction WHERE to_account_number = :accountNumber " +
+            "AND transaction_date >= :from AND transaction_date < :to " +
+            "AND (transaction_date, id) > (:afterDate, :afterId) " +
+            "AND (CAST(:type AS VARCHAR) IS NULL OR type = :type) " +
+            "ORDER BY transaction_date, id LIMIT :limit)" +
+            ") history ORDER BY transaction_date, id LIMIT :limit", nativeQuery = true)
+    List<Transaction> findHistoryPage(@Param("accountNumber") String accountNumber,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("type") String type,
+                                      @Param("afterDate") LocalDateTime afterDate,
+                                      @Param("afterId") long afterId,
+                                      @Param("limit") int limit);
+
     /**
      * Находит все транзакции, где указанный счет является отправителем.
      *
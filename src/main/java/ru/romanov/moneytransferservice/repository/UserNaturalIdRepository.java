@@ -0,0 +1,19 @@
+package ru.romanov.moneytransferservice.repository;
+
+import ru.romanov.moneytransferservice.model.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Фрагмент репозитория пользователей для поиска по естественному идентификатору (уникальному номеру).
+ */
+public interface UserNaturalIdRepository {
+    /**
+     * Находит пользователя по уникальному номеру. Повторный поиск обслуживается кэшем естественных
+     * идентификаторов и кэшем сущностей без запроса к базе данных.
+     *
+     * @param userIdNumber Уникальный номер пользователя.
+     * @return {@link Optional} с найденным пользователем или пустой {@link Optional}, если пользователь не найден.
+     */
+    Optional<User> findByUniqueNumber(String userIdNumber);
+}
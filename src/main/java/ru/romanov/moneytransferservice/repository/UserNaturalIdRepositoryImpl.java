@@ -0,0 +1,23 @@
+package ru.romanov.moneytransferservice.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import ru.romanov.moneytransferservice.model.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Реализация фрагмента {@link UserNaturalIdRepository} через загрузку по естественному идентификатору Hibernate.
+ */
+@AllArgsConstructor
+public class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUniqueNumber(String userIdNumber) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(userIdNumber);
+    }
+}
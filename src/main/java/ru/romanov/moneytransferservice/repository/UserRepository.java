@@ -1,17 +1,22 @@
 package ru.romanov.moneytransferservice.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.romanov.moneytransferservice.model.entity.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Репозиторий для работы с сущностью {@link User}, предоставляющий методы для доступа к базе данных.
+ * Поиск по уникальному номеру выполняется через кэш естественных идентификаторов ({@link UserNaturalIdRepository}).
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
     /**
      * Проверяет существование пользователя по уникальному номеру.
      *
@@ -20,14 +25,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByUniqueNumber(String userIdNumber);
 
-    /**
-     * Находит пользователя по уникальному номеру.
-     *
-     * @param userIdNumber Уникальный номер пользователя.
-     * @return {@link Optional} с найденным пользователем или пустой {@link Optional}, если пользователь не найден.
-     */
-    Optional<User> findByUniqueNumber(String userIdNumber);
-
     /**
      * Находит пользователя по email.
      *
@@ -62,4 +59,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return Список пользователей с указанной фамилией, именем и отчеством.
      */
     List<User> findByLastNameAndFirstNameAndPatronymicName(String lastName, String firstName, String patronymicName);
+
+    /**
+     * Находит страницу пользователей с идентификатором больше указанного (keyset-пагинация).
+     *
+     * @param after Идентификатор последнего пользователя предыдущей страницы.
+     * @param limit Максимальное количество пользователей.
+     * @return Список пользователей, упорядоченный по возрастанию идентификатора.
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(long after, Limit limit);
+
+    /**
+     * Находит уникальные номера существующих пользователей по списку идентификаторов.
+     *
+     * @param ids Идентификаторы пользователей.
+     * @return Уникальные номера найденных пользователей.
+     */
+    @Query("SELECT u.uniqueNumber FROM users u WHERE u.id IN :ids")
+    List<String> findUniqueNumbersByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -5,9 +5,12 @@ import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
 import ru.romanov.moneytransferservice.exception.CodeNotSupportedException;
 import ru.romanov.moneytransferservice.exception.InsufficientFundsException;
 import ru.romanov.moneytransferservice.exception.UserNotFoundException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.dto.AccountInfoDto;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
 import ru.romanov.moneytransferservice.model.entity.Account;
 
-import java.util.List;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -36,16 +39,60 @@ public interface AccountService {
      */
     Account getAccountByAccountNumber(String accountNumber);
 
+    /**
+     * Возвращает счёт по его номеру с текущим балансом.
+     * Если включён движок {@code LedgerEngine}, баланс читается из движка: баланс в базе данных
+     * отстаёт от него на время записи журнала движка.
+     *
+     * @param accountNumber Номер счёта.
+     * @return {@link Account} Найденный счёт.
+     * @throws AccountNotFoundException Если счёт не найден.
+     */
+    Account getCurrentAccount(String accountNumber);
+
+    /**
+     * Возвращает сведения о счёте без баланса из кэша, загружая их из базы данных при промахе.
+     * Используется там, где нужны только валюта или владелец счёта; баланс всегда читается из базы данных.
+     *
+     * @param accountNumber Номер счёта.
+     * @return Сведения о счёте.
+     * @throws AccountNotFoundException Если счёт не найден.
+     */
+    AccountInfoDto getAccountInfo(String accountNumber);
+
     /**
      * Обновляет баланс счёта в зависимости от типа транзакции.
+     * Изменение выполняется одним атомарным запросом к базе данных без предварительного чтения счёта.
      *
      * @param accountNumber Номер счёта.
      * @param type          Тип транзакции (дебет или кредит).
      * @param amount        Сумма для обновления баланса.
+     * @throws AccountNotFoundException   Если счёт не найден.
+     * @throws InsufficientFundsException Если при списании на счёте недостаточно средств.
      */
     void updateAccountBalance(String accountNumber,
                               TypeTransactionEnum type,
-                              double amount);
+                              Money amount);
+
+    /**
+     * Блокирует счета на запись в каноническом (лексикографическом) порядке номеров,
+     * чтобы встречные переводы между одной и той же парой счетов не приводили к взаимной блокировке.
+     * Ничего не делает, если режим блокировки выключен. Должен вызываться внутри транзакции.
+     *
+     * @param accountNumbers Номера счетов.
+     * @throws AccountNotFoundException Если один из счетов не найден.
+     */
+    void lockAccounts(String... accountNumbers);
+
+    /**
+     * Загружает и блокирует на запись счета с указанными номерами в каноническом порядке номеров.
+     * Всегда выполняет блокировку, независимо от режима блокировки одиночных переводов.
+     * Должен вызываться внутри транзакции.
+     *
+     * @param accountNumbers Номера счетов.
+     * @return {@link Map} найденных счетов, где ключом является номер счёта. Ненайденные счета отсутствуют в {@link Map}.
+     */
+    Map<String, Account> getAccountsForUpdate(Collection<String> accountNumbers);
 
     /**
      * Удаляет счёт по его номеру.
@@ -55,11 +102,26 @@ public interface AccountService {
     void deleteAccount(String accountNumber);
 
     /**
-     * Возвращает список всех счетов.
+     * Закрывает все счета владельцев в одной транзакции фиксированным числом запросов:
+     * блокирует счета, создаёт транзакции списания остатка одним {@code INSERT ... SELECT}
+     * и удаляет счета одним {@code DELETE}.
+     * Если включён движок {@code LedgerEngine}, счета предварительно закрываются в нём.
+     *
+     * @param ownerUniqueNumbers Уникальные номера владельцев.
+     * @return Количество удалённых счетов.
+     */
+    int closeAccounts(Collection<String> ownerUniqueNumbers);
+
+    /**
+     * Возвращает страницу счетов в порядке возрастания идентификатора.
      *
-     * @return Список всех счетов.
+     * @param after             Идентификатор последнего счёта предыдущей страницы ({@code null} для первой страницы).
+     * @param limit             Размер страницы ({@code null} для размера по умолчанию).
+     * @param ownerUniqueNumber Фильтр по уникальному номеру владельца (может быть {@code null}).
+     * @param currency          Фильтр по коду валюты (может быть {@code null}).
+     * @return Страница счетов с курсором следующей страницы.
      */
-    List<Account> getAccounts();
+    CursorPage<Account> getAccounts(Long after, Integer limit, String ownerUniqueNumber, String currency);
 
     /**
      * Возвращает {@link Map} поддерживаемых валют.
@@ -75,6 +137,6 @@ public interface AccountService {
      * @param amount         Сумма для проверки.
      * @throws InsufficientFundsException Если на счёте недостаточно средств.
      */
-    void checkBalance(double accountBalance,
-                      double amount);
+    void checkBalance(Money accountBalance,
+                      Money amount);
 }
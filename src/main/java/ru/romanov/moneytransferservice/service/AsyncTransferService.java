@@ -0,0 +1,42 @@
+package ru.romanov.moneytransferservice.service;
+
+import ru.romanov.moneytransferservice.exception.PendingTransferNotFoundException;
+import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
+import ru.romanov.moneytransferservice.exception.InvalidAmountException;
+import ru.romanov.moneytransferservice.exception.ServiceUnavailableException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.entity.PendingTransfer;
+
+/**
+ * Интерфейс сервиса для асинхронного выполнения переводов.
+ */
+public interface AsyncTransferService {
+    /**
+     * Принимает перевод к выполнению и сразу возвращает его.
+     * Перевод сохраняется в состоянии {@code PENDING} с суммой, округлённой до масштаба валюты отправителя,
+     * и выполняется в фоне.
+     *
+     * @param fromAccountNumber Номер счёта отправителя.
+     * @param toAccountNumber   Номер счёта получателя.
+     * @param amount            Сумма перевода.
+     * @return Принятый перевод.
+     * @throws AccountNotFoundException    Если счёт отправителя или получателя не найден.
+     * @throws InvalidAmountException      Если сумма после округления не положительна.
+     * @throws ServiceUnavailableException Если очередь невыполненных переводов заполнена.
+     */
+    PendingTransfer submitTransfer(String fromAccountNumber, String toAccountNumber, Money amount);
+
+    /**
+     * Возвращает асинхронный перевод по идентификатору.
+     *
+     * @param id Идентификатор перевода.
+     * @return Перевод с текущим состоянием.
+     * @throws PendingTransferNotFoundException Если перевод не найден.
+     */
+    PendingTransfer getTransfer(Long id);
+
+    /**
+     * Повторно запускает переводы, оставшиеся в состоянии {@code PENDING} (например, после перезапуска сервиса).
+     */
+    void resumePendingTransfers();
+}
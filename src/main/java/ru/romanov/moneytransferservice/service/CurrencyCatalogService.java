@@ -0,0 +1,30 @@
+package ru.romanov.moneytransferservice.service;
+
+import ru.romanov.moneytransferservice.model.dto.CurrencyCatalogDto;
+
+/**
+ * Интерфейс сервиса каталога поддерживаемых валют.
+ */
+public interface CurrencyCatalogService {
+    /**
+     * Возвращает последнюю успешно загруженную версию каталога.
+     * Если каталог ещё не загружен, загружает его из сервиса конвертации валют.
+     *
+     * @return Каталог поддерживаемых валют.
+     */
+    CurrencyCatalogDto getCatalog();
+
+    /**
+     * Проверяет, поддерживается ли валюта.
+     *
+     * @param code Код валюты в верхнем регистре.
+     * @return {@code true}, если валюта поддерживается.
+     */
+    boolean isSupported(String code);
+
+    /**
+     * Обновляет каталог из сервиса конвертации валют.
+     * При ошибке сохраняется последняя успешно загруженная версия.
+     */
+    void refresh();
+}
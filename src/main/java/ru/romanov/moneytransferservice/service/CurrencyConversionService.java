@@ -0,0 +1,27 @@
+package ru.romanov.moneytransferservice.service;
+
+import ru.romanov.moneytransferservice.model.Money;
+
+/**
+ * Интерфейс сервиса для конвертации сумм между валютами.
+ */
+public interface CurrencyConversionService {
+    /**
+     * Конвертирует сумму по курсу валютной пары с округлением до масштаба валюты {@code toCurrency}.
+     *
+     * @param fromCurrency Из какой валюты.
+     * @param toCurrency   В какую валюту.
+     * @param amount       Сумма для конвертации.
+     * @return Конвертированная сумма.
+     */
+    Money convert(String fromCurrency, String toCurrency, Money amount);
+
+    /**
+     * Возвращает курс валютной пары: сумму в валюте {@code toCurrency}, соответствующую единице {@code fromCurrency}.
+     *
+     * @param fromCurrency Из какой валюты.
+     * @param toCurrency   В какую валюту.
+     * @return Курс валютной пары.
+     */
+    double getRate(String fromCurrency, String toCurrency);
+}
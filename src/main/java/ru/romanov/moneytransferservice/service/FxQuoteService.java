@@ -0,0 +1,31 @@
+package ru.romanov.moneytransferservice.service;
+
+import ru.romanov.moneytransferservice.exception.QuoteMismatchException;
+import ru.romanov.moneytransferservice.exception.QuoteNotFoundException;
+import ru.romanov.moneytransferservice.model.dto.FxQuoteDto;
+
+/**
+ * Интерфейс сервиса котировок курсов валют.
+ */
+public interface FxQuoteService {
+    /**
+     * Создает котировку, фиксирующую текущий курс валютной пары на время {@code currency.quotes.ttl}.
+     *
+     * @param fromCurrency Из какой валюты.
+     * @param toCurrency   В какую валюту.
+     * @return Созданная котировка.
+     */
+    FxQuoteDto createQuote(String fromCurrency, String toCurrency);
+
+    /**
+     * Возвращает действующую котировку для валютной пары.
+     *
+     * @param quoteId      Идентификатор котировки.
+     * @param fromCurrency Валюта счёта отправителя.
+     * @param toCurrency   Валюта счёта получателя.
+     * @return Котировка.
+     * @throws QuoteNotFoundException Если котировка не найдена или срок её действия истёк.
+     * @throws QuoteMismatchException Если валюты котировки не совпадают с указанными.
+     */
+    FxQuoteDto getQuote(String quoteId, String fromCurrency, String toCurrency);
+}
@@ -0,0 +1,50 @@
+package ru.romanov.moneytransferservice.service;
+
+import ru.romanov.moneytransferservice.exception.IdempotencyKeyInProgressException;
+import ru.romanov.moneytransferservice.exception.IdempotencyKeyMismatchException;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Интерфейс сервиса для однократного выполнения запросов по ключу идемпотентности.
+ */
+public interface IdempotencyService {
+    /**
+     * Выполняет операцию не более одного раза для указанного ключа.
+     * Повторный запрос с тем же ключом получает сохранённый результат первого выполнения,
+     * а параллельный дубликат на том же узле ожидает завершения исходного запроса.
+     * Если операция завершилась ошибкой, ключ освобождается и запрос можно повторить.
+     * Операция выполняется в транзакции базы данных, в которой сохраняется и её результат.
+     *
+     * @param idempotencyKey Ключ идемпотентности.
+     * @param fingerprint    Отпечаток параметров запроса.
+     * @param operation      Операция.
+     * @return Результат операции.
+     * @throws IdempotencyKeyMismatchException   Если ключ уже использован с другими параметрами запроса.
+     * @throws IdempotencyKeyInProgressException Если запрос с ключом выполняется на другом узле.
+     */
+    Transaction execute(String idempotencyKey, String fingerprint, Supplier<Transaction> operation);
+
+    /**
+     * Выполняет операцию не более одного раза для указанного ключа, предварительно подготовив её вне транзакции.
+     * Подготовка (например, определение курса удалённым вызовом) выполняется после резервирования ключа
+     * и до открытия транзакции, в которой выполняется операция и сохраняется её результат.
+     *
+     * @param idempotencyKey Ключ идемпотентности.
+     * @param fingerprint    Отпечаток параметров запроса.
+     * @param preparation    Подготовка операции без транзакции базы данных.
+     * @param operation      Операция над результатом подготовки.
+     * @param <P>            Тип результата подготовки.
+     * @return Результат операции.
+     * @throws IdempotencyKeyMismatchException   Если ключ уже использован с другими параметрами запроса.
+     * @throws IdempotencyKeyInProgressException Если запрос с ключом выполняется на другом узле.
+     */
+    <P> Transaction execute(String idempotencyKey, String fingerprint, Supplier<P> preparation, Function<P, Transaction> operation);
+
+    /**
+     * Удаляет ключи, срок хранения которых истёк.
+     */
+    void purgeExpired();
+}
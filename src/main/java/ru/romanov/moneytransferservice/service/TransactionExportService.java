@@ -0,0 +1,27 @@
+package ru.romanov.moneytransferservice.service;
+
+import ru.romanov.moneytransferservice.enums.ExportFormatEnum;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * Интерфейс сервиса потоковой выгрузки истории транзакций.
+ */
+public interface TransactionExportService {
+    /**
+     * Выгружает все транзакции счёта в порядке возрастания даты и идентификатора ({@code transaction_date, id}).
+     * Транзакции читаются курсором базы данных и записываются в поток по мере чтения,
+     * поэтому объём используемой памяти не зависит от количества транзакций.
+     * Если поток выгрузки прерван (например, по таймауту асинхронного запроса), выгрузка останавливается
+     * перед записью следующей строки, а транзакция чтения и курсор освобождаются.
+     *
+     * @param accountNumber Номер счёта отправителя или получателя.
+     * @param format        Формат выгрузки.
+     * @param outputStream  Поток, в который записывается выгрузка. Не закрывается методом.
+     * @throws InterruptedIOException Если поток выгрузки прерван.
+     * @throws IOException            Если запись в поток не удалась (например, клиент разорвал соединение).
+     */
+    void exportAccountHistory(String accountNumber, ExportFormatEnum format, OutputStream outputStream) throws IOException;
+}
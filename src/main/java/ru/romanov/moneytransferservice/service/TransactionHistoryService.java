@@ -0,0 +1,33 @@
+package ru.romanov.moneytransferservice.service;
+
+import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
+import ru.romanov.moneytransferservice.exception.InvalidCursorException;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интерфейс сервиса постраничного чтения истории транзакций счёта.
+ */
+public interface TransactionHistoryService {
+    /**
+     * Возвращает страницу транзакций, где счёт является отправителем или получателем,
+     * в порядке возрастания даты транзакции и идентификатора.
+     *
+     * @param accountNumber Номер счёта.
+     * @param from          Начало периода, включительно (может быть {@code null}).
+     * @param to            Конец периода, не включительно (может быть {@code null}).
+     * @param type          Тип транзакции (может быть {@code null}).
+     * @param after         Курсор {@code next} предыдущей страницы ({@code null} для первой страницы).
+     * @param limit         Размер страницы ({@code null} для размера по умолчанию).
+     * @return Страница транзакций с курсором следующей страницы.
+     * @throws InvalidCursorException Если курсор повреждён.
+     */
+    CursorPage<Transaction> getAccountHistory(String accountNumber,
+                                              LocalDateTime from,
+                                              LocalDateTime to,
+                                              TypeTransactionEnum type,
+                                              String after,
+                                              Integer limit);
+}
@@ -1,15 +1,27 @@
 package ru.romanov.moneytransferservice.service;
 
 import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
+import ru.romanov.moneytransferservice.exception.BatchSizeExceededException;
+import ru.romanov.moneytransferservice.exception.InvalidAmountException;
+import ru.romanov.moneytransferservice.exception.QuoteMismatchException;
+import ru.romanov.moneytransferservice.exception.QuoteNotFoundException;
 import ru.romanov.moneytransferservice.exception.TransferYourselfException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.dto.BatchTransferResultDto;
+import ru.romanov.moneytransferservice.model.dto.PreparedTransferDto;
+import ru.romanov.moneytransferservice.model.dto.TransferRequestDto;
 import ru.romanov.moneytransferservice.model.entity.Transaction;
 
+import java.util.List;
+
 /**
  * Интерфейс сервиса для выполнения транзакций между счетами.
  */
 public interface TransactionService {
     /**
      * Создает новую транзакцию.
+     * Если включён журнал транзакций, транзакция подтверждается после записи в журнал
+     * и переносится в базу данных позже, поэтому её идентификатор не заполнен.
      *
      * @param fromAccountNumber Номер счёта отправителя (может быть {@code null}).
      * @param toAccountNumber   Номер счёта получателя (может быть {@code null}).
@@ -21,21 +33,70 @@ public interface TransactionService {
     Transaction createTransaction(String fromAccountNumber,
                                   String toAccountNumber,
                                   TypeTransactionEnum type,
-                                  double amount,
+                                  Money amount,
                                   String currencyCode);
 
     /**
      * Выполняет операцию перевода денег между счетами.
+     * В режиме блокировки оба счёта блокируются в каноническом порядке, а при таймауте
+     * ожидания блокировки перевод автоматически повторяется, если метод вызван вне внешней транзакции.
+     * Курс для переводов между валютами определяется до начала транзакции базы данных: по котировке,
+     * если она указана, иначе через сервис конвертации валют. Суммы округляются до масштаба валют счетов.
      *
      * @param fromAccountNumber Номер счёта отправителя.
      * @param toAccountNumber   Номер счёта получателя.
      * @param amount            Сумма перевода.
+     * @param quoteId           Идентификатор котировки курса (может быть {@code null}).
      * @return Созданная транзакция.
      * @throws TransferYourselfException При попытке перевода на счёт отправителя.
+     * @throws QuoteNotFoundException    Если котировка не найдена или срок её действия истёк.
+     * @throws QuoteMismatchException    Если валюты котировки не совпадают с валютами счетов.
+     * @throws InvalidAmountException    Если сумма списания или зачисления округляется до нуля.
      */
     Transaction transferMoney(String fromAccountNumber,
                               String toAccountNumber,
-                              double amount);
+                              Money amount,
+                              String quoteId);
+
+    /**
+     * Подготавливает перевод без открытия транзакции базы данных: определяет валюты счетов,
+     * округляет сумму списания и пересчитывает сумму зачисления по котировке или через сервис конвертации валют.
+     *
+     * @param fromAccountNumber Номер счёта отправителя.
+     * @param toAccountNumber   Номер счёта получателя.
+     * @param amount            Сумма перевода.
+     * @param quoteId           Идентификатор котировки курса (может быть {@code null}).
+     * @return Подготовленный перевод.
+     * @throws TransferYourselfException При попытке перевода на счёт отправителя.
+     * @throws QuoteNotFoundException    Если котировка не найдена или срок её действия истёк.
+     * @throws QuoteMismatchException    Если валюты котировки не совпадают с валютами счетов.
+     * @throws InvalidAmountException    Если сумма списания или зачисления округляется до нуля.
+     */
+    PreparedTransferDto prepareTransfer(String fromAccountNumber,
+                                        String toAccountNumber,
+                                        Money amount,
+                                        String quoteId);
+
+    /**
+     * Выполняет подготовленный перевод. Удалённых вызовов не делает, поэтому может вызываться
+     * внутри внешней транзакции, не удерживая её на время определения курса.
+     *
+     * @param transfer Перевод, подготовленный {@link #prepareTransfer}.
+     * @return Созданная транзакция.
+     */
+    Transaction transferMoney(PreparedTransferDto transfer);
+
+    /**
+     * Выполняет пакет переводов в одной транзакции базы данных.
+     * Все затронутые счета блокируются одним запросом, переводы применяются к балансам в памяти
+     * в порядке следования, после чего каждый счёт обновляется один раз, а транзакции сохраняются пакетно.
+     * Ошибка одного перевода не отменяет остальные.
+     *
+     * @param transfers Список переводов.
+     * @return Список результатов в порядке следования переводов.
+     * @throws BatchSizeExceededException Если размер пакета превышает допустимый.
+     */
+    List<BatchTransferResultDto> transferMoneyBatch(List<TransferRequestDto> transfers);
 
     /**
      * Выполняет операцию внесения денег на счёт.
@@ -43,9 +104,10 @@ public interface TransactionService {
      * @param toAccountNumber Номер счёта.
      * @param amount          Сумма внесения.
      * @return Созданная транзакция.
+     * @throws InvalidAmountException Если сумма округляется до нуля в валюте счёта.
      */
     Transaction depositMoney(String toAccountNumber,
-                             double amount);
+                             Money amount);
 
     /**
      * Выполняет операцию списания денег со счёта.
@@ -53,7 +115,8 @@ public interface TransactionService {
      * @param fromAccountNumber Номер счёта.
      * @param amount            Сумма списания.
      * @return Созданная транзакция.
+     * @throws InvalidAmountException Если сумма округляется до нуля в валюте счёта.
      */
     Transaction debitMoney(String fromAccountNumber,
-                           double amount);
+                           Money amount);
 }
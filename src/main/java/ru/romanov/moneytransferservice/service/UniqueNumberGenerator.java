@@ -0,0 +1,23 @@
+package ru.romanov.moneytransferservice.service;
+
+/**
+ * Интерфейс генератора уникальных номеров счетов и пользователей.
+ * <p>
+ * Номер состоит из 24 символов {@code [0-9A-Z]}, последний из которых является контрольным,
+ * и разбивается дефисами на блоки равной длины.
+ */
+public interface UniqueNumberGenerator {
+    /**
+     * Генерирует номер счёта в формате {@code XXXXXX-XXXXXX-XXXXXX-XXXXXX}.
+     *
+     * @return Уникальный номер счёта.
+     */
+    String generateAccountNumber();
+
+    /**
+     * Генерирует номер пользователя в формате {@code XXXXXXXX-XXXXXXXX-XXXXXXXX}.
+     *
+     * @return Уникальный номер пользователя.
+     */
+    String generateUserNumber();
+}
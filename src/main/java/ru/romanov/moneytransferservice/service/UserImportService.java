@@ -0,0 +1,27 @@
+package ru.romanov.moneytransferservice.service;
+
+import ru.romanov.moneytransferservice.enums.ImportFormatEnum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Интерфейс сервиса потокового импорта пользователей.
+ */
+public interface UserImportService {
+    /**
+     * Импортирует пользователей из потока. Строки читаются и обрабатываются пачками фиксированного размера,
+     * поэтому объём используемой памяти не зависит от размера загружаемых данных.
+     * <p>
+     * Для каждой строки в выходной поток записывается результат в формате NDJSON
+     * сразу после обработки пачки, в которую она входит.
+     *
+     * @param format       Формат входных данных. Для CSV первая строка является заголовком с именами полей {@code UserDto}.
+     * @param inputStream  Поток входных данных. Не закрывается методом.
+     * @param outputStream Поток, в который записываются результаты. Не закрывается методом.
+     * @return Количество созданных пользователей.
+     * @throws IOException Если чтение или запись потока не удались.
+     */
+    long importUsers(ImportFormatEnum format, InputStream inputStream, OutputStream outputStream) throws IOException;
+}
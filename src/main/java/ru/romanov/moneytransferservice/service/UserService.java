@@ -1,10 +1,12 @@
 package ru.romanov.moneytransferservice.service;
 
+import ru.romanov.moneytransferservice.exception.BatchSizeExceededException;
 import ru.romanov.moneytransferservice.exception.UserNotFoundException;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
 import ru.romanov.moneytransferservice.model.entity.User;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Collection;
 
 /**
  * Интерфейс сервиса для работы с пользователями.
@@ -29,11 +31,13 @@ public interface UserService {
                     String phoneNumber);
 
     /**
-     * Возвращает список всех пользователей.
+     * Возвращает страницу пользователей в порядке возрастания идентификатора.
      *
-     * @return Список всех пользователей.
+     * @param after Идентификатор последнего пользователя предыдущей страницы ({@code null} для первой страницы).
+     * @param limit Размер страницы ({@code null} для размера по умолчанию).
+     * @return Страница пользователей с курсором следующей страницы.
      */
-    List<User> getUsers();
+    CursorPage<User> getUsers(Long after, Integer limit);
 
     /**
      * Возвращает пользователя по его идентификатору.
@@ -62,8 +66,22 @@ public interface UserService {
 
     /**
      * Удаляет пользователя по его идентификатору, а также все его связанные аккаунты.
+     * Выполняется так же, как {@link #deleteUsers(Collection)} для одного пользователя.
      *
      * @param id Идентификатор пользователя для удаления.
+     * @throws UserNotFoundException Если пользователь не найден.
      */
     void deleteUser(long id);
+
+    /**
+     * Удаляет пользователей по идентификаторам вместе со всеми их счетами в одной транзакции.
+     * Остатки счетов списываются транзакциями {@code DEBIT}, после чего счета удаляются одним запросом,
+     * а пользователи - через сессию пакетами JDBC, чтобы из кэша второго уровня вытеснялись только они.
+     * Несуществующие идентификаторы пропускаются.
+     *
+     * @param ids Идентификаторы пользователей.
+     * @return Количество удалённых пользователей.
+     * @throws BatchSizeExceededException Если количество идентификаторов превышает допустимое.
+     */
+    int deleteUsers(Collection<Long> ids);
 }
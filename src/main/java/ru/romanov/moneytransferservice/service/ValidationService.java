@@ -1,8 +1,13 @@
 package ru.romanov.moneytransferservice.service;
 
+import ru.romanov.moneytransferservice.enums.UserFieldEnum;
 import ru.romanov.moneytransferservice.model.dto.UserDto;
+import ru.romanov.moneytransferservice.model.dto.UserValidationResultDto;
 import ru.romanov.moneytransferservice.model.entity.User;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * Интерфейс сервиса валидации данных пользователей.
  */
@@ -23,6 +28,23 @@ public interface ValidationService {
      */
     boolean isUserDtoValidated(UserDto userDto);
 
+    /**
+     * Проверяет DTO пользователя и возвращает поля, не прошедшие проверку.
+     * Отсутствующие обязательные поля считаются невалидными, отчество может отсутствовать.
+     *
+     * @param userDto Пользователь DTO для проверки.
+     * @return Невалидные поля или пустое множество, если пользователь валиден.
+     */
+    Set<UserFieldEnum> validate(UserDto userDto);
+
+    /**
+     * Проверяет пакет DTO пользователей.
+     *
+     * @param userDtos Пользователи DTO для проверки.
+     * @return Результаты проверки только невалидных пользователей в порядке их следования в пакете.
+     */
+    List<UserValidationResultDto> validateAll(List<UserDto> userDtos);
+
     /**
      * Проверяет валидность даты по заданным шаблонам.
      *
@@ -48,7 +70,8 @@ public interface ValidationService {
     boolean isPhoneNumberValidated(String phoneNumber);
 
     /**
-     * Проверяет валидность строки по общему регулярному выражению.
+     * Проверяет, что строка непустая и состоит только из латинских букв (a-z, A-Z),
+     * кириллических букв (а-я, А-Я; буквы ё и Ё не допускаются) и пробелов.
      *
      * @param string Строка для проверки.
      * @return {@code true}, если строка валидна, иначе {@code false}.
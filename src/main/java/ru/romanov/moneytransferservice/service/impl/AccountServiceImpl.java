@@ -1,46 +1,142 @@
 package ru.romanov.moneytransferservice.service.impl;
 
-import lombok.AllArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.stereotype.Service;
-import ru.romanov.moneytransferservice.client.CurrencyConverterClient;
+import ru.romanov.moneytransferservice.config.AccountCacheProperties;
+import ru.romanov.moneytransferservice.config.LockingProperties;
+import ru.romanov.moneytransferservice.config.PaginationProperties;
 import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
 import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
 import ru.romanov.moneytransferservice.exception.CodeNotSupportedException;
 import ru.romanov.moneytransferservice.exception.InsufficientFundsException;
 import ru.romanov.moneytransferservice.exception.UserNotFoundException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.dto.AccountInfoDto;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
 import ru.romanov.moneytransferservice.model.entity.Account;
 import ru.romanov.moneytransferservice.model.entity.Transaction;
 import ru.romanov.moneytransferservice.repository.AccountRepository;
 import ru.romanov.moneytransferservice.repository.TransactionRepository;
 import ru.romanov.moneytransferservice.repository.UserRepository;
 import ru.romanov.moneytransferservice.service.AccountService;
+import ru.romanov.moneytransferservice.service.CurrencyCatalogService;
+import ru.romanov.moneytransferservice.service.UniqueNumberGenerator;
+import ru.romanov.moneytransferservice.service.ledger.LedgerEngine;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Реализация сервиса для работы со счетами пользователей.
+ * <p>
+ * Сведения о счёте без баланса (идентификатор, валюта, владелец) кэшируются по номеру счёта: они не меняются
+ * после создания счёта, а баланс изменяется и проверяется только запросами к базе данных.
+ * Запись кэша удаляется при удалении счёта.
+ * <p>
+ * В режиме движка {@code sharded} балансы счетов в базе данных отстают от балансов в памяти {@link LedgerEngine},
+ * поэтому перед удалением счёта он закрывается в движке: дальнейшие операции с ним отклоняются,
+ * а накопленные изменения баланса записываются в базу данных.
  */
 @Slf4j
 @Service
-@AllArgsConstructor
 public class AccountServiceImpl implements AccountService {
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
-    private final CurrencyConverterClient currencyConverterClient;
+    private final CurrencyCatalogService currencyCatalogService;
+    private final UniqueNumberGenerator uniqueNumberGenerator;
+    private final LockingProperties lockingProperties;
+    private final PaginationProperties paginationProperties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<LedgerEngine> ledgerEngineProvider;
+    private final LoadingCache<String, AccountInfoDto> accountInfos;
+    // Суммарное ожидание блокировки по счетам за текущий интервал в наносекундах; размер ограничен,
+    // чтобы при большом числе счетов учитывались только недавно блокированные
+    private final Cache<String, LongAdder> lockWaits;
+    private final MultiGauge contendedAccounts;
+
+    /**
+     * Конструктор сервиса. Регистрирует метрики кэша сведений о счетах ({@code cache.*} с тегом {@code cache=accounts})
+     * и долю попаданий в кэш ({@code accounts.cache.hit.ratio}), а также метрику наиболее конкурентных счетов
+     * ({@code account.lock.wait.top}).
+     *
+     * @param accountRepository      Репозиторий счетов.
+     * @param transactionRepository  Репозиторий транзакций.
+     * @param userRepository         Репозиторий пользователей.
+     * @param currencyCatalogService Сервис каталога валют.
+     * @param uniqueNumberGenerator  Генератор уникальных номеров.
+     * @param lockingProperties      Настройки блокировок.
+     * @param paginationProperties   Настройки постраничной выдачи.
+     * @param accountCacheProperties Настройки кэша сведений о счетах.
+     * @param meterRegistry          Реестр метрик.
+     * @param ledgerEngineProvider   Движок проведения операций (доступен только в режиме {@code sharded}).
+     */
+    public AccountServiceImpl(AccountRepository accountRepository,
+                              TransactionRepository transactionRepository,
+                              UserRepository userRepository,
+                              CurrencyCatalogService currencyCatalogService,
+                              UniqueNumberGenerator uniqueNumberGenerator,
+                              LockingProperties lockingProperties,
+                              PaginationProperties paginationProperties,
+                              AccountCacheProperties accountCacheProperties,
+                              MeterRegistry meterRegistry,
+                              ObjectProvider<LedgerEngine> ledgerEngineProvider) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.currencyCatalogService = currencyCatalogService;
+        this.uniqueNumberGenerator = uniqueNumberGenerator;
+        this.lockingProperties = lockingProperties;
+        this.paginationProperties = paginationProperties;
+        this.meterRegistry = meterRegistry;
+        this.ledgerEngineProvider = ledgerEngineProvider;
+        this.accountInfos = Caffeine.newBuilder()
+                .maximumSize(accountCacheProperties.getMaxSize())
+                .expireAfterWrite(accountCacheProperties.getTtl())
+                .recordStats()
+                .build(this::loadAccountInfo);
+        CaffeineCacheMetrics.monitor(meterRegistry, accountInfos, "accounts");
+        Gauge.builder("accounts.cache.hit.ratio", accountInfos, cache -> cache.stats().hitRate())
+                .description("Share of account lookups served from the cache")
+                .register(meterRegistry);
+        this.lockWaits = Caffeine.newBuilder()
+                .maximumSize(lockingProperties.getContentionTrackedAccounts())
+                .build();
+        this.contendedAccounts = MultiGauge.builder("account.lock.wait.top")
+                .description("Time spent waiting for row locks during the last interval, for the most contended accounts")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
 
     @Override
     public Account createAccount(String currency, String userUniqueNumber) {
         Account account = new Account();
         account.setCurrency(checkSupportedCode(currency));
         account.setOwnerUniqueNumber(userRepository.findByUniqueNumber(userUniqueNumber).orElseThrow(UserNotFoundException::new).getUniqueNumber());
-        account.setAccountNumber(generateUniqueNumber());
-        account.setBalance(0);
+        account.setAccountNumber(uniqueNumberGenerator.generateAccountNumber());
+        account.setBalance(Money.zero().roundTo(account.getCurrency()));
         log.info("Account created. Account number: {}, currency: {}, owner unique number: {}", account.getAccountNumber(), account.getCurrency(), account.getOwnerUniqueNumber());
         return accountRepository.save(account);
     }
@@ -51,25 +147,84 @@ public class AccountServiceImpl implements AccountService {
     }
 
     @Override
-    public void updateAccountBalance(String accountNumber, TypeTransactionEnum type, double amount) {
+    public Account getCurrentAccount(String accountNumber) {
         Account account = getAccountByAccountNumber(accountNumber);
-        double accountBalance = account.getBalance();
+        LedgerEngine ledgerEngine = ledgerEngineProvider.getIfAvailable();
+        if (ledgerEngine != null) account.setBalance(ledgerEngine.getBalance(accountNumber));
+        return account;
+    }
+
+    @Override
+    public AccountInfoDto getAccountInfo(String accountNumber) {
+        return accountInfos.get(accountNumber);
+    }
+
+    @Override
+    @Transactional
+    public void updateAccountBalance(String accountNumber, TypeTransactionEnum type, Money amount) {
         switch (type) {
-            case DEPOSIT -> account.setBalance(accountBalance + amount);
+            case DEPOSIT -> {
+                if (accountRepository.creditBalance(accountNumber, amount) == 0) throw new AccountNotFoundException();
+            }
             case DEBIT -> {
-                checkBalance(account.getBalance(), amount);
-                account.setBalance(accountBalance - amount);
+                if (accountRepository.debitBalance(accountNumber, amount) == 0) {
+                    if (!accountRepository.existsByAccountNumber(accountNumber)) throw new AccountNotFoundException();
+                    throw new InsufficientFundsException();
+                }
             }
         }
-        accountRepository.save(account);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockAccounts(String... accountNumbers) {
+        if (!lockingProperties.isEnabled()) return;
+        setLockTimeout();
+        Arrays.stream(accountNumbers).distinct().sorted().forEach(accountNumber -> {
+            long start = System.nanoTime();
+            accountRepository.findForUpdateByAccountNumber(accountNumber).orElseThrow(AccountNotFoundException::new);
+            long waited = System.nanoTime() - start;
+            meterRegistry.timer("account.lock.wait", "scope", "single").record(waited, TimeUnit.NANOSECONDS);
+            lockWaits.get(accountNumber, key -> new LongAdder()).add(waited);
+        });
+    }
+
+    /**
+     * Публикует в метрике {@code account.lock.wait.top} с тегом {@code account} суммарное ожидание блокировки
+     * за прошедший интервал для {@code transfer.locking.contended-accounts} наиболее конкурентных счетов
+     * и начинает новый интервал. Число значений тега ограничено, в отличие от таймера с номером счёта.
+     */
+    @Scheduled(fixedDelayString = "${transfer.locking.contention-interval:60000}")
+    public void refreshContendedAccounts() {
+        Map<String, LongAdder> waits = Map.copyOf(lockWaits.asMap());
+        lockWaits.invalidateAll();
+        contendedAccounts.register(waits.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(lockingProperties.getContendedAccounts())
+                .<MultiGauge.Row<?>>map(entry -> MultiGauge.Row.of(Tags.of("account", entry.getKey()), entry.getValue() / 1e9))
+                .toList(), true);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<String, Account> getAccountsForUpdate(Collection<String> accountNumbers) {
+        setLockTimeout();
+        long start = System.nanoTime();
+        Map<String, Account> accounts = accountRepository.findAllForUpdateByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+        meterRegistry.timer("account.lock.wait", "scope", "batch")
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return accounts;
     }
 
     @Override
     @Transactional
     public void deleteAccount(String accountNumber) {
+        closeInLedger(List.of(accountNumber));
         Account account = getAccountByAccountNumber(accountNumber);
-        if (account.getBalance() > 0) {
-            double accountBalance = account.getBalance();
+        if (account.getBalance().signum() > 0) {
+            Money accountBalance = account.getBalance();
             updateAccountBalance(accountNumber, TypeTransactionEnum.DEBIT, accountBalance);
             Transaction transaction = new Transaction();
             transaction.setTransactionDate(LocalDateTime.now());
@@ -80,25 +235,117 @@ public class AccountServiceImpl implements AccountService {
             transactionRepository.save(transaction);
         }
         accountRepository.deleteById(account.getId());
+        evictAccountInfo(accountNumber);
         log.info("Delete account. Account number: {}", account.getAccountNumber());
     }
 
     @Override
-    public List<Account> getAccounts() {
-        return accountRepository.findAll();
+    @Transactional
+    public int closeAccounts(Collection<String> ownerUniqueNumbers) {
+        // Движок должен записать накопленные изменения балансов до блокировки счетов и их прямого удаления
+        if (ledgerEngineProvider.getIfAvailable() != null)
+            closeInLedger(accountRepository.findAccountNumbersByOwnerUniqueNumberIn(ownerUniqueNumbers));
+        setLockTimeout();
+        List<Account> accounts = accountRepository.findAllForUpdateByOwnerUniqueNumberIn(ownerUniqueNumbers);
+        if (accounts.isEmpty()) return 0;
+        int debits = accountRepository.insertClosingDebits(ownerUniqueNumbers, LocalDateTime.now());
+        int deleted = accountRepository.deleteAllByOwners(ownerUniqueNumbers);
+        accounts.forEach(account -> evictAccountInfo(account.getAccountNumber()));
+        log.info("Accounts closed. Owners: {}, accounts: {}, closing debits: {}", ownerUniqueNumbers.size(), deleted, debits);
+        return deleted;
+    }
+
+    @Override
+    public CursorPage<Account> getAccounts(Long after, Integer limit, String ownerUniqueNumber, String currency) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        long from = after != null ? after : 0;
+        Limit fetch = Limit.of(pageSize + 1);
+        List<Account> rows;
+        if (ownerUniqueNumber != null && currency != null)
+            rows = accountRepository.findByIdGreaterThanAndOwnerUniqueNumberAndCurrencyOrderByIdAsc(from, ownerUniqueNumber, currency.toUpperCase(), fetch);
+        else if (ownerUniqueNumber != null)
+            rows = accountRepository.findByIdGreaterThanAndOwnerUniqueNumberOrderByIdAsc(from, ownerUniqueNumber, fetch);
+        else if (currency != null)
+            rows = accountRepository.findByIdGreaterThanAndCurrencyOrderByIdAsc(from, currency.toUpperCase(), fetch);
+        else rows = accountRepository.findByIdGreaterThanOrderByIdAsc(from, fetch);
+        return CursorPage.of(rows, pageSize, account -> String.valueOf(account.getId()));
     }
 
     @Override
     public Map<String, String> getSupportedCurrencyMap() {
-        return currencyConverterClient.supportedCurrencyMap();
+        return currencyCatalogService.getCatalog().getCurrencies();
     }
 
     @Override
-    public void checkBalance(double accountBalance, double amount) {
-        if (accountBalance - amount < 0)
+    public void checkBalance(Money accountBalance, Money amount) {
+        if (accountBalance.compareTo(amount) < 0)
             throw new InsufficientFundsException();
     }
 
+    /**
+     * Ограничивает ожидание блокировки счетов в текущей транзакции таймаутом {@code transfer.locking.lock-timeout}.
+     * Истёкший таймаут приводит к {@code PessimisticLockingFailureException}, при которой перевод повторяется.
+     */
+    private void setLockTimeout() {
+        accountRepository.setLocalLockTimeout(lockingProperties.getLockTimeout() + "ms");
+    }
+
+    /**
+     * Загружает сведения о счёте из базы данных при промахе кэша.
+     *
+     * @param accountNumber Номер счёта.
+     * @return Сведения о счёте.
+     * @throws AccountNotFoundException Если счёт не найден.
+     */
+    private AccountInfoDto loadAccountInfo(String accountNumber) {
+        Account account = getAccountByAccountNumber(accountNumber);
+        return new AccountInfoDto(account.getId(), account.getAccountNumber(), account.getCurrency(), account.getOwnerUniqueNumber());
+    }
+
+    /**
+     * Закрывает счета в движке {@link LedgerEngine}, если он включён, перед их изменением в базе данных напрямую.
+     * После завершения транзакции счета загружаются движком из базы данных заново. Открытие регистрируется
+     * до закрытия, поэтому счета открываются и в том случае, если журнал не успел записать изменения.
+     *
+     * @param accountNumbers Номера счетов.
+     */
+    private void closeInLedger(Collection<String> accountNumbers) {
+        LedgerEngine ledgerEngine = ledgerEngineProvider.getIfAvailable();
+        if (ledgerEngine == null || accountNumbers.isEmpty()) return;
+        boolean synchronizationActive = TransactionSynchronizationManager.isSynchronizationActive();
+        if (synchronizationActive) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ledgerEngine.reopenAccounts(accountNumbers);
+                }
+            });
+        }
+        try {
+            ledgerEngine.closeAccounts(accountNumbers);
+        } catch (RuntimeException e) {
+            if (!synchronizationActive) ledgerEngine.reopenAccounts(accountNumbers);
+            throw e;
+        }
+    }
+
+    /**
+     * Удаляет сведения о счёте из кэша. Внутри транзакции удаление повторяется после её завершения,
+     * чтобы в кэш не попали сведения, загруженные параллельным запросом до фиксации удаления.
+     *
+     * @param accountNumber Номер счёта.
+     */
+    private void evictAccountInfo(String accountNumber) {
+        accountInfos.invalidate(accountNumber);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                accountInfos.invalidate(accountNumber);
+            }
+        });
+    }
+
     /**
      * Проверка: поддерживается ли указанный код валюты.
      *
@@ -107,26 +354,7 @@ public class AccountServiceImpl implements AccountService {
      * @throws CodeNotSupportedException Если указанный код валюты не поддерживается.
      */
     private String checkSupportedCode(String code) {
-        if (!getSupportedCurrencyMap().containsKey(code.toUpperCase())) throw new CodeNotSupportedException();
+        if (!currencyCatalogService.isSupported(code.toUpperCase())) throw new CodeNotSupportedException();
         return code.toUpperCase();
     }
-
-    /**
-     * Генерирует уникальный номер счёта.
-     *
-     * @return Уникальный номер счёта.
-     */
-    private String generateUniqueNumber() {
-        int blocks = 4;
-        int lengthBlock = 6;
-        StringBuilder accountNumber;
-        do {
-            accountNumber = new StringBuilder();
-            for (int i = 0; i < blocks; i++)
-                accountNumber.append(UUID.randomUUID().toString().toUpperCase()
-                                .replace("-", "/"), 0, lengthBlock)
-                        .append((i == blocks - 1 ? "" : "-"));
-        } while (accountRepository.existsByAccountNumber(accountNumber.toString()));
-        return accountNumber.toString();
-    }
-}
\ No newline at end of file
+}
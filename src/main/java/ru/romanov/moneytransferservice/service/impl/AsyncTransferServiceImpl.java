@@ -0,0 +1,246 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.romanov.moneytransferservice.config.AsyncTransferProperties;
+import ru.romanov.moneytransferservice.config.LockingProperties;
+import ru.romanov.moneytransferservice.enums.TransferStatusEnum;
+import ru.romanov.moneytransferservice.exception.PendingTransferNotFoundException;
+import ru.romanov.moneytransferservice.exception.ServiceUnavailableException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.dto.PreparedTransferDto;
+import ru.romanov.moneytransferservice.model.entity.PendingTransfer;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.PendingTransferRepository;
+import ru.romanov.moneytransferservice.service.AccountService;
+import ru.romanov.moneytransferservice.service.AsyncTransferService;
+import ru.romanov.moneytransferservice.service.TransactionService;
+import ru.romanov.moneytransferservice.service.ledger.LedgerEngine;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Реализация сервиса асинхронных переводов.
+ * <p>
+ * Каждый перевод выполняется в отдельном виртуальном потоке, а количество одновременно выполняемых
+ * переводов ограничено семафором, чтобы ожидающие потоки не исчерпывали пул соединений с базой данных.
+ * Перед выполнением перевод захватывается отдельной транзакцией ({@code PENDING -> RUNNING}), и выполняет его только
+ * захвативший поток, поэтому перевод, повторно запущенный после перезапуска или на другом узле, не выполняется дважды.
+ * Это важно в режиме движка {@code sharded}, где перевод проводится в памяти и не откатывается вместе с транзакцией
+ * базы данных. Перевод и смена его состояния на {@code COMPLETED} фиксируются в одной транзакции; повтор при таймауте
+ * блокировки выполняется только в режиме {@code jpa}, где неудачная попытка откатывается целиком.
+ * Курс определяется до открытия этой транзакции, поэтому удалённый вызов не удерживает соединение с базой данных.
+ * <p>
+ * Переводы, оставшиеся в состоянии {@code RUNNING} после остановки узла дольше {@code transfer.async.stale-running-timeout},
+ * при запуске возвращаются к выполнению в режиме {@code jpa}; в режиме {@code sharded} неизвестно, был ли перевод
+ * проведён, поэтому они отмечаются ошибкой для ручной сверки.
+ * <p>
+ * Количество принятых, но не завершённых переводов ограничено {@code transfer.async.max-backlog}:
+ * сверх этой границы новые переводы отклоняются с ответом 503, а не накапливаются в памяти без ограничения.
+ */
+@Slf4j
+@Service
+public class AsyncTransferServiceImpl implements AsyncTransferService {
+    private static final int MAX_ERROR_LENGTH = 1024;
+    private static final String INTERRUPTED_ERROR = "Transfer was interrupted while running, ledger reconciliation required";
+
+    private final PendingTransferRepository pendingTransferRepository;
+    private final TransactionService transactionService;
+    private final AccountService accountService;
+    private final TransactionTemplate transactionTemplate;
+    private final LockingProperties lockingProperties;
+    private final ObjectProvider<LedgerEngine> ledgerEngineProvider;
+    private final Semaphore permits;
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final int maxBacklog;
+    private final long staleRunningTimeout;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("async-transfer-", 0).factory());
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param pendingTransferRepository Репозиторий асинхронных переводов.
+     * @param transactionService        Сервис для выполнения переводов.
+     * @param accountService            Сервис для проверки существования счетов.
+     * @param transactionManager        Менеджер транзакций базы данных.
+     * @param lockingProperties         Настройки повторных попыток при таймауте блокировки.
+     * @param asyncTransferProperties   Настройки асинхронного выполнения.
+     * @param ledgerEngineProvider      Движок проведения операций (доступен только в режиме {@code sharded}).
+     */
+    public AsyncTransferServiceImpl(PendingTransferRepository pendingTransferRepository,
+                                    TransactionService transactionService,
+                                    AccountService accountService,
+                                    PlatformTransactionManager transactionManager,
+                                    LockingProperties lockingProperties,
+                                    AsyncTransferProperties asyncTransferProperties,
+                                    ObjectProvider<LedgerEngine> ledgerEngineProvider) {
+        this.pendingTransferRepository = pendingTransferRepository;
+        this.transactionService = transactionService;
+        this.accountService = accountService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lockingProperties = lockingProperties;
+        this.permits = new Semaphore(asyncTransferProperties.getMaxConcurrency());
+        this.maxBacklog = asyncTransferProperties.getMaxBacklog();
+        this.staleRunningTimeout = asyncTransferProperties.getStaleRunningTimeout();
+        this.ledgerEngineProvider = ledgerEngineProvider;
+    }
+
+    @Override
+    public PendingTransfer submitTransfer(String fromAccountNumber, String toAccountNumber, Money amount) {
+        String currency = accountService.getAccountInfo(fromAccountNumber).getCurrency();
+        accountService.getAccountInfo(toAccountNumber);
+        // Сумма округляется до масштаба валюты отправителя, как при синхронном переводе, чтобы нулевая
+        // после округления сумма отклонялась при приёме, а не принималась и завершалась ошибкой в фоне
+        Money debitAmount = TransactionServiceImpl.positive(amount.roundTo(currency));
+        if (backlog.incrementAndGet() > maxBacklog) {
+            backlog.decrementAndGet();
+            throw new ServiceUnavailableException("Async transfer backlog is full", null);
+        }
+        PendingTransfer transfer = new PendingTransfer();
+        transfer.setFromAccountNumber(fromAccountNumber);
+        transfer.setToAccountNumber(toAccountNumber);
+        transfer.setAmount(debitAmount);
+        transfer.setStatus(TransferStatusEnum.PENDING);
+        transfer.setCreatedAt(LocalDateTime.now());
+        transfer.setUpdatedAt(transfer.getCreatedAt());
+        PendingTransfer saved;
+        try {
+            saved = pendingTransferRepository.save(transfer);
+        } catch (RuntimeException e) {
+            backlog.decrementAndGet();
+            throw e;
+        }
+        dispatch(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public PendingTransfer getTransfer(Long id) {
+        return pendingTransferRepository.findById(id).orElseThrow(PendingTransferNotFoundException::new);
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingTransfers() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minus(staleRunningTimeout, ChronoUnit.MILLIS);
+        if (ledgerEngineProvider.getIfAvailable() == null) {
+            int released = pendingTransferRepository.releaseStale(staleBefore, now);
+            if (released > 0) log.info("Interrupted transfers returned to pending: {}", released);
+        } else {
+            int failed = pendingTransferRepository.failStale(INTERRUPTED_ERROR, staleBefore, now);
+            if (failed > 0) log.error("Interrupted transfers marked failed, ledger reconciliation required: {}", failed);
+        }
+        List<Long> ids = pendingTransferRepository.findIdsByStatus(TransferStatusEnum.PENDING);
+        if (!ids.isEmpty()) log.info("Resuming pending transfers: {}", ids.size());
+        // Возобновлённые переводы уже приняты, поэтому учитываются в очереди без проверки границы
+        ids.forEach(id -> {
+            backlog.incrementAndGet();
+            dispatch(id);
+        });
+    }
+
+    /**
+     * Останавливает приём новых задач и ожидает завершения выполняющихся переводов.
+     * Незапущенные переводы остаются в состоянии {@code PENDING} и будут запущены после перезапуска.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) executor.shutdownNow();
+    }
+
+    /**
+     * Запускает выполнение перевода в виртуальном потоке. Место в очереди должно быть занято вызывающим кодом
+     * и освобождается после завершения перевода.
+     *
+     * @param id Идентификатор перевода.
+     */
+    private void dispatch(Long id) {
+        try {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    backlog.decrementAndGet();
+                    return;
+                }
+                try {
+                    execute(id);
+                } finally {
+                    permits.release();
+                    backlog.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Сервис останавливается: перевод остаётся в состоянии PENDING и будет запущен после перезапуска
+            backlog.decrementAndGet();
+        }
+    }
+
+    /**
+     * Захватывает и выполняет перевод, повторяя попытку при таймауте блокировки счетов в режиме {@code jpa}.
+     * При ошибке перевод переводится в состояние {@code FAILED}, при прерывании возвращается в состояние {@code PENDING}.
+     * Если перевод уже захвачен другим потоком или узлом, ничего не делает.
+     *
+     * @param id Идентификатор перевода.
+     */
+    private void execute(Long id) {
+        if (pendingTransferRepository.claim(id, LocalDateTime.now()) == 0) return;
+        PendingTransfer transfer = pendingTransferRepository.findById(id).orElse(null);
+        if (transfer == null) return;
+        boolean retryable = ledgerEngineProvider.getIfAvailable() == null;
+        try {
+            PreparedTransferDto prepared = transactionService.prepareTransfer(
+                    transfer.getFromAccountNumber(), transfer.getToAccountNumber(), transfer.getAmount(), null);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> transfer(id, prepared));
+                    return;
+                } catch (PessimisticLockingFailureException e) {
+                    if (!retryable || attempt >= lockingProperties.getMaxAttempts()) throw e;
+                    Thread.sleep(lockingProperties.getRetryDelay() << (attempt - 1));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Ожидание повтора возможно только в режиме jpa, где неудачные попытки откачены
+            pendingTransferRepository.release(id, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            log.error("Async transfer failed. Id: {}, message: {}", id, error);
+            pendingTransferRepository.fail(id, error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error,
+                    LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Выполняет перевод и отмечает его выполненным в текущей транзакции.
+     * Если перевод уже выполнен другим потоком или узлом, транзакция откатывается.
+     *
+     * @param id       Идентификатор перевода.
+     * @param prepared Подготовленный перевод.
+     */
+    private void transfer(Long id, PreparedTransferDto prepared) {
+        Transaction transaction = transactionService.transferMoney(prepared);
+        if (pendingTransferRepository.complete(id, transaction.getId(), LocalDateTime.now()) == 0)
+            throw new IllegalStateException("Transfer " + id + " is already processed");
+    }
+}
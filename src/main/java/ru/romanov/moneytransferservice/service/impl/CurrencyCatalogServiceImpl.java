@@ -0,0 +1,106 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import ru.romanov.moneytransferservice.client.ResilientCurrencyConverterClient;
+import ru.romanov.moneytransferservice.model.dto.CurrencyCatalogDto;
+import ru.romanov.moneytransferservice.service.CurrencyCatalogService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Реализация каталога поддерживаемых валют.
+ * <p>
+ * Каталог загружается при запуске и обновляется по расписанию. Если сервис конвертации валют недоступен,
+ * продолжает использоваться последняя успешно загруженная версия, поэтому создание счетов не зависит
+ * от доступности этого сервиса.
+ */
+@Slf4j
+@Service
+public class CurrencyCatalogServiceImpl implements CurrencyCatalogService {
+    private final ResilientCurrencyConverterClient currencyConverterClient;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile CurrencyCatalogDto catalog;
+
+    /**
+     * Конструктор сервиса. Регистрирует метрику возраста каталога ({@code currency.catalog.age}).
+     *
+     * @param currencyConverterClient Отказоустойчивый клиент сервиса конвертации валют.
+     * @param meterRegistry           Реестр метрик.
+     */
+    public CurrencyCatalogServiceImpl(ResilientCurrencyConverterClient currencyConverterClient, MeterRegistry meterRegistry) {
+        this.currencyConverterClient = currencyConverterClient;
+        Gauge.builder("currency.catalog.age", this, CurrencyCatalogServiceImpl::ageSeconds)
+                .description("Age of the supported currency catalogue")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CurrencyCatalogDto getCatalog() {
+        CurrencyCatalogDto current = catalog;
+        if (current != null) return current;
+        loadLock.lock();
+        try {
+            if (catalog == null) catalog = load();
+            return catalog;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isSupported(String code) {
+        return getCatalog().getCurrencies().containsKey(code);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${currency.catalog.refresh-interval:600000}")
+    public void refresh() {
+        try {
+            CurrencyCatalogDto loaded = load();
+            loadLock.lock();
+            try {
+                catalog = loaded;
+            } finally {
+                loadLock.unlock();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Currency catalogue refresh failed, last known version is kept. Message: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Загружает каталог из сервиса конвертации валют.
+     *
+     * @return Загруженный каталог.
+     */
+    private CurrencyCatalogDto load() {
+        Map<String, String> currencies = currencyConverterClient.supportedCurrencyMap();
+        if (currencies == null || currencies.isEmpty()) throw new IllegalStateException("Currency catalogue is empty");
+        Map<String, String> sorted = Collections.unmodifiableMap(new TreeMap<>(currencies));
+        String etag = "\"" + DigestUtils.md5DigestAsHex(sorted.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        log.info("Currency catalogue loaded. Currencies: {}, version: {}", sorted.size(), etag);
+        return new CurrencyCatalogDto(sorted, etag, Instant.now());
+    }
+
+    /**
+     * Возвращает возраст каталога.
+     *
+     * @return Возраст в секундах или {@code 0}, если каталог ещё не загружен.
+     */
+    private double ageSeconds() {
+        CurrencyCatalogDto current = catalog;
+        return current == null ? 0 : Duration.between(current.getLoadedAt(), Instant.now()).toMillis() / 1000.0;
+    }
+}
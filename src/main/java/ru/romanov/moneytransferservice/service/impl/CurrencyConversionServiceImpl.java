@@ -0,0 +1,145 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.romanov.moneytransferservice.client.ResilientCurrencyConverterClient;
+import ru.romanov.moneytransferservice.config.CurrencyRateProperties;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.service.CurrencyConversionService;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Реализация сервиса конвертации с кэшем курсов валютных пар.
+ * <p>
+ * Курс запрашивается у сервиса конвертации валют как результат конвертации единицы валюты и применяется
+ * к сумме локально. Курс обновляется в фоне через {@code refresh-after} после загрузки, при этом до окончания
+ * обновления используется прежнее значение; через {@code ttl} курс удаляется из кэша. Одновременные промахи
+ * по одной валютной паре объединяет сам кэш: загрузку выполняет один поток, остальные ожидают её результат.
+ * Ошибка загрузки запоминается в отдельном кэше ошибок и возвращается запросам по той же паре в течение
+ * {@code failure-ttl} без повторного удалённого вызова.
+ */
+@Slf4j
+@Service
+public class CurrencyConversionServiceImpl implements CurrencyConversionService {
+    private final ResilientCurrencyConverterClient currencyConverterClient;
+    private final LoadingCache<CurrencyPair, ExchangeRate> rates;
+    private final Cache<CurrencyPair, RuntimeException> failures;
+
+    /**
+     * Конструктор сервиса. Регистрирует метрики кэша ({@code cache.*} с тегом {@code cache=currency.rates}),
+     * возраст самого старого курса в кэше ({@code currency.rates.staleness}) и долю запросов курса,
+     * обслуженных без удалённого вызова ({@code currency.rates.dedup.ratio}).
+     *
+     * @param currencyConverterClient Отказоустойчивый клиент сервиса конвертации валют.
+     * @param currencyRateProperties  Настройки кэша курсов.
+     * @param meterRegistry           Реестр метрик.
+     */
+    public CurrencyConversionServiceImpl(ResilientCurrencyConverterClient currencyConverterClient,
+                                         CurrencyRateProperties currencyRateProperties,
+                                         MeterRegistry meterRegistry) {
+        this.currencyConverterClient = currencyConverterClient;
+        this.rates = Caffeine.newBuilder()
+                .maximumSize(currencyRateProperties.getMaxSize())
+                .expireAfterWrite(currencyRateProperties.getTtl())
+                .refreshAfterWrite(currencyRateProperties.getRefreshAfter())
+                .recordStats()
+                .build(this::loadRate);
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(currencyRateProperties.getMaxSize())
+                .expireAfterWrite(currencyRateProperties.getFailureTtl())
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rates, "currency.rates");
+        Gauge.builder("currency.rates.dedup.ratio", rates, CurrencyConversionServiceImpl::dedupRatio)
+                .description("Share of exchange rate lookups served without a remote call")
+                .register(meterRegistry);
+        Gauge.builder("currency.rates.staleness", this, CurrencyConversionServiceImpl::maxStalenessSeconds)
+                .description("Age of the oldest cached exchange rate")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Money convert(String fromCurrency, String toCurrency, Money amount) {
+        if (fromCurrency.equals(toCurrency)) return amount.roundTo(toCurrency);
+        return amount.multiply(getRate(fromCurrency, toCurrency), toCurrency);
+    }
+
+    @Override
+    public double getRate(String fromCurrency, String toCurrency) {
+        CurrencyPair pair = new CurrencyPair(fromCurrency, toCurrency);
+        RuntimeException failure = failures.getIfPresent(pair);
+        if (failure != null) throw failure;
+        try {
+            return rates.get(pair).rate();
+        } catch (RuntimeException e) {
+            failures.put(pair, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Загружает курс валютной пары из сервиса конвертации валют.
+     *
+     * @param pair Валютная пара.
+     * @return Курс с временем загрузки.
+     */
+    private ExchangeRate loadRate(CurrencyPair pair) {
+        Double rate = currencyConverterClient.convert(pair.fromCurrency(), pair.toCurrency(), 1.0);
+        if (rate == null || rate <= 0)
+            throw new IllegalStateException("Invalid exchange rate for " + pair.fromCurrency() + "/" + pair.toCurrency());
+        log.debug("Exchange rate loaded. Pair: {}/{}, rate: {}", pair.fromCurrency(), pair.toCurrency(), rate);
+        return new ExchangeRate(rate, Instant.now());
+    }
+
+    /**
+     * Возвращает возраст самого старого курса в кэше.
+     *
+     * @return Возраст в секундах или {@code 0}, если кэш пуст.
+     */
+    private double maxStalenessSeconds() {
+        Instant now = Instant.now();
+        return rates.asMap().values().stream()
+                .mapToDouble(rate -> Duration.between(rate.loadedAt(), now).toMillis() / 1000.0)
+                .max()
+                .orElse(0);
+    }
+
+    /**
+     * Возвращает долю запросов курса, обслуженных без удалённого вызова: из кэша или результатом загрузки,
+     * выполненной для другого запроса.
+     *
+     * @param rates Кэш курсов.
+     * @return Доля от {@code 0} до {@code 1}.
+     */
+    private static double dedupRatio(LoadingCache<?, ?> rates) {
+        CacheStats stats = rates.stats();
+        return stats.requestCount() == 0 ? 0 : 1 - (double) stats.loadCount() / stats.requestCount();
+    }
+
+    /**
+     * Валютная пара.
+     *
+     * @param fromCurrency Из какой валюты.
+     * @param toCurrency   В какую валюту.
+     */
+    private record CurrencyPair(String fromCurrency, String toCurrency) {
+    }
+
+    /**
+     * Курс валютной пары.
+     *
+     * @param rate     Сумма в целевой валюте за единицу исходной валюты.
+     * @param loadedAt Время загрузки курса.
+     */
+    private record ExchangeRate(double rate, Instant loadedAt) {
+    }
+}
@@ -0,0 +1,61 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.romanov.moneytransferservice.config.FxQuoteProperties;
+import ru.romanov.moneytransferservice.exception.QuoteMismatchException;
+import ru.romanov.moneytransferservice.exception.QuoteNotFoundException;
+import ru.romanov.moneytransferservice.model.dto.FxQuoteDto;
+import ru.romanov.moneytransferservice.service.CurrencyConversionService;
+import ru.romanov.moneytransferservice.service.FxQuoteService;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Реализация сервиса котировок.
+ * Котировки хранятся в памяти и удаляются по истечении срока действия.
+ */
+@Slf4j
+@Service
+public class FxQuoteServiceImpl implements FxQuoteService {
+    private final CurrencyConversionService currencyConversionService;
+    private final FxQuoteProperties fxQuoteProperties;
+    private final Cache<String, FxQuoteDto> quotes;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param currencyConversionService Сервис конвертации валют.
+     * @param fxQuoteProperties         Настройки котировок.
+     */
+    public FxQuoteServiceImpl(CurrencyConversionService currencyConversionService, FxQuoteProperties fxQuoteProperties) {
+        this.currencyConversionService = currencyConversionService;
+        this.fxQuoteProperties = fxQuoteProperties;
+        this.quotes = Caffeine.newBuilder()
+                .maximumSize(fxQuoteProperties.getMaxSize())
+                .expireAfterWrite(fxQuoteProperties.getTtl())
+                .build();
+    }
+
+    @Override
+    public FxQuoteDto createQuote(String fromCurrency, String toCurrency) {
+        double rate = currencyConversionService.getRate(fromCurrency, toCurrency);
+        FxQuoteDto quote = new FxQuoteDto(UUID.randomUUID().toString(), fromCurrency, toCurrency, rate,
+                Instant.now().plus(fxQuoteProperties.getTtl()));
+        quotes.put(quote.getId(), quote);
+        log.info("Quote created. Id: {}, pair: {}/{}, rate: {}", quote.getId(), fromCurrency, toCurrency, rate);
+        return quote;
+    }
+
+    @Override
+    public FxQuoteDto getQuote(String quoteId, String fromCurrency, String toCurrency) {
+        FxQuoteDto quote = quotes.getIfPresent(quoteId);
+        if (quote == null || quote.getExpiresAt().isBefore(Instant.now())) throw new QuoteNotFoundException();
+        if (!quote.getFromCurrency().equals(fromCurrency) || !quote.getToCurrency().equals(toCurrency))
+            throw new QuoteMismatchException();
+        return quote;
+    }
+}
@@ -0,0 +1,221 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.romanov.moneytransferservice.config.IdempotencyProperties;
+import ru.romanov.moneytransferservice.enums.IdempotencyStatusEnum;
+import ru.romanov.moneytransferservice.exception.IdempotencyKeyInProgressException;
+import ru.romanov.moneytransferservice.exception.IdempotencyKeyMismatchException;
+import ru.romanov.moneytransferservice.model.entity.IdempotencyKey;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.IdempotencyKeyRepository;
+import ru.romanov.moneytransferservice.service.IdempotencyService;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Реализация сервиса идемпотентности.
+ * <p>
+ * Ответы на последние запросы хранятся в ограниченном кэше в памяти, а все ключи — в таблице
+ * {@code idempotency_key}, которая служит общим хранилищем для всех узлов. Ключ резервируется
+ * вставкой строки в состоянии {@code IN_PROGRESS} до выполнения операции, поэтому один и тот же
+ * запрос не может быть выполнен дважды даже на разных узлах. Резервирование фиксируется отдельно,
+ * а ответ сохраняется в той же транзакции, что и операция: если операция зафиксирована, ключ
+ * гарантированно переведён в {@code COMPLETED}. Поэтому ключ, оставшийся в {@code IN_PROGRESS}
+ * дольше {@code transfer.idempotency.lease}, принадлежит незафиксированной операции (например, узел
+ * остановился) и резервируется повторно, а не блокирует повторы клиента на весь срок хранения.
+ * <p>
+ * В режиме движка {@code sharded} операция проводится в памяти без транзакции базы данных,
+ * поэтому там ответ сохраняется сразу после операции, но не атомарно с ней.
+ */
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyProperties idempotencyProperties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, StoredResponse> responses;
+    private final ConcurrentMap<String, InFlightRequest> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param idempotencyKeyRepository Репозиторий ключей идемпотентности.
+     * @param idempotencyProperties    Настройки хранилища ключей.
+     * @param objectMapper             Преобразователь ответов в JSON.
+     * @param transactionTemplate      Шаблон транзакций базы данных.
+     */
+    public IdempotencyServiceImpl(IdempotencyKeyRepository idempotencyKeyRepository,
+                                  IdempotencyProperties idempotencyProperties,
+                                  ObjectMapper objectMapper,
+                                  TransactionTemplate transactionTemplate) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.idempotencyProperties = idempotencyProperties;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(idempotencyProperties.getCacheSize())
+                .expireAfterWrite(idempotencyProperties.getTtl())
+                .build();
+    }
+
+    @Override
+    public Transaction execute(String idempotencyKey, String fingerprint, Supplier<Transaction> operation) {
+        return execute(idempotencyKey, fingerprint, () -> null, prepared -> operation.get());
+    }
+
+    @Override
+    public <P> Transaction execute(String idempotencyKey, String fingerprint, Supplier<P> preparation, Function<P, Transaction> operation) {
+        StoredResponse cached = responses.getIfPresent(idempotencyKey);
+        if (cached != null) return cached.matching(fingerprint);
+
+        InFlightRequest request = new InFlightRequest(fingerprint, new CompletableFuture<>());
+        InFlightRequest existing = inFlight.putIfAbsent(idempotencyKey, request);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) throw new IdempotencyKeyMismatchException();
+            return await(existing.result());
+        }
+        try {
+            Transaction transaction = executeOnce(idempotencyKey, fingerprint, preparation, operation);
+            request.result().complete(transaction);
+            return transaction;
+        } catch (RuntimeException e) {
+            request.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, request);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${transfer.idempotency.purge-interval:60000}")
+    public void purgeExpired() {
+        int deleted = idempotencyKeyRepository.deleteByCreatedAtBefore(LocalDateTime.now().minus(idempotencyProperties.getTtl()));
+        if (deleted > 0) log.info("Expired idempotency keys purged: {}", deleted);
+    }
+
+    /**
+     * Резервирует ключ в базе данных и выполняет операцию либо возвращает сохранённый ответ.
+     *
+     * @param idempotencyKey Ключ идемпотентности.
+     * @param fingerprint    Отпечаток параметров запроса.
+     * @param preparation    Подготовка операции без транзакции базы данных.
+     * @param operation      Операция.
+     * @return Результат операции.
+     */
+    private <P> Transaction executeOnce(String idempotencyKey, String fingerprint, Supplier<P> preparation, Function<P, Transaction> operation) {
+        if (!reserve(idempotencyKey, fingerprint)) return replay(idempotencyKey, fingerprint);
+        Transaction transaction;
+        try {
+            P prepared = preparation.get();
+            transaction = transactionTemplate.execute(status -> {
+                Transaction result = operation.apply(prepared);
+                idempotencyKeyRepository.complete(idempotencyKey, toJson(result));
+                return result;
+            });
+        } catch (RuntimeException e) {
+            idempotencyKeyRepository.deleteById(idempotencyKey);
+            throw e;
+        }
+        responses.put(idempotencyKey, new StoredResponse(fingerprint, transaction));
+        return transaction;
+    }
+
+    /**
+     * Резервирует ключ: вставляет новую строку или перехватывает ключ с тем же отпечатком, аренда которого истекла.
+     *
+     * @param idempotencyKey Ключ идемпотентности.
+     * @param fingerprint    Отпечаток параметров запроса.
+     * @return {@code true}, если ключ зарезервирован этим запросом.
+     */
+    private boolean reserve(String idempotencyKey, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        if (idempotencyKeyRepository.reserve(idempotencyKey, fingerprint, now) == 1) return true;
+        if (idempotencyKeyRepository.reclaim(idempotencyKey, fingerprint, now, now.minus(idempotencyProperties.getLease())) == 0) return false;
+        log.warn("Abandoned idempotency key reclaimed. Key: {}", idempotencyKey);
+        return true;
+    }
+
+    /**
+     * Возвращает сохранённый в базе данных ответ для уже использованного ключа.
+     *
+     * @param idempotencyKey Ключ идемпотентности.
+     * @param fingerprint    Отпечаток параметров запроса.
+     * @return Сохранённый результат операции.
+     */
+    private Transaction replay(String idempotencyKey, String fingerprint) {
+        IdempotencyKey stored = idempotencyKeyRepository.findById(idempotencyKey)
+                .orElseThrow(IdempotencyKeyInProgressException::new);
+        if (!stored.getFingerprint().equals(fingerprint)) throw new IdempotencyKeyMismatchException();
+        if (stored.getStatus() != IdempotencyStatusEnum.COMPLETED) throw new IdempotencyKeyInProgressException();
+        Transaction transaction = fromJson(stored.getResponse());
+        responses.put(idempotencyKey, new StoredResponse(fingerprint, transaction));
+        return transaction;
+    }
+
+    /**
+     * Ожидает результат параллельного запроса с тем же ключом.
+     *
+     * @param result Результат параллельного запроса.
+     * @return Результат операции.
+     */
+    private Transaction await(CompletableFuture<Transaction> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private String toJson(Transaction transaction) {
+        try {
+            return objectMapper.writeValueAsString(transaction);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+
+    private Transaction fromJson(String response) {
+        try {
+            return objectMapper.readValue(response, Transaction.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize idempotent response", e);
+        }
+    }
+
+    /**
+     * Сохранённый ответ вместе с отпечатком запроса, на который он был получен.
+     *
+     * @param fingerprint Отпечаток параметров запроса.
+     * @param transaction Результат операции.
+     */
+    private record StoredResponse(String fingerprint, Transaction transaction) {
+        Transaction matching(String requestFingerprint) {
+            if (!fingerprint.equals(requestFingerprint)) throw new IdempotencyKeyMismatchException();
+            return transaction;
+        }
+    }
+
+    /**
+     * Выполняющийся на этом узле запрос.
+     *
+     * @param fingerprint Отпечаток параметров запроса.
+     * @param result      Будущий результат операции.
+     */
+    private record InFlightRequest(String fingerprint, CompletableFuture<Transaction> result) {
+    }
+}
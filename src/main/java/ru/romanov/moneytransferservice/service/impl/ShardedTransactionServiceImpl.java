@@ -0,0 +1,128 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ru.romanov.moneytransferservice.config.BatchTransferProperties;
+import ru.romanov.moneytransferservice.enums.BatchTransferStatusEnum;
+import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
+import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
+import ru.romanov.moneytransferservice.exception.BatchSizeExceededException;
+import ru.romanov.moneytransferservice.exception.InsufficientFundsException;
+import ru.romanov.moneytransferservice.exception.InvalidAmountException;
+import ru.romanov.moneytransferservice.exception.TransferYourselfException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.dto.BatchTransferResultDto;
+import ru.romanov.moneytransferservice.model.dto.PreparedTransferDto;
+import ru.romanov.moneytransferservice.model.dto.TransferRequestDto;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.service.CurrencyConversionService;
+import ru.romanov.moneytransferservice.service.FxQuoteService;
+import ru.romanov.moneytransferservice.service.TransactionService;
+import ru.romanov.moneytransferservice.service.ledger.LedgerEngine;
+import ru.romanov.moneytransferservice.service.ledger.LedgerJournal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реализация сервиса для выполнения транзакций на движке {@link LedgerEngine}.
+ * Используется в режиме движка {@code sharded}. Транзакции сохраняются в базу данных журналом движка
+ * вместе с изменениями балансов и возвращаются после записи пакета журнала; их идентификатор не заполнен.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+@ConditionalOnProperty(name = "transfer.engine.mode", havingValue = "sharded")
+public class ShardedTransactionServiceImpl implements TransactionService {
+    private LedgerEngine ledgerEngine;
+    private LedgerJournal ledgerJournal;
+    private CurrencyConversionService currencyConversionService;
+    private FxQuoteService fxQuoteService;
+    private BatchTransferProperties batchTransferProperties;
+
+    @Override
+    public Transaction createTransaction(String fromAccountNumber, String toAccountNumber, TypeTransactionEnum type, Money amount, String currencyCode) {
+        Transaction transaction = TransactionServiceImpl.buildTransaction(fromAccountNumber, toAccountNumber, type, amount, currencyCode);
+        ledgerJournal.recordTransaction(transaction);
+        return transaction;
+    }
+
+    @Override
+    public Transaction transferMoney(String fromAccountNumber, String toAccountNumber, Money amount, String quoteId) {
+        return transferMoney(prepareTransfer(fromAccountNumber, toAccountNumber, amount, quoteId));
+    }
+
+    @Override
+    public PreparedTransferDto prepareTransfer(String fromAccountNumber, String toAccountNumber, Money amount, String quoteId) {
+        if (fromAccountNumber.equals(toAccountNumber)) throw new TransferYourselfException();
+        String fromCurrency = ledgerEngine.getCurrency(fromAccountNumber);
+        String toCurrency = ledgerEngine.getCurrency(toAccountNumber);
+        Money debitAmount = TransactionServiceImpl.positive(amount.roundTo(fromCurrency));
+        Money convertedAmount;
+        if (quoteId != null)
+            convertedAmount = debitAmount.multiply(fxQuoteService.getQuote(quoteId, fromCurrency, toCurrency).getRate(), toCurrency);
+        else if (!fromCurrency.equals(toCurrency))
+            convertedAmount = currencyConversionService.convert(fromCurrency, toCurrency, debitAmount);
+        else convertedAmount = debitAmount;
+        return new PreparedTransferDto(fromAccountNumber, toAccountNumber, fromCurrency, debitAmount, TransactionServiceImpl.positive(convertedAmount));
+    }
+
+    @Override
+    public Transaction transferMoney(PreparedTransferDto transfer) {
+        Transaction transaction = TransactionServiceImpl.buildTransaction(transfer.getFromAccountNumber(), transfer.getToAccountNumber(),
+                TypeTransactionEnum.TRANSFER, transfer.getDebitAmount(), transfer.getFromCurrency());
+        ledgerEngine.transfer(transfer.getFromAccountNumber(), transfer.getToAccountNumber(), transfer.getDebitAmount(), transfer.getCreditAmount(), transaction);
+        return transaction;
+    }
+
+    @Override
+    public List<BatchTransferResultDto> transferMoneyBatch(List<TransferRequestDto> transfers) {
+        if (transfers.size() > batchTransferProperties.getMaxSize()) throw new BatchSizeExceededException();
+        List<BatchTransferResultDto> results = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRequestDto transfer = transfers.get(i);
+            BatchTransferResultDto result = new BatchTransferResultDto(i, BatchTransferStatusEnum.SUCCESS, null);
+            if (transfer.getFromAccount() == null || transfer.getToAccount() == null
+                    || transfer.getAmount() == null || transfer.getAmount().signum() <= 0) {
+                result.setStatus(BatchTransferStatusEnum.INVALID_REQUEST);
+            } else {
+                try {
+                    result.setTransaction(transferMoney(transfer.getFromAccount(), transfer.getToAccount(), transfer.getAmount(), null));
+                } catch (InvalidAmountException e) {
+                    result.setStatus(BatchTransferStatusEnum.INVALID_REQUEST);
+                } catch (TransferYourselfException e) {
+                    result.setStatus(BatchTransferStatusEnum.TRANSFER_YOURSELF);
+                } catch (AccountNotFoundException e) {
+                    result.setStatus(BatchTransferStatusEnum.ACCOUNT_NOT_FOUND);
+                } catch (InsufficientFundsException e) {
+                    result.setStatus(BatchTransferStatusEnum.INSUFFICIENT_FUNDS);
+                } catch (RuntimeException e) {
+                    log.error("Batch transfer failed. From: {}, to: {}, message: {}", transfer.getFromAccount(), transfer.getToAccount(), e.getMessage());
+                    result.setStatus(BatchTransferStatusEnum.FAILED);
+                }
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    @Override
+    public Transaction depositMoney(String toAccountNumber, Money amount) {
+        String currency = ledgerEngine.getCurrency(toAccountNumber);
+        Money depositAmount = TransactionServiceImpl.positive(amount.roundTo(currency));
+        Transaction transaction = TransactionServiceImpl.buildTransaction(null, toAccountNumber, TypeTransactionEnum.DEPOSIT, depositAmount, currency);
+        ledgerEngine.deposit(toAccountNumber, depositAmount, transaction);
+        return transaction;
+    }
+
+    @Override
+    public Transaction debitMoney(String fromAccountNumber, Money amount) {
+        String currency = ledgerEngine.getCurrency(fromAccountNumber);
+        Money debitAmount = TransactionServiceImpl.positive(amount.roundTo(currency));
+        Transaction transaction = TransactionServiceImpl.buildTransaction(fromAccountNumber, null, TypeTransactionEnum.DEBIT, debitAmount, currency);
+        ledgerEngine.debit(fromAccountNumber, debitAmount, transaction);
+        return transaction;
+    }
+}
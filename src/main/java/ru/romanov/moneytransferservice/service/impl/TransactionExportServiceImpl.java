@@ -0,0 +1,118 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.romanov.moneytransferservice.enums.ExportFormatEnum;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.TransactionRepository;
+import ru.romanov.moneytransferservice.service.TransactionExportService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Реализация сервиса потоковой выгрузки истории транзакций.
+ * <p>
+ * Транзакция базы данных открыта только на чтение: PostgreSQL использует серверный курсор
+ * с размером выборки из {@link TransactionRepository#streamByAccountNumber} лишь при выключенном autocommit.
+ * Каждая сущность отсоединяется от контекста персистентности сразу после записи, поэтому в памяти
+ * одновременно находится не больше одной пачки строк курсора.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class TransactionExportServiceImpl implements TransactionExportService {
+    private static final String CSV_HEADER = "id,transaction_date,type,from_account_number,to_account_number,amount,currency_code";
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAccountHistory(String accountNumber, ExportFormatEnum format, OutputStream outputStream) throws IOException {
+        long rows = 0;
+        try (Stream<Transaction> transactions = transactionRepository.streamByAccountNumber(accountNumber)) {
+            Iterator<Transaction> iterator = transactions.iterator();
+            switch (format) {
+                case NDJSON -> {
+                    try (SequenceWriter writer = objectMapper.writer()
+                            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                            .withRootValueSeparator("\n")
+                            .writeValues(outputStream)) {
+                        while (iterator.hasNext()) {
+                            checkInterrupted();
+                            Transaction transaction = iterator.next();
+                            writer.write(transaction);
+                            entityManager.detach(transaction);
+                            rows++;
+                        }
+                    }
+                    if (rows > 0) outputStream.write('\n');
+                }
+                case CSV -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                    writer.write(CSV_HEADER);
+                    writer.write('\n');
+                    while (iterator.hasNext()) {
+                        checkInterrupted();
+                        Transaction transaction = iterator.next();
+                        writeCsvRow(writer, transaction);
+                        entityManager.detach(transaction);
+                        rows++;
+                    }
+                    writer.flush();
+                }
+            }
+        }
+        outputStream.flush();
+        log.info("Transaction history exported. Account number: {}, format: {}, rows: {}", accountNumber, format, rows);
+    }
+
+    /**
+     * Останавливает выгрузку, если её поток прерван. Spring MVC прерывает поток асинхронной задачи
+     * по истечении её таймаута, но чтение курсора JDBC на прерывание не реагирует.
+     *
+     * @throws InterruptedIOException Если поток прерван.
+     */
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted())
+            throw new InterruptedIOException("Transaction history export interrupted");
+    }
+
+    /**
+     * Записывает транзакцию строкой CSV. Значения не содержат запятых и кавычек, поэтому не экранируются.
+     *
+     * @param writer      Поток записи.
+     * @param transaction Транзакция.
+     */
+    private static void writeCsvRow(Writer writer, Transaction transaction) throws IOException {
+        writer.write(String.valueOf(transaction.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getTransactionDate()));
+        writer.write(',');
+        writer.write(transaction.getType().name());
+        writer.write(',');
+        if (transaction.getFromAccountNumber() != null) writer.write(transaction.getFromAccountNumber());
+        writer.write(',');
+        if (transaction.getToAccountNumber() != null) writer.write(transaction.getToAccountNumber());
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getAmount()));
+        writer.write(',');
+        writer.write(transaction.getCurrencyCode());
+        writer.write('\n');
+    }
+}
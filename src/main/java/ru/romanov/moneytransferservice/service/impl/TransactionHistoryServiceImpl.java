@@ -0,0 +1,116 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.romanov.moneytransferservice.config.PaginationProperties;
+import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
+import ru.romanov.moneytransferservice.exception.InvalidCursorException;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.TransactionRepository;
+import ru.romanov.moneytransferservice.service.TransactionHistoryService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Реализация сервиса постраничного чтения истории транзакций счёта.
+ * <p>
+ * Пагинация выполняется по ключу {@code (transaction_date, id)}: курсор содержит дату и идентификатор
+ * последней транзакции страницы, поэтому стоимость чтения страницы не зависит от её номера.
+ */
+@Service
+@AllArgsConstructor
+public class TransactionHistoryServiceImpl implements TransactionHistoryService {
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final String SEPARATOR = "|";
+
+    private final TransactionRepository transactionRepository;
+    private final PaginationProperties paginationProperties;
+
+    @Override
+    public CursorPage<Transaction> getAccountHistory(String accountNumber,
+                                                     LocalDateTime from,
+                                                     LocalDateTime to,
+                                                     TypeTransactionEnum type,
+                                                     String after,
+                                                     Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        LocalDateTime afterDate = MIN_DATE;
+        long afterId = 0;
+        if (after != null) {
+            String[] cursor = decode(after);
+            afterDate = parseDate(cursor[0]);
+            afterId = parseId(cursor[1]);
+        }
+        List<Transaction> rows = transactionRepository.findHistoryPage(accountNumber,
+                from != null ? from : MIN_DATE,
+                to != null ? to : MAX_DATE,
+                type != null ? type.name() : null,
+                afterDate, afterId, pageSize + 1);
+        return CursorPage.of(rows, pageSize, TransactionHistoryServiceImpl::encode);
+    }
+
+    /**
+     * Формирует непрозрачный курсор по дате и идентификатору транзакции.
+     *
+     * @param transaction Последняя транзакция страницы.
+     * @return Курсор в Base64 (URL-safe).
+     */
+    static String encode(Transaction transaction) {
+        String cursor = transaction.getTransactionDate() + SEPARATOR + transaction.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор на дату и идентификатор.
+     *
+     * @param cursor Курсор.
+     * @return Массив из даты и идентификатора в строковом виде.
+     * @throws InvalidCursorException Если курсор повреждён.
+     */
+    private static String[] decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) throw new InvalidCursorException();
+            return new String[]{decoded.substring(0, separator), decoded.substring(separator + 1)};
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    /**
+     * Разбирает дату из курсора.
+     *
+     * @param date Дата в формате ISO.
+     * @return Дата транзакции.
+     * @throws InvalidCursorException Если дата повреждена.
+     */
+    private static LocalDateTime parseDate(String date) {
+        try {
+            return LocalDateTime.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    /**
+     * Разбирает идентификатор из курсора.
+     *
+     * @param id Идентификатор в строковом виде.
+     * @return Идентификатор транзакции.
+     * @throws InvalidCursorException Если идентификатор повреждён.
+     */
+    private static long parseId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException();
+        }
+    }
+}
@@ -1,71 +1,321 @@
 package ru.romanov.moneytransferservice.service.impl;
 
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.stereotype.Service;
-import ru.romanov.moneytransferservice.client.CurrencyConverterClient;
+import ru.romanov.moneytransferservice.config.BatchTransferProperties;
+import ru.romanov.moneytransferservice.enums.BatchTransferStatusEnum;
 import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
+import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
+import ru.romanov.moneytransferservice.exception.BatchSizeExceededException;
+import ru.romanov.moneytransferservice.exception.InvalidAmountException;
 import ru.romanov.moneytransferservice.exception.TransferYourselfException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.dto.BatchTransferResultDto;
+import ru.romanov.moneytransferservice.model.dto.PreparedTransferDto;
+import ru.romanov.moneytransferservice.model.dto.TransferRequestDto;
 import ru.romanov.moneytransferservice.model.entity.Account;
 import ru.romanov.moneytransferservice.model.entity.Transaction;
 import ru.romanov.moneytransferservice.repository.TransactionRepository;
 import ru.romanov.moneytransferservice.service.AccountService;
+import ru.romanov.moneytransferservice.service.CurrencyConversionService;
+import ru.romanov.moneytransferservice.service.FxQuoteService;
 import ru.romanov.moneytransferservice.service.TransactionService;
+import ru.romanov.moneytransferservice.service.journal.TransactionJournal;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Реализация сервиса для выполнения транзакций между счетами.
+ * Используется в режиме движка {@code jpa} (по умолчанию).
  */
 @Slf4j
 @Service
 @AllArgsConstructor
+@ConditionalOnProperty(name = "transfer.engine.mode", havingValue = "jpa", matchIfMissing = true)
 public class TransactionServiceImpl implements TransactionService {
     private TransactionRepository transactionRepository;
     private AccountService accountService;
-    private CurrencyConverterClient currencyConverterClient;
+    private CurrencyConversionService currencyConversionService;
+    private BatchTransferProperties batchTransferProperties;
+    private TransactionJournal transactionJournal;
+    private FxQuoteService fxQuoteService;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
 
     @Override
-    public Transaction createTransaction(String fromAccountNumber, String toAccountNumber, TypeTransactionEnum type, double amount, String currencyCode) {
-        Transaction transaction = new Transaction();
-        transaction.setTransactionDate(LocalDateTime.now());
-        if (fromAccountNumber != null) transaction.setFromAccountNumber(fromAccountNumber);
-        if (toAccountNumber != null) transaction.setToAccountNumber(toAccountNumber);
-        transaction.setType(type);
-        transaction.setAmount(amount);
-        transaction.setCurrencyCode(currencyCode);
-        return transactionRepository.save(transaction);
+    public Transaction createTransaction(String fromAccountNumber, String toAccountNumber, TypeTransactionEnum type, Money amount, String currencyCode) {
+        Transaction transaction = buildTransaction(fromAccountNumber, toAccountNumber, type, amount, currencyCode);
+        if (!transactionJournal.isEnabled()) return transactionRepository.save(transaction);
+        appendToJournal(List.of(transaction));
+        return transaction;
     }
 
     @Override
-    @Transactional
-    public Transaction transferMoney(String fromAccountNumber, String toAccountNumber, double amount) {
+    @Retryable(retryFor = PessimisticLockingFailureException.class,
+            // Внутри внешней транзакции повтор невозможен: она уже помечена на откат и повторяется вызывающим кодом
+            exceptionExpression = "!T(org.springframework.transaction.support.TransactionSynchronizationManager).isActualTransactionActive()",
+            maxAttemptsExpression = "${transfer.locking.max-attempts:3}",
+            backoff = @Backoff(delayExpression = "${transfer.locking.retry-delay:50}", multiplier = 2))
+    public Transaction transferMoney(String fromAccountNumber, String toAccountNumber, Money amount, String quoteId) {
+        // Курс определяется до начала транзакции, чтобы соединение с базой данных не удерживалось на время удалённого вызова
+        return transferMoney(prepareTransfer(fromAccountNumber, toAccountNumber, amount, quoteId));
+    }
+
+    @Override
+    public PreparedTransferDto prepareTransfer(String fromAccountNumber, String toAccountNumber, Money amount, String quoteId) {
         if (fromAccountNumber.equals(toAccountNumber)) throw new TransferYourselfException();
-        Account fromAccount = accountService.getAccountByAccountNumber(fromAccountNumber);
-        Account toAccount = accountService.getAccountByAccountNumber(toAccountNumber);
-        double convertedAmount;
-        if (!fromAccount.getCurrency().equals(toAccount.getCurrency()))
-            convertedAmount = currencyConverterClient.convert(fromAccount.getCurrency(), toAccount.getCurrency(), amount);
-        else convertedAmount = amount;
-        accountService.updateAccountBalance(fromAccountNumber, TypeTransactionEnum.DEBIT, amount);
-        accountService.updateAccountBalance(toAccountNumber, TypeTransactionEnum.DEPOSIT, convertedAmount);
-        return createTransaction(fromAccountNumber, toAccountNumber, TypeTransactionEnum.TRANSFER, amount, fromAccount.getCurrency());
+        String fromCurrency = accountService.getAccountInfo(fromAccountNumber).getCurrency();
+        String toCurrency = accountService.getAccountInfo(toAccountNumber).getCurrency();
+        Money debitAmount = positive(amount.roundTo(fromCurrency));
+        Money convertedAmount;
+        if (quoteId != null)
+            convertedAmount = debitAmount.multiply(fxQuoteService.getQuote(quoteId, fromCurrency, toCurrency).getRate(), toCurrency);
+        else if (!fromCurrency.equals(toCurrency))
+            convertedAmount = currencyConversionService.convert(fromCurrency, toCurrency, debitAmount);
+        else convertedAmount = debitAmount;
+        return new PreparedTransferDto(fromAccountNumber, toAccountNumber, fromCurrency, debitAmount, positive(convertedAmount));
+    }
+
+    @Override
+    @Retryable(retryFor = PessimisticLockingFailureException.class,
+            exceptionExpression = "!T(org.springframework.transaction.support.TransactionSynchronizationManager).isActualTransactionActive()",
+            maxAttemptsExpression = "${transfer.locking.max-attempts:3}",
+            backoff = @Backoff(delayExpression = "${transfer.locking.retry-delay:50}", multiplier = 2))
+    public Transaction transferMoney(PreparedTransferDto transfer) {
+        return transactionTemplate.execute(status -> {
+            accountService.lockAccounts(transfer.getFromAccountNumber(), transfer.getToAccountNumber());
+            accountService.updateAccountBalance(transfer.getFromAccountNumber(), TypeTransactionEnum.DEBIT, transfer.getDebitAmount());
+            accountService.updateAccountBalance(transfer.getToAccountNumber(), TypeTransactionEnum.DEPOSIT, transfer.getCreditAmount());
+            return createTransaction(transfer.getFromAccountNumber(), transfer.getToAccountNumber(), TypeTransactionEnum.TRANSFER,
+                    transfer.getDebitAmount(), transfer.getFromCurrency());
+        });
+    }
+
+    @Override
+    @Retryable(retryFor = PessimisticLockingFailureException.class,
+            exceptionExpression = "!T(org.springframework.transaction.support.TransactionSynchronizationManager).isActualTransactionActive()",
+            maxAttemptsExpression = "${transfer.locking.max-attempts:3}",
+            backoff = @Backoff(delayExpression = "${transfer.locking.retry-delay:50}", multiplier = 2))
+    public List<BatchTransferResultDto> transferMoneyBatch(List<TransferRequestDto> transfers) {
+        if (transfers.size() > batchTransferProperties.getMaxSize()) throw new BatchSizeExceededException();
+        Set<String> accountNumbers = new TreeSet<>();
+        for (TransferRequestDto transfer : transfers) {
+            if (transfer.getFromAccount() != null) accountNumbers.add(transfer.getFromAccount());
+            if (transfer.getToAccount() != null) accountNumbers.add(transfer.getToAccount());
+        }
+        // Курсы определяются до блокировки счетов, чтобы медленный или недоступный сервис конвертации
+        // не удерживал блокировки FOR UPDATE; под блокировками выполняется только арифметика
+        Map<CurrencyPair, Double> rates = resolveRates(transfers);
+
+        return transactionTemplate.execute(status -> {
+            Map<String, Account> accounts = accountService.getAccountsForUpdate(accountNumbers);
+            List<BatchTransferResultDto> results = new ArrayList<>(transfers.size());
+            List<Transaction> transactions = new ArrayList<>();
+            for (int i = 0; i < transfers.size(); i++) {
+                TransferRequestDto transfer = transfers.get(i);
+                BatchTransferResultDto result = new BatchTransferResultDto(i, applyTransfer(transfer, accounts, rates), null);
+                if (result.getStatus() == BatchTransferStatusEnum.SUCCESS) {
+                    String currency = accounts.get(transfer.getFromAccount()).getCurrency();
+                    Transaction transaction = buildTransaction(transfer.getFromAccount(), transfer.getToAccount(), TypeTransactionEnum.TRANSFER,
+                            transfer.getAmount().roundTo(currency), currency);
+                    result.setTransaction(transaction);
+                    transactions.add(transaction);
+                }
+                results.add(result);
+            }
+            if (transactionJournal.isEnabled()) appendToJournal(transactions);
+            else transactionRepository.saveAll(transactions);
+            log.info("Batch transfer applied. Requested: {}, succeeded: {}, accounts: {}", transfers.size(), transactions.size(), accounts.size());
+            return results;
+        });
     }
 
     @Override
     @Transactional
-    public Transaction depositMoney(String toAccountNumber, double amount) {
-        Account toAccount = accountService.getAccountByAccountNumber(toAccountNumber);
-        accountService.updateAccountBalance(toAccountNumber, TypeTransactionEnum.DEPOSIT, amount);
-        return createTransaction(null, toAccountNumber, TypeTransactionEnum.DEPOSIT, amount, toAccount.getCurrency());
+    public Transaction depositMoney(String toAccountNumber, Money amount) {
+        String currency = accountService.getAccountInfo(toAccountNumber).getCurrency();
+        Money depositAmount = positive(amount.roundTo(currency));
+        accountService.updateAccountBalance(toAccountNumber, TypeTransactionEnum.DEPOSIT, depositAmount);
+        return createTransaction(null, toAccountNumber, TypeTransactionEnum.DEPOSIT, depositAmount, currency);
     }
 
     @Override
     @Transactional
-    public Transaction debitMoney(String fromAccountNumber, double amount) {
-        Account fromAccount = accountService.getAccountByAccountNumber(fromAccountNumber);
-        accountService.updateAccountBalance(fromAccountNumber, TypeTransactionEnum.DEBIT, amount);
-        return createTransaction(fromAccountNumber, null, TypeTransactionEnum.DEBIT, amount, fromAccount.getCurrency());
+    public Transaction debitMoney(String fromAccountNumber, Money amount) {
+        String currency = accountService.getAccountInfo(fromAccountNumber).getCurrency();
+        Money debitAmount = positive(amount.roundTo(currency));
+        accountService.updateAccountBalance(fromAccountNumber, TypeTransactionEnum.DEBIT, debitAmount);
+        return createTransaction(fromAccountNumber, null, TypeTransactionEnum.DEBIT, debitAmount, currency);
+    }
+
+    /**
+     * Определяет курсы всех различных валютных пар пакета по сведениям о счетах без блокировки.
+     * Пары, курс которых получить не удалось, в результат не попадают.
+     *
+     * @param transfers Переводы пакета.
+     * @return Курсы валютных пар.
+     */
+    private Map<CurrencyPair, Double> resolveRates(List<TransferRequestDto> transfers) {
+        Map<String, String> currencies = new HashMap<>();
+        Map<CurrencyPair, Double> rates = new HashMap<>();
+        Set<CurrencyPair> failed = new HashSet<>();
+        for (TransferRequestDto transfer : transfers) {
+            if (transfer.getFromAccount() == null || transfer.getToAccount() == null) continue;
+            String fromCurrency = currencyOf(transfer.getFromAccount(), currencies);
+            String toCurrency = currencyOf(transfer.getToAccount(), currencies);
+            if (fromCurrency == null || toCurrency == null || fromCurrency.equals(toCurrency)) continue;
+            CurrencyPair pair = new CurrencyPair(fromCurrency, toCurrency);
+            if (rates.containsKey(pair) || failed.contains(pair)) continue;
+            try {
+                rates.put(pair, currencyConversionService.getRate(fromCurrency, toCurrency));
+            } catch (RuntimeException e) {
+                log.error("Batch transfer rate unavailable. Pair: {}/{}, message: {}", fromCurrency, toCurrency, e.getMessage());
+                failed.add(pair);
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * Возвращает валюту счёта из кэша сведений о счетах.
+     *
+     * @param accountNumber Номер счёта.
+     * @param currencies    Уже определённые валюты счетов пакета.
+     * @return Код валюты или {@code null}, если счёт не найден.
+     */
+    private String currencyOf(String accountNumber, Map<String, String> currencies) {
+        return currencies.computeIfAbsent(accountNumber, number -> {
+            try {
+                return accountService.getAccountInfo(number).getCurrency();
+            } catch (AccountNotFoundException e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Применяет один перевод пакета к заблокированным счетам в памяти.
+     * Изменённые балансы записываются в базу данных при завершении транзакции.
+     *
+     * @param transfer Перевод.
+     * @param accounts Заблокированные счета, где ключом является номер счёта.
+     * @param rates    Курсы валютных пар, определённые до блокировки счетов.
+     * @return Результат применения перевода.
+     */
+    private BatchTransferStatusEnum applyTransfer(TransferRequestDto transfer, Map<String, Account> accounts, Map<CurrencyPair, Double> rates) {
+        if (transfer.getFromAccount() == null || transfer.getToAccount() == null
+                || transfer.getAmount() == null || transfer.getAmount().signum() <= 0)
+            return BatchTransferStatusEnum.INVALID_REQUEST;
+        if (transfer.getFromAccount().equals(transfer.getToAccount())) return BatchTransferStatusEnum.TRANSFER_YOURSELF;
+        Account fromAccount = accounts.get(transfer.getFromAccount());
+        Account toAccount = accounts.get(transfer.getToAccount());
+        if (fromAccount == null || toAccount == null) return BatchTransferStatusEnum.ACCOUNT_NOT_FOUND;
+        Money amount = transfer.getAmount().roundTo(fromAccount.getCurrency());
+        if (amount.signum() <= 0) return BatchTransferStatusEnum.INVALID_REQUEST;
+        if (fromAccount.getBalance().compareTo(amount) < 0) return BatchTransferStatusEnum.INSUFFICIENT_FUNDS;
+        Money convertedAmount;
+        if (!fromAccount.getCurrency().equals(toAccount.getCurrency())) {
+            Double rate = rates.get(new CurrencyPair(fromAccount.getCurrency(), toAccount.getCurrency()));
+            if (rate == null) return BatchTransferStatusEnum.FAILED;
+            convertedAmount = amount.multiply(rate, toAccount.getCurrency());
+        } else convertedAmount = amount;
+        if (convertedAmount.signum() <= 0) return BatchTransferStatusEnum.INVALID_REQUEST;
+        fromAccount.setBalance(fromAccount.getBalance().minus(amount));
+        toAccount.setBalance(toAccount.getBalance().plus(convertedAmount));
+        return BatchTransferStatusEnum.SUCCESS;
+    }
+
+    /**
+     * Записывает транзакции в журнал. Внутри транзакции базы данных запись выполняется
+     * непосредственно перед её фиксацией и после принудительной отправки изменений балансов в базу данных:
+     * {@code beforeCommit} вызывается до того, как Hibernate сам выполнит {@code flush}, а ошибки отложенных
+     * {@code UPDATE} (например, пакета переводов) должны откатывать транзакцию до записи в журнал.
+     * Поэтому откат до фиксации (ошибка перевода или записи балансов, откат вызывающего кода)
+     * не оставляет записей в журнале. Если же сама фиксация не удалась после записи, транзакции остаются
+     * в журнале без изменения балансов: такие записи выводятся в журнал приложения для ручной сверки.
+     *
+     * @param transactions Транзакции.
+     */
+    private void appendToJournal(List<Transaction> transactions) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionJournal.append(transactions);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean appended;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                entityManager.flush();
+                transactionJournal.append(transactions);
+                appended = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (appended && status != STATUS_COMMITTED)
+                    log.error("Journaled transactions without committed balance changes, reconciliation required: {}", transactions);
+            }
+        });
+    }
+
+    /**
+     * Проверяет, что сумма, округлённая до масштаба валюты счёта, положительна.
+     * Например, {@code 0.4} в счёте в японских иенах округляется до нуля.
+     *
+     * @param amount Округлённая сумма.
+     * @return Та же сумма.
+     * @throws InvalidAmountException Если сумма не положительна.
+     */
+    static Money positive(Money amount) {
+        if (amount.signum() <= 0) throw new InvalidAmountException();
+        return amount;
+    }
+
+    /**
+     * Создает объект транзакции без сохранения в базу данных.
+     *
+     * @param fromAccountNumber Номер счёта отправителя (может быть {@code null}).
+     * @param toAccountNumber   Номер счёта получателя (может быть {@code null}).
+     * @param type              Тип транзакции.
+     * @param amount            Сумма транзакции.
+     * @param currencyCode      Код валюты.
+     * @return Новая транзакция.
+     */
+    static Transaction buildTransaction(String fromAccountNumber, String toAccountNumber, TypeTransactionEnum type, Money amount, String currencyCode) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionDate(LocalDateTime.now());
+        if (fromAccountNumber != null) transaction.setFromAccountNumber(fromAccountNumber);
+        if (toAccountNumber != null) transaction.setToAccountNumber(toAccountNumber);
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        transaction.setCurrencyCode(currencyCode);
+        return transaction;
+    }
+
+    /**
+     * Валютная пара перевода.
+     *
+     * @param fromCurrency Валюта счёта отправителя.
+     * @param toCurrency   Валюта счёта получателя.
+     */
+    private record CurrencyPair(String fromCurrency, String toCurrency) {
     }
 }
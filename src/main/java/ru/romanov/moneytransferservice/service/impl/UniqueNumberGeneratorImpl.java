@@ -0,0 +1,144 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.romanov.moneytransferservice.config.UniqueNumberProperties;
+import ru.romanov.moneytransferservice.service.UniqueNumberGenerator;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Реализация генератора уникальных номеров без обращений к базе данных.
+ * <p>
+ * Номер уникален по построению и состоит из частей в base36:
+ * <ul>
+ *     <li>13 символов — монотонная метка экземпляра: время в миллисекундах, сдвинутое на 16 бит, плюс счётчик внутри миллисекунды;</li>
+ *     <li>4 символа — идентификатор экземпляра сервиса;</li>
+ *     <li>6 символов — случайная часть, чтобы соседние номера нельзя было угадать;</li>
+ *     <li>1 символ — контрольный (Luhn mod 36).</li>
+ * </ul>
+ * Метка выдаётся через CAS без блокировок. Если за миллисекунду запрошено больше 65536 номеров,
+ * метка заимствует следующие миллисекунды и остаётся строго возрастающей.
+ * Уникальность между экземплярами обеспечивается различными {@code transfer.numbers.node-id},
+ * а уникальное ограничение в базе данных остаётся последней линией защиты.
+ */
+@Slf4j
+@Service
+public class UniqueNumberGeneratorImpl implements UniqueNumberGenerator {
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final int RADIX = ALPHABET.length;
+    private static final int LENGTH = 24;
+    private static final int STAMP_LENGTH = 13;
+    private static final int NODE_LENGTH = 4;
+    private static final int RANDOM_LENGTH = 6;
+    private static final long RANDOM_BOUND = 2_176_782_336L; // 36^6
+    private static final int MAX_NODE_ID = 0xFFFF;
+
+    private final int nodeId;
+    private final AtomicLong lastStamp = new AtomicLong();
+
+    /**
+     * Конструктор генератора.
+     *
+     * @param uniqueNumberProperties Настройки генерации номеров.
+     */
+    public UniqueNumberGeneratorImpl(UniqueNumberProperties uniqueNumberProperties) {
+        Integer configured = uniqueNumberProperties.getNodeId();
+        if (configured != null && (configured < 0 || configured > MAX_NODE_ID))
+            throw new IllegalArgumentException("transfer.numbers.node-id must be between 0 and " + MAX_NODE_ID);
+        this.nodeId = configured != null ? configured : ThreadLocalRandom.current().nextInt(MAX_NODE_ID + 1);
+        if (configured == null) log.warn("transfer.numbers.node-id is not set, using random node id {}", nodeId);
+    }
+
+    @Override
+    public String generateAccountNumber() {
+        return generate(4);
+    }
+
+    @Override
+    public String generateUserNumber() {
+        return generate(3);
+    }
+
+    /**
+     * Формирует номер и разбивает его на блоки.
+     *
+     * @param blocks Количество блоков, на которое делится длина номера.
+     * @return Номер с разделителями.
+     */
+    private String generate(int blocks) {
+        char[] digits = new char[LENGTH];
+        encode(digits, 0, STAMP_LENGTH, nextStamp());
+        encode(digits, STAMP_LENGTH, NODE_LENGTH, nodeId);
+        encode(digits, STAMP_LENGTH + NODE_LENGTH, RANDOM_LENGTH, ThreadLocalRandom.current().nextLong(RANDOM_BOUND));
+        digits[LENGTH - 1] = checkDigit(digits, LENGTH - 1);
+
+        int blockLength = LENGTH / blocks;
+        char[] result = new char[LENGTH + blocks - 1];
+        for (int i = 0, j = 0; i < LENGTH; i++) {
+            if (i > 0 && i % blockLength == 0) result[j++] = '-';
+            result[j++] = digits[i];
+        }
+        return new String(result);
+    }
+
+    /**
+     * Возвращает следующую метку экземпляра, строго большую предыдущей.
+     *
+     * @return Метка.
+     */
+    private long nextStamp() {
+        long floor = System.currentTimeMillis() << 16;
+        return lastStamp.updateAndGet(last -> Math.max(last + 1, floor));
+    }
+
+    /**
+     * Записывает беззнаковое значение в base36 с ведущими нулями.
+     *
+     * @param digits Буфер символов.
+     * @param offset Позиция начала.
+     * @param length Количество символов.
+     * @param value  Значение (интерпретируется как беззнаковое).
+     */
+    private static void encode(char[] digits, int offset, int length, long value) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            digits[i] = ALPHABET[(int) Long.remainderUnsigned(value, RADIX)];
+            value = Long.divideUnsigned(value, RADIX);
+        }
+    }
+
+    /**
+     * Вычисляет контрольный символ по алгоритму Луна для основания 36.
+     *
+     * @param digits Символы номера.
+     * @param length Количество символов, участвующих в расчёте.
+     * @return Контрольный символ.
+     */
+    private static char checkDigit(char[] digits, int length) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = length - 1; i >= 0; i--) {
+            int value = digit(digits[i]);
+            if (doubled) {
+                value *= 2;
+                value = value / RADIX + value % RADIX;
+            }
+            sum += value;
+            doubled = !doubled;
+        }
+        return ALPHABET[(RADIX - sum % RADIX) % RADIX];
+    }
+
+    /**
+     * Возвращает значение символа base36.
+     *
+     * @param c Символ.
+     * @return Значение символа или {@code -1}, если символ недопустим.
+     */
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 10;
+        return -1;
+    }
+}
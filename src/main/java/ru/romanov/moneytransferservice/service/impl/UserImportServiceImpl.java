@@ -0,0 +1,283 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.romanov.moneytransferservice.config.UserImportProperties;
+import ru.romanov.moneytransferservice.enums.ImportFormatEnum;
+import ru.romanov.moneytransferservice.enums.ImportRowStatusEnum;
+import ru.romanov.moneytransferservice.enums.UserFieldEnum;
+import ru.romanov.moneytransferservice.model.dto.UserDto;
+import ru.romanov.moneytransferservice.model.dto.UserImportResultDto;
+import ru.romanov.moneytransferservice.model.entity.User;
+import ru.romanov.moneytransferservice.repository.UserRepository;
+import ru.romanov.moneytransferservice.service.UniqueNumberGenerator;
+import ru.romanov.moneytransferservice.service.UserImportService;
+import ru.romanov.moneytransferservice.service.ValidationService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Реализация сервиса потокового импорта пользователей.
+ * <p>
+ * Входные данные разбираются потоковым парсером Jackson по одной строке. Строки накапливаются в пачку
+ * размера {@link UserImportProperties#getChunkSize()}, которая проверяется параллельно в отдельном пуле потоков
+ * и сохраняется в одной транзакции: при {@code hibernate.jdbc.batch_size} вставки отправляются в базу данных пакетами,
+ * а идентификаторы выделяются из последовательности блоками. После сохранения контекст персистентности очищается,
+ * поэтому в памяти одновременно находится не больше одной пачки.
+ */
+@Slf4j
+@Service
+public class UserImportServiceImpl implements UserImportService {
+    private static final String INVALID_USER_MESSAGE = "User data is invalid";
+    private static final String SAVE_FAILED_MESSAGE = "Failed to save users";
+
+    private final UserRepository userRepository;
+    private final ValidationService validationService;
+    private final UniqueNumberGenerator uniqueNumberGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final UserImportProperties userImportProperties;
+    private final CsvMapper csvMapper;
+    private final ForkJoinPool validationPool;
+
+    /**
+     * Конструктор сервиса. Создаёт пул потоков для проверки строк.
+     *
+     * @param userRepository        Репозиторий пользователей.
+     * @param validationService     Сервис валидации данных пользователей.
+     * @param uniqueNumberGenerator Генератор уникальных номеров.
+     * @param transactionTemplate   Шаблон транзакций базы данных.
+     * @param entityManager         Менеджер сущностей.
+     * @param objectMapper          Преобразователь JSON.
+     * @param userImportProperties  Настройки импорта.
+     */
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 ValidationService validationService,
+                                 UniqueNumberGenerator uniqueNumberGenerator,
+                                 TransactionTemplate transactionTemplate,
+                                 EntityManager entityManager,
+                                 ObjectMapper objectMapper,
+                                 UserImportProperties userImportProperties) {
+        this.userRepository = userRepository;
+        this.validationService = validationService;
+        this.uniqueNumberGenerator = uniqueNumberGenerator;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.userImportProperties = userImportProperties;
+        this.csvMapper = CsvMapper.builder().addModule(new JavaTimeModule()).build();
+        this.validationPool = new ForkJoinPool(userImportProperties.resolveParallelism());
+    }
+
+    @Override
+    public long importUsers(ImportFormatEnum format, InputStream inputStream, OutputStream outputStream) throws IOException {
+        long rows = 0;
+        long created = 0;
+        List<ImportRow> chunk = new ArrayList<>(userImportProperties.getChunkSize());
+        try (MappingIterator<UserDto> iterator = openReader(format, inputStream);
+             SequenceWriter writer = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(outputStream)) {
+            boolean hasNext = true;
+            while (hasNext) {
+                try {
+                    hasNext = iterator.hasNextValue();
+                } catch (JsonProcessingException e) {
+                    // Нарушена структура потока: дальнейшие строки не могут быть разобраны
+                    chunk.add(new ImportRow(++rows, null, e.getOriginalMessage()));
+                    hasNext = false;
+                }
+                if (hasNext) {
+                    rows++;
+                    try {
+                        chunk.add(new ImportRow(rows, iterator.nextValue(), null));
+                    } catch (JsonProcessingException e) {
+                        // После ошибки разбора строки итератор переходит к следующему значению верхнего уровня
+                        chunk.add(new ImportRow(rows, null, e.getOriginalMessage()));
+                    }
+                }
+                if (chunk.size() == userImportProperties.getChunkSize() || (!hasNext && !chunk.isEmpty())) {
+                    created += processChunk(chunk, writer);
+                    chunk.clear();
+                }
+            }
+        }
+        if (rows > 0) outputStream.write('\n');
+        outputStream.flush();
+        log.info("Users imported. Format: {}, rows: {}, created: {}", format, rows, created);
+        return created;
+    }
+
+    /**
+     * Останавливает пул потоков проверки строк.
+     */
+    @PreDestroy
+    public void shutdown() {
+        validationPool.shutdown();
+    }
+
+    /**
+     * Создаёт итератор по строкам входных данных поверх потокового парсера.
+     *
+     * @param format      Формат входных данных.
+     * @param inputStream Поток входных данных.
+     * @return Итератор по пользователям.
+     * @throws IOException Если чтение потока не удалось.
+     */
+    private MappingIterator<UserDto> openReader(ImportFormatEnum format, InputStream inputStream) throws IOException {
+        return switch (format) {
+            case NDJSON -> objectMapper.readerFor(UserDto.class)
+                    .without(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+                    .readValues(inputStream);
+            case CSV -> csvMapper.readerFor(UserDto.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .without(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+                    .readValues(inputStream);
+        };
+    }
+
+    /**
+     * Проверяет пачку строк, сохраняет прошедших проверку пользователей и записывает результаты в выходной поток.
+     *
+     * @param chunk  Пачка строк.
+     * @param writer Поток записи результатов.
+     * @return Количество созданных пользователей.
+     * @throws IOException Если запись результатов не удалась.
+     */
+    private long processChunk(List<ImportRow> chunk, SequenceWriter writer) throws IOException {
+        List<Set<UserFieldEnum>> errors = validationPool.submit(() -> chunk.parallelStream().map(this::validate).toList()).join();
+        List<User> users = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (isValid(chunk.get(i), errors.get(i))) users.add(buildUser(chunk.get(i).user()));
+        }
+        Set<User> failed = save(users);
+        int userIndex = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportRow row = chunk.get(i);
+            if (row.error() != null) {
+                writer.write(new UserImportResultDto(row.row(), ImportRowStatusEnum.INVALID, null, row.error(), null));
+                continue;
+            }
+            if (!errors.get(i).isEmpty()) {
+                writer.write(new UserImportResultDto(row.row(), ImportRowStatusEnum.INVALID, null, INVALID_USER_MESSAGE, errors.get(i)));
+                continue;
+            }
+            User user = users.get(userIndex++);
+            if (failed.contains(user))
+                writer.write(new UserImportResultDto(row.row(), ImportRowStatusEnum.FAILED, null, SAVE_FAILED_MESSAGE, null));
+            else
+                writer.write(new UserImportResultDto(row.row(), ImportRowStatusEnum.CREATED, user.getUniqueNumber(), null, null));
+        }
+        writer.flush();
+        return users.size() - failed.size();
+    }
+
+    /**
+     * Сохраняет пользователей в одной транзакции и очищает контекст персистентности.
+     * <p>
+     * Если транзакция откатилась (например, из-за нарушения уникальности одной строки), пачка делится пополам
+     * и каждая половина сохраняется заново, пока сбойные строки не будут найдены по одной. Так одна плохая строка
+     * стоит {@code O(log n)} дополнительных транзакций и не помечает сбойной всю пачку.
+     *
+     * @param users Пользователи.
+     * @return Пользователи, которых не удалось сохранить.
+     */
+    private Set<User> save(List<User> users) {
+        if (users.isEmpty()) return Set.of();
+        try {
+            transactionTemplate.execute(status -> {
+                List<User> saved = userRepository.saveAll(users);
+                entityManager.flush();
+                entityManager.clear();
+                return saved;
+            });
+            return Set.of();
+        } catch (RuntimeException e) {
+            // Откат не сбрасывает выданные при persist идентификаторы, без сброса повторный saveAll выполнит merge
+            users.forEach(user -> user.setId(0));
+            if (users.size() == 1) {
+                log.error("User import row failed. Unique number: {}, message: {}", users.get(0).getUniqueNumber(), e.getMessage());
+                return Set.of(users.get(0));
+            }
+            log.warn("User import chunk failed, retrying by halves. Users: {}, message: {}", users.size(), e.getMessage());
+            int middle = users.size() / 2;
+            Set<User> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+            failed.addAll(save(users.subList(0, middle)));
+            failed.addAll(save(users.subList(middle, users.size())));
+            return failed;
+        }
+    }
+
+    /**
+     * Проверяет строку входных данных.
+     *
+     * @param row Строка.
+     * @return Невалидные поля пользователя или пустое множество, если пользователь валиден либо строка не разобрана.
+     */
+    private Set<UserFieldEnum> validate(ImportRow row) {
+        if (row.error() != null) return Set.of();
+        if (row.user().getPatronymicName() == null) row.user().setPatronymicName("");
+        return validationService.validate(row.user());
+    }
+
+    /**
+     * Проверяет, может ли строка быть сохранена.
+     *
+     * @param row    Строка.
+     * @param errors Невалидные поля пользователя.
+     * @return {@code true}, если строка разобрана и пользователь валиден, иначе {@code false}.
+     */
+    private static boolean isValid(ImportRow row, Set<UserFieldEnum> errors) {
+        return row.error() == null && errors.isEmpty();
+    }
+
+    /**
+     * Создаёт сущность пользователя без сохранения в базу данных.
+     *
+     * @param userDto Данные пользователя.
+     * @return Новый пользователь.
+     */
+    private User buildUser(UserDto userDto) {
+        User user = new User();
+        user.setUniqueNumber(uniqueNumberGenerator.generateUserNumber());
+        user.setLastName(userDto.getLastName());
+        user.setFirstName(userDto.getFirstName());
+        user.setPatronymicName(userDto.getPatronymicName());
+        user.setBirthDate(userDto.getBirthDate());
+        user.setEmail(userDto.getEmail());
+        user.setPhoneNumber(userDto.getPhoneNumber());
+        return user;
+    }
+
+    /**
+     * Строка входных данных.
+     *
+     * @param row   Номер строки.
+     * @param user  Данные пользователя (если строка разобрана).
+     * @param error Ошибка разбора строки.
+     */
+    private record ImportRow(long row, UserDto user, String error) {
+    }
+}
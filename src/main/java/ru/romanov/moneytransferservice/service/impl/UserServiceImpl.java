@@ -2,17 +2,23 @@ package ru.romanov.moneytransferservice.service.impl;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.romanov.moneytransferservice.config.PaginationProperties;
+import ru.romanov.moneytransferservice.config.UserDeletionProperties;
+import ru.romanov.moneytransferservice.exception.BatchSizeExceededException;
 import ru.romanov.moneytransferservice.exception.UserNotFoundException;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
 import ru.romanov.moneytransferservice.model.entity.User;
-import ru.romanov.moneytransferservice.repository.AccountRepository;
 import ru.romanov.moneytransferservice.repository.UserRepository;
 import ru.romanov.moneytransferservice.service.AccountService;
+import ru.romanov.moneytransferservice.service.UniqueNumberGenerator;
 import ru.romanov.moneytransferservice.service.UserService;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Реализация сервиса для работы с пользователями.
@@ -22,13 +28,15 @@ import java.util.UUID;
 @AllArgsConstructor
 public class UserServiceImpl implements UserService {
     private UserRepository userRepository;
-    private AccountRepository accountRepository;
     private AccountService accountService;
+    private UniqueNumberGenerator uniqueNumberGenerator;
+    private PaginationProperties paginationProperties;
+    private UserDeletionProperties userDeletionProperties;
 
     @Override
     public User createUser(String lastName, String firstName, String patronymicName, LocalDate birthDate, String email, String phoneNumber) {
         User user = new User();
-        user.setUniqueNumber(generateUniqueNumber());
+        user.setUniqueNumber(uniqueNumberGenerator.generateUserNumber());
         user.setFirstName(firstName);
         user.setLastName(lastName);
         user.setPatronymicName(patronymicName);
@@ -39,8 +47,10 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    public CursorPage<User> getUsers(Long after, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(after != null ? after : 0, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, user -> String.valueOf(user.getId()));
     }
 
     @Override
@@ -59,26 +69,22 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public void deleteUser(long id) {
-        accountRepository.findByOwnerUniqueNumber(getUserById(id).getUniqueNumber()).forEach(account -> accountService.deleteAccount(account.getAccountNumber()));
-        userRepository.deleteById(id);
+        if (deleteUsers(List.of(id)) == 0) throw new UserNotFoundException();
     }
 
-    /**
-     * Генерирует уникальный номер пользователя.
-     *
-     * @return Уникальный номер пользователя.
-     */
-    private String generateUniqueNumber() {
-        int blocks = 3;
-        int lengthBlock = 8;
-        StringBuilder uniqueNumber;
-        do {
-            uniqueNumber = new StringBuilder();
-            for (int i = 0; i < blocks; i++) {
-                uniqueNumber.append(UUID.randomUUID().toString().toUpperCase().replace("-", "/"), 0, lengthBlock).append((i == blocks - 1 ? "" : "-"));
-            }
-        } while (userRepository.existsByUniqueNumber(uniqueNumber.toString()));
-        return uniqueNumber.toString();
+    @Override
+    @Transactional
+    public int deleteUsers(Collection<Long> ids) {
+        if (ids.size() > userDeletionProperties.getMaxBatchSize()) throw new BatchSizeExceededException();
+        List<String> uniqueNumbers = userRepository.findUniqueNumbersByIdIn(ids);
+        if (uniqueNumbers.isEmpty()) return 0;
+        int accounts = accountService.closeAccounts(uniqueNumbers);
+        // Удаление через сессию вытесняет из кэша второго уровня только удалённых пользователей,
+        // тогда как массовый DELETE очищает весь регион; операторы DELETE объединяются в пакеты JDBC
+        userRepository.deleteAll(userRepository.findAllById(ids));
+        log.info("Users deleted: {}, accounts closed: {}", uniqueNumbers.size(), accounts);
+        return uniqueNumbers.size();
     }
 }
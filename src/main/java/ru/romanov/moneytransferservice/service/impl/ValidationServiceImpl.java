@@ -3,123 +3,215 @@ package ru.romanov.moneytransferservice.service.impl;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.validator.routines.EmailValidator;
 import org.springframework.stereotype.Service;
+import ru.romanov.moneytransferservice.enums.UserFieldEnum;
 import ru.romanov.moneytransferservice.model.dto.UserDto;
+import ru.romanov.moneytransferservice.model.dto.UserValidationResultDto;
 import ru.romanov.moneytransferservice.model.entity.User;
 import ru.romanov.moneytransferservice.service.ValidationService;
 
-import java.util.regex.Pattern;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Реализация сервиса валидации данных пользователей.
+ * <p>
+ * Имена, даты и номера телефонов проверяются посимвольным разбором без регулярных выражений и создания строк.
+ * Невалидные поля собираются в битовую маску по порядковым номерам {@link UserFieldEnum}, которая преобразуется
+ * в множество только для невалидного пользователя, поэтому проверки имён, дат и телефонов не выделяют память.
+ * Email проверяется {@link EmailValidator} из commons-validator, чтобы сохранить его правила (в том числе список доменов).
+ * Поддерживаемые форматы дат: {@code dd.MM.yyyy}, {@code dd-MM-yyyy}, {@code dd/MM/yyyy},
+ * {@code yyyy.MM.dd}, {@code yyyy-MM-dd}, {@code yyyy/MM/dd}.
  */
 @Slf4j
 @Service
 public class ValidationServiceImpl implements ValidationService {
-    private static final String REGEX_FOR_STRING_VALIDATION = "^[а-яА-Яa-zA-Z ]+$";
-    private static final String REGEX_FOR_PHONE = "(\\+7|8)\\d{10}";
-    private static final String[] DATE_PATTERNS = {
-            "^(\\d{2})\\.(\\d{2})\\.(\\d{4})$", // dd.MM.yyyy
-            "^(\\d{2})-(\\d{2})-(\\d{4})$",     // dd-MM-yyyy
-            "^(\\d{2})/(\\d{2})/(\\d{4})$",     // dd/MM/yyyy
-            "^(\\d{4})\\.(\\d{2})\\.(\\d{2})$", // yyyy.MM.dd
-            "^(\\d{4})-(\\d{2})-(\\d{2})$",     // yyyy-MM-dd
-            "^(\\d{4})/(\\d{2})/(\\d{2})$"      // yyyy/MM/dd
-    };
+    private static final EmailValidator EMAIL_VALIDATOR = EmailValidator.getInstance();
+    private static final UserFieldEnum[] FIELDS = UserFieldEnum.values();
+    private static final int DATE_LENGTH = 10;
+    private static final int MAX_YEAR = 9999;
+    // Длины колонок таблицы users
+    private static final int MAX_NAME_LENGTH = 50;
+    private static final int MAX_EMAIL_LENGTH = 255;
 
     @Override
     public boolean isUserValidated(User user) {
-        return isUserValidated(user.getLastName(), user.getFirstName(), user.getPatronymicName(), user.getBirthDate().toString(), user.getEmail(), user.getPhoneNumber());
+        return isValid(check(user.getLastName(), user.getFirstName(), user.getPatronymicName(), user.getBirthDate(), user.getEmail(), user.getPhoneNumber()));
     }
 
     @Override
     public boolean isUserDtoValidated(UserDto userDto) {
-        return isUserValidated(userDto.getLastName(), userDto.getFirstName(), userDto.getPatronymicName(), userDto.getBirthDate().toString(), userDto.getEmail(), userDto.getPhoneNumber());
+        return isValid(check(userDto));
     }
 
     @Override
-    public boolean isDateValidated(String date) {
-        for (String pattern : DATE_PATTERNS) {
-            Pattern regex = Pattern.compile(pattern);
-            var matcher = regex.matcher(date);
-            if (matcher.matches()) {
-                int year = Integer.parseInt(matcher.group(matcher.group(1).length() == 4 ? 1 : 3));
-                int month = Integer.parseInt(matcher.group(2));
-                int day = Integer.parseInt(matcher.group(matcher.group(1).length() == 4 ? 3 : 1));
-                if (isValidDayMonthYear(day, month, year)) return true;
-            }
+    public Set<UserFieldEnum> validate(UserDto userDto) {
+        return toFields(check(userDto));
+    }
+
+    @Override
+    public List<UserValidationResultDto> validateAll(List<UserDto> userDtos) {
+        List<UserValidationResultDto> results = new ArrayList<>();
+        for (int i = 0; i < userDtos.size(); i++) {
+            int errors = check(userDtos.get(i));
+            if (errors != 0) results.add(new UserValidationResultDto(i, toFields(errors)));
         }
+        return results;
+    }
+
+    @Override
+    public boolean isDateValidated(String date) {
+        if (date == null || date.length() != DATE_LENGTH) return false;
+        if (isSeparator(date.charAt(2)) && date.charAt(5) == date.charAt(2))
+            return isDate(parseDigits(date, 6, 4), parseDigits(date, 3, 2), parseDigits(date, 0, 2));
+        if (isSeparator(date.charAt(4)) && date.charAt(7) == date.charAt(4))
+            return isDate(parseDigits(date, 0, 4), parseDigits(date, 5, 2), parseDigits(date, 8, 2));
         return false;
     }
 
     @Override
     public boolean isEmailValidated(String email) {
-        return EmailValidator.getInstance().isValid(email);
+        return EMAIL_VALIDATOR.isValid(email);
     }
 
     @Override
     public boolean isPhoneNumberValidated(String phoneNumber) {
-        return phoneNumber.matches(REGEX_FOR_PHONE);
+        if (phoneNumber == null) return false;
+        int start;
+        if (phoneNumber.length() == 12 && phoneNumber.charAt(0) == '+' && phoneNumber.charAt(1) == '7') start = 2;
+        else if (phoneNumber.length() == 11 && phoneNumber.charAt(0) == '8') start = 1;
+        else return false;
+        return parseDigits(phoneNumber, start, phoneNumber.length() - start) >= 0;
     }
 
     @Override
     public boolean isStringValidated(String string) {
-        return string.matches(REGEX_FOR_STRING_VALIDATION);
+        if (string == null || string.isEmpty()) return false;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            boolean latin = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+            boolean cyrillic = (c >= 'а' && c <= 'я') || (c >= 'А' && c <= 'Я');
+            if (!latin && !cyrillic && c != ' ') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Проверяет DTO пользователя.
+     *
+     * @param userDto Пользователь DTO для проверки.
+     * @return Битовая маска невалидных полей.
+     */
+    private int check(UserDto userDto) {
+        return check(userDto.getLastName(), userDto.getFirstName(), userDto.getPatronymicName(), userDto.getBirthDate(), userDto.getEmail(), userDto.getPhoneNumber());
     }
 
     /**
-     * Проверяет валидность DTO пользователя.
+     * Проверяет данные пользователя.
      *
      * @param lastName       Фамилия пользователя.
      * @param firstName      Имя пользователя.
      * @param patronymicName Отчество пользователя (может быть пустым).
-     * @param birthDate      Дата рождения пользователя в виде строки (должна быть валидной датой).
+     * @param birthDate      Дата рождения пользователя.
      * @param email          Email пользователя.
      * @param phoneNumber    Номер телефона пользователя.
-     * @return {@code true}, если DTO пользователя валидно, иначе {@code false}.
+     * @return Битовая маска невалидных полей, где номер бита равен порядковому номеру {@link UserFieldEnum}.
      */
-    private boolean isUserValidated(String lastName, String firstName, String patronymicName, String birthDate, String email, String phoneNumber) {
-        boolean isValid = true;
-        String errorMessage = "";
-        if (!isStringValidated(lastName)) {
-            errorMessage += "last name is invalid";
-            isValid = false;
-        }
-        if (!isStringValidated(firstName)) {
-            errorMessage += (errorMessage.isEmpty() ? "" : ", ") + "first name is invalid";
-            isValid = false;
-        }
-        if (!patronymicName.isEmpty() && !isStringValidated(patronymicName)) {
-            errorMessage += (errorMessage.isEmpty() ? "" : ", ") + "patronymic name is invalid";
-            isValid = false;
-        }
-        if (!isDateValidated(birthDate)) {
-            errorMessage += (errorMessage.isEmpty() ? "" : ", ") + "birth date is invalid";
-            isValid = false;
-        }
-        if (!isEmailValidated(email)) {
-            errorMessage += (errorMessage.isEmpty() ? "" : ", ") + "email is invalid";
-            isValid = false;
+    private int check(String lastName, String firstName, String patronymicName, LocalDate birthDate, String email, String phoneNumber) {
+        int errors = 0;
+        if (!isName(lastName)) errors |= bit(UserFieldEnum.LAST_NAME);
+        if (!isName(firstName)) errors |= bit(UserFieldEnum.FIRST_NAME);
+        if (patronymicName != null && !patronymicName.isEmpty() && !isName(patronymicName))
+            errors |= bit(UserFieldEnum.PATRONYMIC_NAME);
+        // LocalDate всегда является существующей датой, ограничивается только год четырьмя цифрами
+        if (birthDate == null || birthDate.getYear() < 0 || birthDate.getYear() > MAX_YEAR)
+            errors |= bit(UserFieldEnum.BIRTH_DATE);
+        if (!isEmailValidated(email) || email.length() > MAX_EMAIL_LENGTH) errors |= bit(UserFieldEnum.EMAIL);
+        if (!isPhoneNumberValidated(phoneNumber)) errors |= bit(UserFieldEnum.PHONE_NUMBER);
+        return errors;
+    }
+
+    /**
+     * Проверяет имя, фамилию или отчество: допустимые символы и длину колонки.
+     *
+     * @param name Строка для проверки.
+     * @return {@code true}, если строка валидна и помещается в колонку, иначе {@code false}.
+     */
+    private boolean isName(String name) {
+        return isStringValidated(name) && name.length() <= MAX_NAME_LENGTH;
+    }
+
+    /**
+     * Проверяет результат проверки пользователя и записывает в журнал невалидные поля.
+     *
+     * @param errors Битовая маска невалидных полей.
+     * @return {@code true}, если пользователь валиден, иначе {@code false}.
+     */
+    private boolean isValid(int errors) {
+        if (errors == 0) return true;
+        log.error("User is not valid: {}.", toFields(errors));
+        return false;
+    }
+
+    /**
+     * Преобразует битовую маску невалидных полей в множество.
+     *
+     * @param errors Битовая маска невалидных полей.
+     * @return Неизменяемое множество невалидных полей.
+     */
+    private static Set<UserFieldEnum> toFields(int errors) {
+        if (errors == 0) return Collections.emptySet();
+        Set<UserFieldEnum> fields = EnumSet.noneOf(UserFieldEnum.class);
+        for (UserFieldEnum field : FIELDS) {
+            if ((errors & bit(field)) != 0) fields.add(field);
         }
-        if (!isPhoneNumberValidated(phoneNumber)) {
-            errorMessage += (errorMessage.isEmpty() ? "" : ", ") + "phone number is invalid";
-            isValid = false;
+        return Collections.unmodifiableSet(fields);
+    }
+
+    private static int bit(UserFieldEnum field) {
+        return 1 << field.ordinal();
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '.' || c == '-' || c == '/';
+    }
+
+    /**
+     * Разбирает десятичное число фиксированной длины.
+     *
+     * @param string Строка.
+     * @param start  Индекс первой цифры.
+     * @param length Количество цифр.
+     * @return Число или {@code -1}, если среди символов есть не цифра.
+     */
+    private static long parseDigits(String string, int start, int length) {
+        long value = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
         }
-        if (!isValid) log.error("User is not valid: \n{}.", errorMessage);
-        return isValid;
+        return value;
     }
 
     /**
-     * Проверяет, является ли переданная комбинация дня, месяца и года допустимой.
+     * Проверяет, является ли переданная комбинация года, месяца и дня допустимой.
      *
-     * @param day   День, который нужно проверить (от 1 до 31 в зависимости от месяца).
-     * @param month Месяц, который нужно проверить (от 1 до 12).
-     * @param year  Год, который нужно проверить.
-     * @return {@code true}, если комбинация день-месяц-год является допустимой, иначе {@code false}.
+     * @param year  Год или {@code -1}, если он не разобран.
+     * @param month Месяц или {@code -1}, если он не разобран.
+     * @param day   День или {@code -1}, если он не разобран.
+     * @return {@code true}, если комбинация год-месяц-день является допустимой, иначе {@code false}.
      */
-    private boolean isValidDayMonthYear(int day, int month, int year) {
-        if (month < 1 || month > 12) return false;
-        int[] daysInMonth = {31, isLeapYear(year) ? 29 : 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
-        return 1 <= day && day <= daysInMonth[month - 1];
+    private static boolean isDate(long year, long month, long day) {
+        if (year < 0 || month < 1 || month > 12 || day < 1) return false;
+        return day <= switch ((int) month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
     }
 
     /**
@@ -130,7 +222,7 @@ public class ValidationServiceImpl implements ValidationService {
      * @param year Год, который нужно проверить.
      * @return {@code true}, если год високосный, иначе {@code false}.
      */
-    private boolean isLeapYear(int year) {
+    private static boolean isLeapYear(long year) {
         return (year % 4 == 0 && year % 100 != 0) || (year % 400 == 0);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,331 @@
+package ru.romanov.moneytransferservice.service.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.romanov.moneytransferservice.config.JournalProperties;
+import ru.romanov.moneytransferservice.model.entity.JournalSegment;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.JournalSegmentRepository;
+import ru.romanov.moneytransferservice.repository.TransactionRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Локальный журнал транзакций только для добавления.
+ * <p>
+ * Транзакции записываются в файлы-сегменты через {@link FileChannel}. Фоновый поток собирает запросы
+ * нескольких потоков в группу и выполняет для неё один {@code fsync} (group commit); ожидание новых запросов
+ * в группу ограничено бюджетом задержки {@code transfer.journal.max-batch-delay}. Запрос подтверждается
+ * после {@code fsync} своей группы.
+ * <p>
+ * Запись сегмента: длина данных (4 байта), контрольная сумма CRC32C (4 байта), транзакция в JSON.
+ * Неполная или повреждённая запись в конце сегмента после сбоя отбрасывается.
+ * <p>
+ * Периодически активный сегмент закрывается, а закрытые сегменты переносятся в таблицу {@code transaction}.
+ * Перенос сегмента и отметка об этом в таблице {@code journal_segment} выполняются в одной транзакции
+ * базы данных, поэтому сегменты, оставшиеся после сбоя, переносятся при следующем запуске ровно один раз.
+ * Сегмент, который перестал быть активным, больше не открывается на запись, поэтому перед переносом
+ * каждого сегмента достаточно убедиться, что он не является активным в этот момент.
+ */
+@Slf4j
+@Component
+public class TransactionJournal {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 8;
+
+    private final JournalProperties journalProperties;
+    private final TransactionRepository transactionRepository;
+    private final JournalSegmentRepository journalSegmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final DistributionSummary groupSize;
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final ReentrantLock segmentLock = new ReentrantLock();
+    private final AtomicLong segmentSequence = new AtomicLong();
+    private Path directory;
+    private volatile Path activeSegment;
+    private FileChannel activeChannel;
+    private long activeSize;
+    private Thread writer;
+    private volatile boolean running;
+
+    /**
+     * Конструктор журнала. Если журнал включён, открывает новый активный сегмент и запускает поток записи.
+     *
+     * @param journalProperties        Настройки журнала.
+     * @param transactionRepository    Репозиторий транзакций.
+     * @param journalSegmentRepository Репозиторий отметок о перенесённых сегментах.
+     * @param transactionManager       Менеджер транзакций базы данных.
+     * @param objectMapper             {@link ObjectMapper} для сериализации транзакций.
+     * @param meterRegistry            Реестр метрик.
+     */
+    public TransactionJournal(JournalProperties journalProperties,
+                              TransactionRepository transactionRepository,
+                              JournalSegmentRepository journalSegmentRepository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.journalProperties = journalProperties;
+        this.transactionRepository = transactionRepository;
+        this.journalSegmentRepository = journalSegmentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.groupSize = DistributionSummary.builder("transaction.journal.group.size")
+                .description("Количество запросов в одном групповом fsync журнала")
+                .register(meterRegistry);
+        if (!journalProperties.isEnabled()) return;
+        try {
+            directory = Files.createDirectories(Path.of(journalProperties.getDirectory()));
+            openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open transaction journal in " + journalProperties.getDirectory(), e);
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("transaction-journal-writer").daemon().start(this::run);
+    }
+
+    /**
+     * Проверяет, включён ли журнал.
+     *
+     * @return {@code true}, если транзакции подтверждаются после записи в журнал, иначе {@code false}.
+     */
+    public boolean isEnabled() {
+        return journalProperties.isEnabled();
+    }
+
+    /**
+     * Добавляет транзакции в журнал и ожидает {@code fsync} группы, в которую они попали.
+     *
+     * @param transactions Транзакции.
+     * @throws UncheckedIOException Если запись в журнал не удалась.
+     */
+    public void append(List<Transaction> transactions) {
+        if (!running) throw new IllegalStateException("Transaction journal is not running");
+        List<byte[]> records = new ArrayList<>(transactions.size());
+        try {
+            for (Transaction transaction : transactions) records.add(objectMapper.writeValueAsBytes(transaction));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        PendingAppend append = new PendingAppend(records, new CompletableFuture<>());
+        queue.add(append);
+        append.future().join();
+    }
+
+    /**
+     * Закрывает активный сегмент и переносит все закрытые сегменты в базу данных.
+     * Вызывается по расписанию, а также восстанавливает сегменты, оставшиеся после предыдущего запуска.
+     */
+    @Scheduled(fixedDelayString = "${transfer.journal.drain-interval:1000}")
+    public void drain() {
+        if (!running) return;
+        segmentLock.lock();
+        try {
+            if (activeSize > 0) openSegment();
+        } catch (IOException e) {
+            log.error("Cannot roll transaction journal segment. Message: {}", e.getMessage());
+        } finally {
+            segmentLock.unlock();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .forEach(this::drainSegment);
+        } catch (IOException e) {
+            log.error("Cannot list transaction journal segments. Message: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Останавливает поток записи после обработки поставленных запросов и закрывает активный сегмент.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        if (!running) return;
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        activeChannel.close();
+    }
+
+    /**
+     * Цикл потока записи: собирает группу запросов в пределах бюджета задержки,
+     * записывает её в активный сегмент и выполняет один {@code fsync}.
+     */
+    private void run() {
+        long maxBatchDelay = TimeUnit.MILLISECONDS.toNanos(journalProperties.getMaxBatchDelay());
+        List<PendingAppend> group = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                group.add(first);
+                queue.drainTo(group, journalProperties.getMaxBatchSize() - 1);
+                long deadline = System.nanoTime() + maxBatchDelay;
+                while (group.size() < journalProperties.getMaxBatchSize()) {
+                    PendingAppend next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    group.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (group.isEmpty()) continue;
+            try {
+                write(group);
+                group.forEach(append -> append.future().complete(null));
+            } catch (IOException e) {
+                log.error("Transaction journal write failed. Message: {}", e.getMessage());
+                group.forEach(append -> append.future().completeExceptionally(new UncheckedIOException(e)));
+            }
+            groupSize.record(group.size());
+            group.clear();
+        }
+    }
+
+    /**
+     * Записывает группу запросов в активный сегмент и выполняет {@code fsync}.
+     *
+     * @param group Группа запросов.
+     * @throws IOException Если запись не удалась.
+     */
+    private void write(List<PendingAppend> group) throws IOException {
+        int size = 0;
+        for (PendingAppend append : group)
+            for (byte[] record : append.records()) size += HEADER_SIZE + record.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32C crc = new CRC32C();
+        for (PendingAppend append : group) {
+            for (byte[] record : append.records()) {
+                crc.reset();
+                crc.update(record);
+                buffer.putInt(record.length).putInt((int) crc.getValue()).put(record);
+            }
+        }
+        buffer.flip();
+        segmentLock.lock();
+        try {
+            while (buffer.hasRemaining()) activeChannel.write(buffer);
+            activeChannel.force(false);
+            activeSize += size;
+            if (activeSize >= journalProperties.getSegmentSize()) openSegment();
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    /**
+     * Закрывает активный сегмент (если он есть) и открывает новый.
+     * Имя сегмента содержит время открытия и порядковый номер, поэтому уникально между запусками.
+     *
+     * @throws IOException Если сегмент не удалось открыть.
+     */
+    private void openSegment() throws IOException {
+        if (activeChannel != null) activeChannel.close();
+        activeSegment = directory.resolve(String.format("%s%013d-%06d%s", SEGMENT_PREFIX,
+                System.currentTimeMillis(), segmentSequence.incrementAndGet(), SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(activeSegment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeSize = 0;
+    }
+
+    /**
+     * Переносит транзакции закрытого сегмента в базу данных и удаляет сегмент.
+     *
+     * @param segment Путь к сегменту.
+     */
+    private void drainSegment(Path segment) {
+        // Сегмент мог стать активным после начала переноса, если поток записи открыл новый сегмент
+        if (isActive(segment)) return;
+        String name = segment.getFileName().toString();
+        try {
+            List<Transaction> transactions = readSegment(segment);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (journalSegmentRepository.existsById(name)) return;
+                transactionRepository.saveAll(transactions);
+                JournalSegment journalSegment = new JournalSegment();
+                journalSegment.setName(name);
+                journalSegment.setDrainedAt(LocalDateTime.now());
+                journalSegmentRepository.save(journalSegment);
+            });
+            Files.delete(segment);
+            log.info("Transaction journal segment drained. Segment: {}, transactions: {}", name, transactions.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("Cannot drain transaction journal segment {}. Message: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Проверяет под блокировкой сегментов, является ли сегмент активным.
+     *
+     * @param segment Путь к сегменту.
+     * @return {@code true}, если в сегмент ещё выполняется запись, иначе {@code false}.
+     */
+    private boolean isActive(Path segment) {
+        segmentLock.lock();
+        try {
+            return segment.equals(activeSegment);
+        } finally {
+            segmentLock.unlock();
+        }
+    }
+
+    /**
+     * Читает транзакции из сегмента до конца файла или до первой неполной либо повреждённой записи.
+     *
+     * @param segment Путь к сегменту.
+     * @return Список транзакций сегмента.
+     * @throws IOException Если сегмент не удалось прочитать.
+     */
+    private List<Transaction> readSegment(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<Transaction> transactions = new ArrayList<>();
+        CRC32C crc = new CRC32C();
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) break;
+            byte[] record = new byte[length];
+            buffer.get(record);
+            crc.reset();
+            crc.update(record);
+            if ((int) crc.getValue() != checksum) break;
+            transactions.add(objectMapper.readValue(record, Transaction.class));
+        }
+        if (buffer.hasRemaining())
+            log.warn("Transaction journal segment {} has a torn tail of {} bytes, ignored", segment.getFileName(), buffer.remaining());
+        return transactions;
+    }
+
+    /**
+     * Запрос на добавление в журнал.
+     *
+     * @param records Сериализованные транзакции.
+     * @param future  Завершается после {@code fsync} группы, в которую попал запрос.
+     */
+    private record PendingAppend(List<byte[]> records, CompletableFuture<Void> future) {
+    }
+}
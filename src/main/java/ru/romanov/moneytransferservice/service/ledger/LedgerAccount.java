@@ -0,0 +1,18 @@
+package ru.romanov.moneytransferservice.service.ledger;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import ru.romanov.moneytransferservice.model.Money;
+
+/**
+ * Состояние счёта в памяти шарда {@link LedgerShard}.
+ * Изменяется только потоком шарда, которому принадлежит счёт.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+class LedgerAccount {
+    private final String currency;
+    private Money balance;
+}
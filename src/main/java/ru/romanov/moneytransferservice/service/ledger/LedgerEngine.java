@@ -0,0 +1,273 @@
+package ru.romanov.moneytransferservice.service.ledger;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.romanov.moneytransferservice.config.LedgerProperties;
+import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
+import ru.romanov.moneytransferservice.exception.InsufficientFundsException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.AccountRepository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Движок проведения операций с однопоточными шардами.
+ * <p>
+ * Счета распределяются по шардам по хешу номера счёта. Каждый шард изменяет балансы своих счетов
+ * в единственном потоке без блокировок. Перевод между счетами разных шардов выполняется в два шага:
+ * списание на шарде отправителя, затем зачисление на шарде получателя; если зачисление не удалось,
+ * списание компенсируется. Изменения балансов операции и её транзакция добавляются в {@link LedgerJournal}
+ * одной записью после последнего шага, а операция возвращает управление только после фиксации этой записи
+ * в базе данных.
+ * <p>
+ * Пока движок включён, балансы в базе данных отстают от балансов в памяти на время записи журнала,
+ * а все изменения балансов должны проходить через движок. Код, который изменяет или удаляет счета
+ * в базе данных напрямую (закрытие счетов), должен предварительно вызвать {@link #closeAccounts}.
+ * Если журнал не смог записать изменения счетов, счета закрываются и открываются заново тем же способом,
+ * чтобы балансы в памяти были перечитаны из базы данных.
+ * Счета загружаются из базы данных в потоке вызывающего кода, чтобы запросы не задерживали поток шарда.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.engine.mode", havingValue = "sharded")
+public class LedgerEngine {
+    private final AccountRepository accountRepository;
+    private final LedgerJournal ledgerJournal;
+    private final LedgerShard[] shards;
+    // Переводы между шардами удерживают блокировку на чтение до добавления записи в журнал,
+    // поэтому закрытие счетов не пропускает списание, запись о котором ещё не добавлена
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    /**
+     * Конструктор движка. Создаёт и запускает шарды и подписывается на счета, изменения которых журнал не записал.
+     *
+     * @param accountRepository Репозиторий счетов.
+     * @param ledgerJournal     Журнал отложенной записи.
+     * @param ledgerProperties  Настройки движка.
+     */
+    public LedgerEngine(AccountRepository accountRepository, LedgerJournal ledgerJournal, LedgerProperties ledgerProperties) {
+        this.accountRepository = accountRepository;
+        this.ledgerJournal = ledgerJournal;
+        this.shards = new LedgerShard[ledgerProperties.getShards()];
+        for (int i = 0; i < shards.length; i++)
+            shards[i] = new LedgerShard(i);
+        ledgerJournal.onDeadLetter(this::resync);
+    }
+
+    /**
+     * Возвращает код валюты счёта.
+     *
+     * @param accountNumber Номер счёта.
+     * @return Код валюты.
+     * @throws AccountNotFoundException Если счёт не найден.
+     */
+    public String getCurrency(String accountNumber) {
+        load(accountNumber);
+        return shardFor(accountNumber).call(shard -> shard.account(accountNumber).getCurrency());
+    }
+
+    /**
+     * Возвращает текущий баланс счёта в памяти.
+     *
+     * @param accountNumber Номер счёта.
+     * @return Баланс счёта.
+     * @throws AccountNotFoundException Если счёт не найден.
+     */
+    public Money getBalance(String accountNumber) {
+        load(accountNumber);
+        return shardFor(accountNumber).call(shard -> shard.account(accountNumber).getBalance());
+    }
+
+    /**
+     * Зачисляет сумму на счёт и ожидает записи операции в базу данных.
+     *
+     * @param accountNumber Номер счёта.
+     * @param amount        Сумма зачисления.
+     * @param transaction   Транзакция операции (может быть {@code null}).
+     * @throws AccountNotFoundException Если счёт не найден.
+     * @throws IllegalStateException    Если операция не записана в базу данных.
+     */
+    public void deposit(String accountNumber, Money amount, Transaction transaction) {
+        load(accountNumber);
+        ledgerJournal.await(shardFor(accountNumber).call(shard -> {
+            shard.credit(accountNumber, amount);
+            return ledgerJournal.record(Map.of(accountNumber, amount), transaction);
+        }));
+    }
+
+    /**
+     * Списывает сумму со счёта и ожидает записи операции в базу данных.
+     *
+     * @param accountNumber Номер счёта.
+     * @param amount        Сумма списания.
+     * @param transaction   Транзакция операции (может быть {@code null}).
+     * @throws AccountNotFoundException   Если счёт не найден.
+     * @throws InsufficientFundsException Если на счёте недостаточно средств.
+     * @throws IllegalStateException      Если операция не записана в базу данных.
+     */
+    public void debit(String accountNumber, Money amount, Transaction transaction) {
+        load(accountNumber);
+        ledgerJournal.await(shardFor(accountNumber).call(shard -> {
+            shard.debit(accountNumber, amount);
+            return ledgerJournal.record(Map.of(accountNumber, amount.negate()), transaction);
+        }));
+    }
+
+    /**
+     * Переводит сумму между счетами и ожидает записи операции в базу данных.
+     * Списание и зачисление записываются в журнал одной записью.
+     *
+     * @param fromAccountNumber Номер счёта отправителя.
+     * @param toAccountNumber   Номер счёта получателя.
+     * @param amount            Сумма списания в валюте отправителя.
+     * @param convertedAmount   Сумма зачисления в валюте получателя.
+     * @param transaction       Транзакция операции (может быть {@code null}).
+     * @throws AccountNotFoundException   Если один из счетов не найден.
+     * @throws InsufficientFundsException Если на счёте отправителя недостаточно средств.
+     * @throws IllegalStateException      Если операция не записана в базу данных.
+     */
+    public void transfer(String fromAccountNumber, String toAccountNumber, Money amount, Money convertedAmount, Transaction transaction) {
+        load(fromAccountNumber);
+        load(toAccountNumber);
+        LedgerShard source = shardFor(fromAccountNumber);
+        LedgerShard target = shardFor(toAccountNumber);
+        Map<String, Money> deltas = Map.of(fromAccountNumber, amount.negate(), toAccountNumber, convertedAmount);
+        if (source == target) {
+            ledgerJournal.await(source.call(shard -> {
+                shard.account(toAccountNumber);
+                shard.debit(fromAccountNumber, amount);
+                shard.credit(toAccountNumber, convertedAmount);
+                return ledgerJournal.record(deltas, transaction);
+            }));
+            return;
+        }
+        CompletableFuture<Void> persisted;
+        closeLock.readLock().lock();
+        try {
+            target.call(shard -> shard.account(toAccountNumber));
+            source.call(shard -> {
+                shard.debit(fromAccountNumber, amount);
+                return null;
+            });
+            try {
+                persisted = target.call(shard -> {
+                    shard.credit(toAccountNumber, convertedAmount);
+                    return ledgerJournal.record(deltas, transaction);
+                });
+            } catch (RuntimeException e) {
+                source.call(shard -> {
+                    shard.credit(fromAccountNumber, amount);
+                    return null;
+                });
+                throw e;
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        ledgerJournal.await(persisted);
+    }
+
+    /**
+     * Начинает закрытие счетов: удаляет их из шардов, запрещает дальнейшие операции с ними
+     * и ожидает записи в базу данных всех изменений, накопленных журналом. После возврата балансы счетов
+     * в базе данных актуальны и могут изменяться или удаляться напрямую.
+     * Закрытие завершается вызовом {@link #reopenAccounts} после фиксации или отката транзакции базы данных.
+     *
+     * @param accountNumbers Номера счетов.
+     * @throws IllegalStateException Если журнал не записал изменения за отведённое время.
+     */
+    public void closeAccounts(Collection<String> accountNumbers) {
+        closeLock.writeLock().lock();
+        try {
+            for (String accountNumber : accountNumbers) {
+                shardFor(accountNumber).call(shard -> {
+                    shard.close(accountNumber);
+                    return null;
+                });
+            }
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        ledgerJournal.awaitFlushed();
+    }
+
+    /**
+     * Завершает закрытие счетов: при следующем обращении счета загружаются из базы данных заново
+     * (если транзакция закрытия зафиксирована, счёт не будет найден).
+     *
+     * @param accountNumbers Номера счетов.
+     */
+    public void reopenAccounts(Collection<String> accountNumbers) {
+        for (String accountNumber : accountNumbers) {
+            shardFor(accountNumber).call(shard -> {
+                shard.reopen(accountNumber);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Перечитывает из базы данных счета, изменения которых журнал перенёс в хранилище недоставленных изменений:
+     * закрывает их, дожидается записи уже добавленных в журнал изменений и открывает заново.
+     * Выполняется в отдельном виртуальном потоке, так как ожидает записи журнала.
+     *
+     * @param accountNumbers Номера счетов.
+     */
+    private void resync(Set<String> accountNumbers) {
+        Thread.ofVirtual().name("ledger-resync").start(() -> {
+            try {
+                closeAccounts(accountNumbers);
+            } catch (RuntimeException e) {
+                log.error("Ledger accounts resync did not wait for journal flush. Accounts: {}, message: {}", accountNumbers, e.getMessage());
+            } finally {
+                reopenAccounts(accountNumbers);
+            }
+            log.warn("Ledger accounts reloaded from database after dead letter. Accounts: {}", accountNumbers);
+        });
+    }
+
+    /**
+     * Останавливает шарды после выполнения поставленных задач.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (LedgerShard shard : shards) shard.shutdown();
+    }
+
+    /**
+     * Загружает счёт из базы данных в шард, если он ещё не загружен.
+     * Запрос к базе данных выполняется в потоке вызывающего кода.
+     *
+     * @param accountNumber Номер счёта.
+     * @throws AccountNotFoundException Если счёт не найден или закрывается.
+     */
+    private void load(String accountNumber) {
+        LedgerShard owner = shardFor(accountNumber);
+        if (owner.call(shard -> shard.contains(accountNumber))) return;
+        LedgerAccount account = accountRepository.findByAccountNumber(accountNumber)
+                .map(found -> new LedgerAccount(found.getCurrency(), found.getBalance()))
+                .orElseThrow(AccountNotFoundException::new);
+        owner.call(shard -> {
+            shard.install(accountNumber, account);
+            return null;
+        });
+    }
+
+    /**
+     * Возвращает шард, которому принадлежит счёт.
+     *
+     * @param accountNumber Номер счёта.
+     * @return Шард счёта.
+     */
+    private LedgerShard shardFor(String accountNumber) {
+        return shards[Math.floorMod(accountNumber.hashCode(), shards.length)];
+    }
+}
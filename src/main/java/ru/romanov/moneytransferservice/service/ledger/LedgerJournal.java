@@ -0,0 +1,328 @@
+package ru.romanov.moneytransferservice.service.ledger;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.romanov.moneytransferservice.config.LedgerProperties;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.AccountRepository;
+import ru.romanov.moneytransferservice.repository.TransactionRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Журнал записи изменений движка {@link LedgerEngine} в базу данных с групповой фиксацией.
+ * <p>
+ * Каждая операция движка добавляет в журнал одну запись со всеми изменениями балансов (для перевода - обе его части)
+ * и созданной транзакцией, а фоновый поток записывает записи в базу данных пачками: изменения балансов одного счёта
+ * внутри пачки суммируются и применяются одним запросом {@code UPDATE}, транзакции сохраняются через {@code saveAll}.
+ * Запись никогда не разделяется между пачками, поэтому части перевода фиксируются вместе.
+ * Операция подтверждается вызывающему коду только после фиксации пачки, в которую попала её запись,
+ * поэтому сбой процесса теряет лишь неподтверждённые операции. Очередь ограничена, поэтому при недоступности
+ * базы данных шарды притормаживаются, а не исчерпывают память.
+ * <p>
+ * Изменение баланса счёта, отсутствующего в базе данных, является ошибкой записи всей пачки.
+ * Пачка, которую не удалось записать за {@code transfer.engine.max-flush-attempts} попыток, переносится
+ * в хранилище недоставленных изменений (файлы NDJSON в каталоге {@code transfer.engine.dead-letter-directory})
+ * для ручного разбора, её операции завершаются с ошибкой, а затронутые счета передаются обработчику
+ * {@link #onDeadLetter}, чтобы движок перечитал их балансы из базы данных.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.engine.mode", havingValue = "sharded")
+public class LedgerJournal {
+    private static final String DEAD_LETTER_PREFIX = "ledger-";
+    private static final String DEAD_LETTER_SUFFIX = ".ndjson";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerProperties ledgerProperties;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<LedgerEntry> queue;
+    private final Thread writer;
+    private volatile Consumer<Set<String>> deadLetterListener = accountNumbers -> {};
+    private volatile boolean running = true;
+
+    /**
+     * Конструктор журнала. Запускает фоновый поток записи.
+     *
+     * @param accountRepository     Репозиторий счетов.
+     * @param transactionRepository Репозиторий транзакций.
+     * @param transactionManager    Менеджер транзакций базы данных.
+     * @param ledgerProperties      Настройки движка.
+     * @param objectMapper          Преобразователь JSON для хранилища недоставленных изменений.
+     */
+    public LedgerJournal(AccountRepository accountRepository,
+                         TransactionRepository transactionRepository,
+                         PlatformTransactionManager transactionManager,
+                         LedgerProperties ledgerProperties,
+                         ObjectMapper objectMapper) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ledgerProperties = ledgerProperties;
+        this.objectMapper = objectMapper;
+        this.queue = new LinkedBlockingQueue<>(ledgerProperties.getJournalCapacity());
+        this.writer = Thread.ofPlatform().name("ledger-journal").daemon().start(this::run);
+    }
+
+    /**
+     * Добавляет в журнал изменения балансов одной операции и её транзакцию без ожидания записи.
+     * Вызывается в потоке шарда сразу после изменения балансов в памяти, чтобы порядок записей
+     * совпадал с порядком операций над счетами.
+     *
+     * @param deltas      Изменения балансов по номерам счетов (отрицательные при списании).
+     * @param transaction Транзакция (может быть {@code null}).
+     * @return Завершается после фиксации записи в базе данных.
+     */
+    public CompletableFuture<Void> record(Map<String, Money> deltas, Transaction transaction) {
+        LedgerEntry entry = new LedgerEntry(deltas, transaction, new CompletableFuture<>());
+        put(entry);
+        return entry.persisted();
+    }
+
+    /**
+     * Добавляет в журнал транзакцию и ожидает её записи в базу данных.
+     *
+     * @param transaction Транзакция.
+     * @throws IllegalStateException Если транзакция не записана.
+     */
+    public void recordTransaction(Transaction transaction) {
+        await(record(Map.of(), transaction));
+    }
+
+    /**
+     * Ожидает фиксации записи журнала в базе данных.
+     *
+     * @param persisted Результат {@link #record}.
+     * @throws IllegalStateException Если запись не зафиксирована за {@code transfer.engine.flush-timeout}
+     *                               или перенесена в хранилище недоставленных изменений.
+     */
+    public void await(CompletableFuture<Void> persisted) {
+        try {
+            persisted.get(ledgerProperties.getFlushTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for ledger journal flush", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ledger journal entries were not persisted", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for ledger journal flush", e);
+        }
+    }
+
+    /**
+     * Устанавливает обработчик счетов, изменения которых перенесены в хранилище недоставленных изменений.
+     * Обработчик вызывается в потоке журнала и не должен ожидать записи журнала.
+     *
+     * @param listener Обработчик номеров счетов.
+     */
+    public void onDeadLetter(Consumer<Set<String>> listener) {
+        this.deadLetterListener = listener;
+    }
+
+    /**
+     * Возвращает количество изменений, ещё не записанных в базу данных.
+     *
+     * @return Количество незаписанных изменений.
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * Ожидает записи в базу данных всех изменений, добавленных в журнал до вызова метода.
+     *
+     * @throws IllegalStateException Если изменения не записаны за {@code transfer.engine.flush-timeout}
+     *                               или перенесены в хранилище недоставленных изменений.
+     */
+    public void awaitFlushed() {
+        CompletableFuture<Void> barrier = record(Map.of(), null);
+        if (!running) flush();
+        await(barrier);
+    }
+
+    /**
+     * Синхронно записывает в базу данных все накопленные изменения.
+     * Пачки, которые не удалось записать, переносятся в хранилище недоставленных изменений.
+     */
+    public void flush() {
+        List<LedgerEntry> batch = new ArrayList<>();
+        while (queue.drainTo(batch, ledgerProperties.getFlushBatchSize()) > 0) {
+            try {
+                persist(batch);
+            } catch (RuntimeException e) {
+                deadLetter(batch, e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Останавливает фоновый поток и записывает оставшиеся изменения.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        flush();
+    }
+
+    /**
+     * Цикл фонового потока: ожидает изменения и записывает их пачками, повторяя запись при ошибках
+     * не более {@code transfer.engine.max-flush-attempts} раз.
+     */
+    private void run() {
+        List<LedgerEntry> batch = new ArrayList<>();
+        int attempts = 0;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    LedgerEntry first = queue.poll(ledgerProperties.getFlushInterval(), TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    queue.drainTo(batch, ledgerProperties.getFlushBatchSize() - 1);
+                }
+                persist(batch);
+                batch.clear();
+                attempts = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                if (++attempts >= ledgerProperties.getMaxFlushAttempts()) {
+                    deadLetter(batch, e);
+                    batch.clear();
+                    attempts = 0;
+                    continue;
+                }
+                log.error("Ledger journal flush failed, attempt {} of {}, {} entries will be retried. Message: {}",
+                        attempts, ledgerProperties.getMaxFlushAttempts(), batch.size(), e.getMessage());
+                try {
+                    Thread.sleep(ledgerProperties.getFlushInterval());
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            Thread.interrupted();
+            try {
+                persist(batch);
+            } catch (RuntimeException e) {
+                deadLetter(batch, e);
+            }
+        }
+    }
+
+    /**
+     * Записывает пачку изменений в базу данных в одной транзакции и подтверждает операции пачки.
+     * Счета обновляются в порядке возрастания номера, как и при блокировке в режиме {@code jpa}.
+     *
+     * @param batch Пачка изменений.
+     * @throws IllegalStateException Если счёт из пачки отсутствует в базе данных.
+     */
+    private void persist(List<LedgerEntry> batch) {
+        Map<String, Money> deltas = new TreeMap<>();
+        List<Transaction> transactions = new ArrayList<>();
+        for (LedgerEntry entry : batch) {
+            if (entry.transaction() != null) transactions.add(entry.transaction());
+            entry.deltas().forEach((accountNumber, delta) -> deltas.merge(accountNumber, delta, Money::plus));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Изменение может быть отрицательным: creditBalance прибавляет его к балансу без условия
+            deltas.forEach((accountNumber, delta) -> {
+                if (accountRepository.creditBalance(accountNumber, delta) == 0)
+                    throw new IllegalStateException("Ledger account is missing in database: " + accountNumber);
+            });
+            transactionRepository.saveAll(transactions);
+        });
+        for (LedgerEntry entry : batch) entry.persisted().complete(null);
+    }
+
+    /**
+     * Переносит пачку изменений в хранилище недоставленных изменений, завершает с ошибкой её операции
+     * и передаёт затронутые счета обработчику {@link #onDeadLetter}: их балансы в памяти шардов
+     * включают изменения, которых нет в базе данных.
+     * Если записать файл не удалось, изменения выводятся в журнал приложения.
+     *
+     * @param batch Пачка изменений.
+     * @param cause Ошибка записи пачки в базу данных.
+     */
+    private void deadLetter(List<LedgerEntry> batch, RuntimeException cause) {
+        List<LedgerEntry> entries = batch.stream()
+                .filter(entry -> !entry.deltas().isEmpty() || entry.transaction() != null).toList();
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (LedgerEntry entry : entries) lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+            Path directory = Files.createDirectories(Path.of(ledgerProperties.getDeadLetterDirectory()));
+            Path file = directory.resolve(DEAD_LETTER_PREFIX + LocalDate.now() + DEAD_LETTER_SUFFIX);
+            Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            log.error("Ledger journal batch moved to dead letter store. Entries: {}, file: {}, message: {}",
+                    entries.size(), file, cause.getMessage());
+        } catch (IOException e) {
+            log.error("Ledger journal batch lost, dead letter store unavailable. Entries: {}, message: {}", entries, e.getMessage());
+        }
+        Set<String> accountNumbers = new TreeSet<>();
+        for (LedgerEntry entry : batch) {
+            accountNumbers.addAll(entry.deltas().keySet());
+            entry.persisted().completeExceptionally(cause);
+        }
+        if (!accountNumbers.isEmpty()) deadLetterListener.accept(accountNumbers);
+    }
+
+    /**
+     * Добавляет запись в очередь, ожидая освобождения места.
+     *
+     * @param entry Запись журнала.
+     */
+    private void put(LedgerEntry entry) {
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while appending to ledger journal", e);
+        }
+    }
+
+    /**
+     * Запись журнала: изменения балансов и транзакция одной операции. Запись без изменений и транзакции
+     * служит отметкой ожидания записи всех предшествующих изменений.
+     *
+     * @param deltas      Изменения балансов по номерам счетов.
+     * @param transaction Транзакция (может быть {@code null}).
+     * @param persisted   Завершается после фиксации пачки, в которую попала запись.
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private record LedgerEntry(Map<String, Money> deltas, Transaction transaction,
+                               @JsonIgnore CompletableFuture<Void> persisted) {
+    }
+}
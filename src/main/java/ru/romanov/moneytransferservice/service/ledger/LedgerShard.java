@@ -0,0 +1,141 @@
+package ru.romanov.moneytransferservice.service.ledger;
+
+import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
+import ru.romanov.moneytransferservice.exception.InsufficientFundsException;
+import ru.romanov.moneytransferservice.model.Money;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Шард движка {@link LedgerEngine}: владеет балансами своей части счетов и изменяет их
+ * в единственном потоке, поэтому операции над счетами шарда не требуют блокировок.
+ * Счета загружаются из базы данных движком в потоке вызывающего кода и передаются шарду через {@link #install}.
+ * Закрываемые счета удаляются из шарда и до завершения закрытия считаются несуществующими; закрытия
+ * подсчитываются, поэтому счёт, закрытый одновременно несколькими вызывающими, открывается после последнего из них.
+ * Шард изменяет только балансы в памяти: запись изменений в журнал выполняет {@link LedgerEngine}.
+ */
+class LedgerShard {
+    private final ExecutorService executor;
+    private final Map<String, LedgerAccount> accounts = new HashMap<>();
+    private final Map<String, Integer> closing = new HashMap<>();
+
+    /**
+     * Конструктор шарда. Запускает поток шарда.
+     *
+     * @param index Номер шарда.
+     */
+    LedgerShard(int index) {
+        this.executor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("ledger-shard-" + index).factory());
+    }
+
+    /**
+     * Выполняет задачу в потоке шарда и ожидает её результат.
+     *
+     * @param task Задача.
+     * @param <T>  Тип результата.
+     * @return Результат задачи.
+     */
+    <T> T call(Function<LedgerShard, T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> task.apply(this), executor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Проверяет, загружен ли счёт в шард. Вызывается только в потоке шарда.
+     *
+     * @param accountNumber Номер счёта.
+     * @return {@code true}, если счёт загружен, иначе {@code false}.
+     * @throws AccountNotFoundException Если счёт закрывается.
+     */
+    boolean contains(String accountNumber) {
+        if (closing.containsKey(accountNumber)) throw new AccountNotFoundException();
+        return accounts.containsKey(accountNumber);
+    }
+
+    /**
+     * Добавляет загруженный из базы данных счёт, если он ещё не загружен. Вызывается только в потоке шарда.
+     *
+     * @param accountNumber Номер счёта.
+     * @param account       Состояние счёта.
+     * @throws AccountNotFoundException Если счёт закрывается.
+     */
+    void install(String accountNumber, LedgerAccount account) {
+        if (closing.containsKey(accountNumber)) throw new AccountNotFoundException();
+        accounts.putIfAbsent(accountNumber, account);
+    }
+
+    /**
+     * Возвращает состояние загруженного счёта. Вызывается только в потоке шарда.
+     *
+     * @param accountNumber Номер счёта.
+     * @return Состояние счёта.
+     * @throws AccountNotFoundException Если счёт не загружен или закрывается.
+     */
+    LedgerAccount account(String accountNumber) {
+        LedgerAccount account = accounts.get(accountNumber);
+        if (account == null) throw new AccountNotFoundException();
+        return account;
+    }
+
+    /**
+     * Удаляет счёт из шарда и запрещает его повторную загрузку до вызова {@link #reopen}.
+     * Вызывается только в потоке шарда.
+     *
+     * @param accountNumber Номер счёта.
+     */
+    void close(String accountNumber) {
+        accounts.remove(accountNumber);
+        closing.merge(accountNumber, 1, Integer::sum);
+    }
+
+    /**
+     * Завершает одно закрытие счёта; после завершения последнего закрытия разрешает повторную загрузку
+     * счёта из базы данных. Вызывается только в потоке шарда.
+     *
+     * @param accountNumber Номер счёта.
+     */
+    void reopen(String accountNumber) {
+        closing.computeIfPresent(accountNumber, (number, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Зачисляет сумму на счёт. Вызывается только в потоке шарда.
+     *
+     * @param accountNumber Номер счёта.
+     * @param amount        Сумма зачисления.
+     */
+    void credit(String accountNumber, Money amount) {
+        LedgerAccount account = account(accountNumber);
+        account.setBalance(account.getBalance().plus(amount));
+    }
+
+    /**
+     * Списывает сумму со счёта. Вызывается только в потоке шарда.
+     *
+     * @param accountNumber Номер счёта.
+     * @param amount        Сумма списания.
+     * @throws InsufficientFundsException Если на счёте недостаточно средств.
+     */
+    void debit(String accountNumber, Money amount) {
+        LedgerAccount account = account(accountNumber);
+        if (account.getBalance().compareTo(amount) < 0) throw new InsufficientFundsException();
+        account.setBalance(account.getBalance().minus(amount));
+    }
+
+    /**
+     * Останавливает поток шарда после выполнения поставленных задач.
+     */
+    void shutdown() {
+        executor.close();
+    }
+}
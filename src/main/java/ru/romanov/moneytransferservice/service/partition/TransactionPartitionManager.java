@@ -0,0 +1,306 @@
+package ru.romanov.moneytransferservice.service.partition;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.romanov.moneytransferservice.config.PartitionProperties;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Обслуживание месячных секций секционированной таблицы {@code transaction}.
+ * <p>
+ * По расписанию заранее создаёт секции на {@code transfer.partitions.premake-months} месяцев вперёд,
+ * чтобы новые транзакции не попадали в секцию по умолчанию. Секции, целиком вышедшие за окно хранения
+ * {@code transfer.partitions.retention-months}, отсоединяются от таблицы, выгружаются командой {@code COPY}
+ * в сжатый CSV-файл в каталоге архива и только после успешной записи файла удаляются.
+ * Отсоединённая, но не выгруженная из-за ошибки секция подхватывается при следующем запуске.
+ * <p>
+ * Обслуживание выполняется на одном соединении под сессионной advisory-блокировкой PostgreSQL,
+ * поэтому при нескольких экземплярах сервиса его выполняет только один из них.
+ * <p>
+ * Соединение открывается в обход пула Hikari: выгрузка секции может занимать минуты и не должна занимать
+ * соединение пула, а ожидание блокировок на соединениях пула не ограничено. Отсоединение секции ждёт
+ * завершения транзакций, читающих таблицу (в том числе выгрузок истории), и пока оно ждёт блокировку,
+ * все вставки и чтения таблицы встают в очередь за ним. Поэтому на соединении обслуживания задаётся
+ * короткий {@code transfer.partitions.lock-timeout}: не дождавшись блокировки, обслуживание отказывается
+ * от секции и повторяет попытку при следующем запуске, а переводы ждут не дольше этого таймаута.
+ * <p>
+ * Если у таблицы нет секции по умолчанию, секция отсоединяется через {@code DETACH PARTITION ... CONCURRENTLY},
+ * которому достаточно блокировки {@code SHARE UPDATE EXCLUSIVE}, не конфликтующей со вставками и чтениями.
+ * Прерванное по таймауту отсоединение оставляет секцию в состоянии ожидания и завершается при следующем запуске
+ * через {@code FINALIZE}. PostgreSQL запрещает {@code CONCURRENTLY} при наличии секции по умолчанию
+ * ({@code transaction_default}), поэтому в этом случае выполняется обычный {@code DETACH PARTITION}
+ * под блокировкой {@code ACCESS EXCLUSIVE}, ограниченной тем же коротким таймаутом.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionPartitionManager {
+    private static final String TABLE = "transaction";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile("^" + PARTITION_PREFIX + "(\\d{4})_(\\d{2})$");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final long ADVISORY_LOCK_KEY = 0x74786E5F70617274L;
+
+    private final DataSource dataSource;
+    private final PartitionProperties partitionProperties;
+    private final Counter archived;
+
+    /**
+     * Конструктор компонента обслуживания секций.
+     *
+     * @param dataSourceProperties Настройки подключения к базе данных, по которым открывается соединение вне пула.
+     * @param partitionProperties  Настройки обслуживания секций.
+     * @param meterRegistry        Реестр метрик.
+     */
+    public TransactionPartitionManager(DataSourceProperties dataSourceProperties,
+                                       PartitionProperties partitionProperties,
+                                       MeterRegistry meterRegistry) {
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build();
+        this.partitionProperties = partitionProperties;
+        this.archived = Counter.builder("transaction.partitions.archived").register(meterRegistry);
+    }
+
+    /**
+     * Создаёт будущие секции и архивирует устаревшие. Выполняется при запуске и затем по расписанию.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${transfer.partitions.maintenance-interval:3600000}")
+    public void maintain() {
+        try (Connection connection = dataSource.getConnection()) {
+            maintain(connection, LocalDate.now());
+        } catch (SQLException | RuntimeException e) {
+            log.error("Transaction partition maintenance failed. Message: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Выполняет обслуживание секций на переданном соединении.
+     *
+     * @param connection Соединение с базой данных в режиме autocommit.
+     * @param today      Текущая дата.
+     */
+    void maintain(Connection connection, LocalDate today) throws SQLException {
+        execute(connection, "SET lock_timeout = '" + partitionProperties.getLockTimeout() + "ms'");
+        if (!tryLock(connection)) {
+            log.debug("Transaction partition maintenance is running on another instance");
+            return;
+        }
+        try {
+            LocalDate month = today.withDayOfMonth(1);
+            for (int i = 0; i <= partitionProperties.getPremakeMonths(); i++) {
+                try {
+                    execute(connection, createPartitionSql(month.plusMonths(i)));
+                } catch (SQLException e) {
+                    // Например, секция по умолчанию уже содержит строки этого месяца
+                    log.error("Partition {} was not created. Message: {}", partitionName(month.plusMonths(i)), e.getMessage());
+                }
+            }
+            boolean concurrently = !hasDefaultPartition(connection);
+            for (Partition partition : listPartitions(connection)) {
+                if (!isExpired(partition.name(), today, partitionProperties.getRetentionMonths())) continue;
+                try {
+                    archive(connection, partition, concurrently);
+                } catch (SQLException e) {
+                    // Например, истёк lock_timeout: секция будет обработана при следующем запуске
+                    log.warn("Partition {} was not archived and will be retried. Message: {}", partition.name(), e.getMessage());
+                }
+            }
+        } finally {
+            unlock(connection);
+        }
+    }
+
+    /**
+     * Отсоединяет секцию, выгружает её в сжатый файл и удаляет.
+     *
+     * @param connection   Соединение с базой данных.
+     * @param partition    Секция.
+     * @param concurrently Отсоединять ли секцию без блокировки {@code ACCESS EXCLUSIVE}.
+     */
+    private void archive(Connection connection, Partition partition, boolean concurrently) throws SQLException {
+        detach(connection, partition, concurrently);
+        export(connection, partition.name());
+    }
+
+    /**
+     * Отсоединяет секцию от таблицы, если она ещё присоединена.
+     *
+     * @param connection   Соединение с базой данных.
+     * @param partition    Секция.
+     * @param concurrently Отсоединять ли секцию без блокировки {@code ACCESS EXCLUSIVE}.
+     */
+    private void detach(Connection connection, Partition partition, boolean concurrently) throws SQLException {
+        String sql = "ALTER TABLE " + TABLE + " DETACH PARTITION " + partition.name();
+        if (partition.detachPending()) execute(connection, sql + " FINALIZE");
+        else if (partition.attached()) execute(connection, concurrently ? sql + " CONCURRENTLY" : sql);
+    }
+
+    /**
+     * Выгружает отсоединённую секцию в сжатый файл и удаляет её.
+     *
+     * @param connection Соединение с базой данных.
+     * @param partition  Имя секции.
+     */
+    private void export(Connection connection, String partition) throws SQLException {
+        Path directory = Path.of(partitionProperties.getArchiveDirectory());
+        Path target = directory.resolve(partition + ".csv.gz");
+        Path temporary = directory.resolve(partition + ".csv.gz.tmp");
+        long rows;
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+                rows = connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("COPY " + partition + " TO STDOUT WITH (FORMAT csv, HEADER)", outputStream);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Partition {} is detached but was not archived and will be retried. Message: {}", partition, e.getMessage());
+            return;
+        }
+        execute(connection, "DROP TABLE " + partition);
+        archived.increment();
+        log.info("Partition archived. Partition: {}, rows: {}, file: {}", partition, rows, target);
+    }
+
+    /**
+     * Проверяет, есть ли у таблицы транзакций секция по умолчанию.
+     *
+     * @param connection Соединение с базой данных.
+     * @return {@code true}, если секция по умолчанию существует.
+     */
+    private boolean hasDefaultPartition(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT partdefid <> 0 FROM pg_partitioned_table WHERE partrelid = '" + TABLE + "'::regclass")) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    /**
+     * Возвращает секции таблицы транзакций, включая ранее отсоединённые, но не удалённые.
+     *
+     * @param connection Соединение с базой данных.
+     * @return Секции, упорядоченные по имени.
+     */
+    private List<Partition> listPartitions(Connection connection) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT c.relname, c.relispartition, COALESCE(i.inhdetachpending, false) FROM pg_class c " +
+                             "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                             "LEFT JOIN pg_inherits i ON i.inhrelid = c.oid " +
+                             "WHERE n.nspname = current_schema() AND c.relkind = 'r' " +
+                             "AND c.relname LIKE '" + PARTITION_PREFIX + "%' ORDER BY c.relname")) {
+            while (resultSet.next()) {
+                String name = resultSet.getString(1);
+                if (PARTITION_NAME.matcher(name).matches())
+                    partitions.add(new Partition(name, resultSet.getBoolean(2), resultSet.getBoolean(3)));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Формирует запрос создания месячной секции, если она ещё не существует.
+     *
+     * @param month Первый день месяца.
+     * @return SQL-запрос.
+     */
+    static String createPartitionSql(LocalDate month) {
+        return "CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + TABLE +
+                " FOR VALUES FROM ('" + month + "') TO ('" + month.plusMonths(1) + "')";
+    }
+
+    /**
+     * Возвращает имя секции для месяца.
+     *
+     * @param month Любой день месяца.
+     * @return Имя секции вида {@code transaction_pYYYY_MM}.
+     */
+    static String partitionName(LocalDate month) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(month);
+    }
+
+    /**
+     * Проверяет, вышла ли секция целиком за окно хранения.
+     *
+     * @param partition       Имя секции.
+     * @param today           Текущая дата.
+     * @param retentionMonths Количество хранимых полных месяцев до текущего.
+     * @return {@code true}, если все строки секции старше окна хранения.
+     */
+    static boolean isExpired(String partition, LocalDate today, int retentionMonths) {
+        Matcher matcher = PARTITION_NAME.matcher(partition);
+        if (!matcher.matches()) return false;
+        LocalDate end = LocalDate.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), 1).plusMonths(1);
+        return !end.isAfter(today.withDayOfMonth(1).minusMonths(retentionMonths));
+    }
+
+    /**
+     * Пытается захватить advisory-блокировку обслуживания без ожидания.
+     *
+     * @param connection Соединение с базой данных.
+     * @return {@code true}, если блокировка захвачена.
+     */
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT pg_try_advisory_lock(" + ADVISORY_LOCK_KEY + ")")) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    /**
+     * Освобождает advisory-блокировку обслуживания.
+     *
+     * @param connection Соединение с базой данных.
+     */
+    private void unlock(Connection connection) throws SQLException {
+        execute(connection, "SELECT pg_advisory_unlock(" + ADVISORY_LOCK_KEY + ")");
+    }
+
+    /**
+     * Выполняет запрос без результата.
+     *
+     * @param connection Соединение с базой данных.
+     * @param sql        SQL-запрос.
+     */
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * Секция таблицы транзакций.
+     *
+     * @param name          Имя секции.
+     * @param attached      Присоединена ли секция к таблице.
+     * @param detachPending Прервано ли отсоединение секции {@code CONCURRENTLY}.
+     */
+    private record Partition(String name, boolean attached, boolean detachPending) {
+    }
+}
@@ -0,0 +1,94 @@
+package ru.romanov.moneytransferservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.romanov.moneytransferservice.model.Money;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение {@link Money}, {@code double} и {@link BigDecimal} на операциях изменения баланса:
+ * проверка достаточности средств, списание и зачисление.
+ * <p>
+ * Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.romanov.moneytransferservice.benchmark.MoneyBenchmark}
+ * или из IDE через {@link #main(String[])}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+    private static final int OPERATIONS = 1_000;
+
+    private double doubleBalance;
+    private double doubleAmount;
+    private BigDecimal decimalBalance;
+    private BigDecimal decimalAmount;
+    private Money moneyBalance;
+    private Money moneyAmount;
+
+    @Setup
+    public void setUp() {
+        doubleBalance = 1_000_000.00;
+        doubleAmount = 12.34;
+        decimalBalance = new BigDecimal("1000000.00");
+        decimalAmount = new BigDecimal("12.34");
+        moneyBalance = Money.valueOf("1000000.00");
+        moneyAmount = Money.valueOf("12.34");
+    }
+
+    @Benchmark
+    public double doubleTransfer() {
+        double from = doubleBalance;
+        double to = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (from < doubleAmount) break;
+            from -= doubleAmount;
+            to += doubleAmount;
+        }
+        return from + to;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTransfer() {
+        BigDecimal from = decimalBalance;
+        BigDecimal to = BigDecimal.ZERO;
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (from.compareTo(decimalAmount) < 0) break;
+            from = from.subtract(decimalAmount);
+            to = to.add(decimalAmount);
+        }
+        return from.add(to);
+    }
+
+    @Benchmark
+    public Money moneyTransfer() {
+        Money from = moneyBalance;
+        Money to = Money.zero();
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (from.compareTo(moneyAmount) < 0) break;
+            from = from.minus(moneyAmount);
+            to = to.plus(moneyAmount);
+        }
+        return from.plus(to);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,168 @@
+package ru.romanov.moneytransferservice.benchmark;
+
+import org.apache.commons.validator.routines.EmailValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.romanov.moneytransferservice.model.dto.UserDto;
+import ru.romanov.moneytransferservice.model.dto.UserValidationResultDto;
+import ru.romanov.moneytransferservice.service.impl.ValidationServiceImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Сравнение {@link ValidationServiceImpl} с прежней реализацией на регулярных выражениях
+ * ({@link LegacyValidator}) на проверке одного пользователя, даты и пакета пользователей.
+ * <p>
+ * {@link #main(String[])} запускает замеры с профилировщиком {@link GCProfiler}:
+ * объём памяти, выделяемой за вызов, выводится в строках {@code gc.alloc.rate.norm}.
+ * Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.romanov.moneytransferservice.benchmark.ValidationBenchmark}
+ * или из IDE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    private final ValidationServiceImpl validationService = new ValidationServiceImpl();
+    private final LegacyValidator legacyValidator = new LegacyValidator();
+    private UserDto validUser;
+    private List<UserDto> batch;
+
+    @Setup
+    public void setUp() {
+        validUser = new UserDto("Иванов", "Иван", "Иванович", LocalDate.of(1990, 5, 17), "ivanov@example.com", "+79161234567");
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            // Каждый десятый пользователь невалиден
+            batch.add(i % 10 == 0
+                    ? new UserDto("Ivanov1", "Ivan", "", LocalDate.of(1990, 5, 17), "ivanov@", "12345")
+                    : validUser);
+        }
+    }
+
+    @Benchmark
+    public boolean legacyValidateUser() {
+        return legacyValidator.isUserDtoValidated(validUser);
+    }
+
+    @Benchmark
+    public boolean validateUser() {
+        return validationService.isUserDtoValidated(validUser);
+    }
+
+    @Benchmark
+    public boolean legacyValidateDate() {
+        return legacyValidator.isDateValidated("17.05.1990");
+    }
+
+    @Benchmark
+    public boolean validateDate() {
+        return validationService.isDateValidated("17.05.1990");
+    }
+
+    @Benchmark
+    public int legacyValidateBatch() {
+        int invalid = 0;
+        for (UserDto user : batch) {
+            if (!legacyValidator.isUserDtoValidated(user)) invalid++;
+        }
+        return invalid;
+    }
+
+    @Benchmark
+    public List<UserValidationResultDto> validateBatch() {
+        return validationService.validateAll(batch);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ValidationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * Прежняя реализация проверки: шаблоны дат компилируются при каждом вызове, строки и номера телефонов
+     * проверяются через {@link String#matches(String)}, а описание ошибок собирается конкатенацией строк.
+     * Журналирование невалидных пользователей не воспроизводится, чтобы не искажать замеры.
+     */
+    static class LegacyValidator {
+        private static final String REGEX_FOR_STRING_VALIDATION = "^[а-яА-Яa-zA-Z ]+$";
+        private static final String REGEX_FOR_PHONE = "(\\+7|8)\\d{10}";
+        private static final String[] DATE_PATTERNS = {
+                "^(\\d{2})\\.(\\d{2})\\.(\\d{4})$",
+                "^(\\d{2})-(\\d{2})-(\\d{4})$",
+                "^(\\d{2})/(\\d{2})/(\\d{4})$",
+                "^(\\d{4})\\.(\\d{2})\\.(\\d{2})$",
+                "^(\\d{4})-(\\d{2})-(\\d{2})$",
+                "^(\\d{4})/(\\d{2})/(\\d{2})$"
+        };
+
+        boolean isUserDtoValidated(UserDto userDto) {
+            boolean isValid = true;
+            String errorMessage = "";
+            if (!userDto.getLastName().matches(REGEX_FOR_STRING_VALIDATION)) {
+                errorMessage += "last name is invalid";
+                isValid = false;
+            }
+            if (!userDto.getFirstName().matches(REGEX_FOR_STRING_VALIDATION)) {
+                errorMessage += (errorMessage.isEmpty() ? "" : ", ") + "first name is invalid";
+                isValid = false;
+            }
+            if (!userDto.getPatronymicName().isEmpty() && !userDto.getPatronymicName().matches(REGEX_FOR_STRING_VALIDATION)) {
+                errorMessage += (errorMessage.isEmpty() ? "" : ", ") + "patronymic name is invalid";
+                isValid = false;
+            }
+            if (!isDateValidated(userDto.getBirthDate().toString())) {
+                errorMessage += (errorMessage.isEmpty() ? "" : ", ") + "birth date is invalid";
+                isValid = false;
+            }
+            if (!EmailValidator.getInstance().isValid(userDto.getEmail())) {
+                errorMessage += (errorMessage.isEmpty() ? "" : ", ") + "email is invalid";
+                isValid = false;
+            }
+            if (!userDto.getPhoneNumber().matches(REGEX_FOR_PHONE)) {
+                errorMessage += (errorMessage.isEmpty() ? "" : ", ") + "phone number is invalid";
+                isValid = false;
+            }
+            return isValid && errorMessage.isEmpty();
+        }
+
+        boolean isDateValidated(String date) {
+            for (String pattern : DATE_PATTERNS) {
+                var matcher = Pattern.compile(pattern).matcher(date);
+                if (matcher.matches()) {
+                    int year = Integer.parseInt(matcher.group(matcher.group(1).length() == 4 ? 1 : 3));
+                    int month = Integer.parseInt(matcher.group(2));
+                    int day = Integer.parseInt(matcher.group(matcher.group(1).length() == 4 ? 3 : 1));
+                    if (month < 1 || month > 12) continue;
+                    boolean leap = (year % 4 == 0 && year % 100 != 0) || (year % 400 == 0);
+                    int[] daysInMonth = {31, leap ? 29 : 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+                    if (1 <= day && day <= daysInMonth[month - 1]) return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ru.romanov.moneytransferservice.client;
+
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ru.romanov.moneytransferservice.config.ConverterResilienceProperties;
+import ru.romanov.moneytransferservice.exception.ServiceUnavailableException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResilientCurrencyConverterClientTest {
+
+    private static final Request REQUEST = Request.create(Request.HttpMethod.GET, "/api/currency/convert",
+            Map.of(), null, StandardCharsets.UTF_8, null);
+
+    @Mock
+    private CurrencyConverterClient currencyConverterClient;
+
+    private ConverterResilienceProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ResilientCurrencyConverterClient resilientClient;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new ConverterResilienceProperties();
+        properties.setInitialBackoff(Duration.ofMillis(1));
+        properties.setMinimumNumberOfCalls(2);
+        properties.setSlidingWindowSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        resilientClient = new ResilientCurrencyConverterClient(currencyConverterClient, properties, meterRegistry);
+    }
+
+    @Test
+    void convert_RetriesTransientError() {
+        when(currencyConverterClient.convert(eq("USD"), eq("EUR"), eq(1.0), any(Request.Options.class)))
+                .thenThrow(transientError())
+                .thenReturn(0.85);
+
+        assertEquals(0.85, resilientClient.convert("USD", "EUR", 1.0));
+
+        verify(currencyConverterClient, times(2)).convert(eq("USD"), eq("EUR"), eq(1.0), any(Request.Options.class));
+    }
+
+    @Test
+    void convert_PermanentErrorNotRetried() {
+        FeignException.BadRequest badRequest = new FeignException.BadRequest("Bad request", REQUEST, null, null);
+        when(currencyConverterClient.convert(eq("USD"), eq("XXX"), eq(1.0), any(Request.Options.class))).thenThrow(badRequest);
+
+        assertThrows(FeignException.BadRequest.class, () -> resilientClient.convert("USD", "XXX", 1.0));
+
+        verify(currencyConverterClient, times(1)).convert(eq("USD"), eq("XXX"), eq(1.0), any(Request.Options.class));
+    }
+
+    @Test
+    void convert_CircuitOpensAfterFailures() {
+        properties.setMaxAttempts(1);
+        when(currencyConverterClient.convert(eq("USD"), eq("EUR"), eq(1.0), any(Request.Options.class))).thenThrow(transientError());
+
+        assertThrows(ServiceUnavailableException.class, () -> resilientClient.convert("USD", "EUR", 1.0));
+        assertThrows(ServiceUnavailableException.class, () -> resilientClient.convert("USD", "EUR", 1.0));
+        ServiceUnavailableException rejected = assertThrows(ServiceUnavailableException.class,
+                () -> resilientClient.convert("USD", "EUR", 1.0));
+
+        assertTrue(rejected.getMessage().contains("circuit breaker is open"));
+        verify(currencyConverterClient, times(2)).convert(eq("USD"), eq("EUR"), eq(1.0), any(Request.Options.class));
+        assertEquals(1.0, meterRegistry.get("currency.converter.rejected").tag("reason", "circuit_open").counter().count());
+        assertEquals(1.0, meterRegistry.get("currency.converter.circuit.transitions").tag("to", "OPEN").counter().count());
+    }
+
+    @Test
+    void convert_TimeoutsFollowDeadline() {
+        properties.setDeadline(Duration.ofMillis(500));
+        when(currencyConverterClient.convert(eq("USD"), eq("EUR"), eq(1.0), any(Request.Options.class))).thenReturn(0.85);
+
+        resilientClient.convert("USD", "EUR", 1.0);
+
+        ArgumentCaptor<Request.Options> options = ArgumentCaptor.forClass(Request.Options.class);
+        verify(currencyConverterClient).convert(eq("USD"), eq("EUR"), eq(1.0), options.capture());
+        assertTrue(options.getValue().readTimeoutMillis() <= 500);
+        assertTrue(options.getValue().connectTimeoutMillis() <= 500);
+    }
+
+    @Test
+    void convert_DeadlineExceeded() {
+        properties.setInitialBackoff(Duration.ofMillis(200));
+        properties.setDeadline(Duration.ofMillis(50));
+        when(currencyConverterClient.convert(eq("USD"), eq("EUR"), eq(1.0), any(Request.Options.class))).thenThrow(transientError());
+
+        assertThrows(ServiceUnavailableException.class, () -> resilientClient.convert("USD", "EUR", 1.0));
+
+        verify(currencyConverterClient, times(1)).convert(eq("USD"), eq("EUR"), eq(1.0), any(Request.Options.class));
+    }
+
+    private RetryableException transientError() {
+        return new RetryableException(503, "Transient server error", Request.HttpMethod.GET, (Date) null, REQUEST);
+    }
+}
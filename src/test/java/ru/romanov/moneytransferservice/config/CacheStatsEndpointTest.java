@@ -0,0 +1,31 @@
+package ru.romanov.moneytransferservice.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CacheStatsEndpointTest {
+
+    @Test
+    void hitRatios_PerCache() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoadingCache<String, String> accounts = Caffeine.newBuilder().recordStats().build(key -> key);
+        LoadingCache<String, String> rates = Caffeine.newBuilder().recordStats().build(key -> key);
+        CaffeineCacheMetrics.monitor(meterRegistry, accounts, "accounts");
+        CaffeineCacheMetrics.monitor(meterRegistry, rates, "currency.rates");
+        accounts.get("A");
+        accounts.get("A");
+        accounts.get("A");
+        accounts.get("B");
+
+        Map<String, Double> ratios = new CacheStatsEndpoint(meterRegistry).hitRatios();
+
+        assertEquals(Map.of("accounts", 0.5, "currency.rates", 0.0), ratios);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.romanov.moneytransferservice.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestConcurrencyFilterTest {
+    private RequestConcurrencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        VirtualThreadProperties properties = new VirtualThreadProperties();
+        properties.setMaxConcurrentRequests(1);
+        properties.setAcquireTimeout(Duration.ofMillis(10));
+        filter = new RequestConcurrencyFilter(properties);
+    }
+
+    @Test
+    void doFilter_PassesWithinLimit() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/accounts"), response, (req, res) -> {});
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void doFilter_RejectsOverLimitWithRetryAfter() throws ServletException, IOException {
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        FilterChain holdingPermit = (req, res) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/accounts"), rejected, (r, s) -> {});
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/transactions"), new MockHttpServletResponse(), holdingPermit);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void doFilter_ReleasesPermitWhenChainFails() throws ServletException, IOException {
+        FilterChain failing = (req, res) -> {
+            throw new ServletException("boom");
+        };
+        assertThrows(ServletException.class, () ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/accounts"), new MockHttpServletResponse(), failing));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/accounts"), response, (req, res) -> {});
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+    }
+
+    @Test
+    void doFilter_HoldsPermitUntilAsyncRequestCompletes() throws ServletException, IOException {
+        MockHttpServletRequest asyncRequest = new MockHttpServletRequest("GET", "/accounts/1/export");
+        asyncRequest.setAsyncSupported(true);
+        filter.doFilter(asyncRequest, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/accounts"), rejected, (req, res) -> {});
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), rejected.getStatus());
+
+        asyncRequest.getAsyncContext().complete();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/accounts"), response, (req, res) -> {});
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+    }
+
+    @Test
+    void doFilter_ConnectionTimeoutRejectedWithRetryAfter() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain connectionTimeout = (req, res) -> {
+            throw new CannotCreateTransactionException("Could not open JPA EntityManager",
+                    new SQLTransientConnectionException("Connection is not available, request timed out"));
+        };
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/transactions"), response, connectionTimeout);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -5,22 +5,43 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.romanov.moneytransferservice.config.CurrencyCatalogProperties;
+import ru.romanov.moneytransferservice.config.TransactionExportProperties;
+import ru.romanov.moneytransferservice.enums.ExportFormatEnum;
+import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
 import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
 import ru.romanov.moneytransferservice.exception.CodeNotSupportedException;
 import ru.romanov.moneytransferservice.exception.UserNotFoundException;
+import ru.romanov.moneytransferservice.model.dto.CurrencyCatalogDto;
+import ru.romanov.moneytransferservice.model.dto.AccountInfoDto;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
 import ru.romanov.moneytransferservice.model.entity.Account;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
 import ru.romanov.moneytransferservice.service.AccountService;
+import ru.romanov.moneytransferservice.service.CurrencyCatalogService;
+import ru.romanov.moneytransferservice.service.TransactionExportService;
+import ru.romanov.moneytransferservice.service.TransactionHistoryService;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,6 +51,21 @@ class AccountControllerTest {
     @Mock
     private AccountService accountService;
 
+    @Mock
+    private CurrencyCatalogService currencyCatalogService;
+
+    @Mock
+    private TransactionExportService transactionExportService;
+
+    @Mock
+    private TransactionHistoryService transactionHistoryService;
+
+    @Spy
+    private CurrencyCatalogProperties currencyCatalogProperties = new CurrencyCatalogProperties();
+
+    @Spy
+    private TransactionExportProperties transactionExportProperties = new TransactionExportProperties();
+
     @InjectMocks
     private AccountController accountController;
 
@@ -72,60 +108,143 @@ class AccountControllerTest {
 
     @Test
     void testGetAccounts_Success() {
-        List<Account> accounts = List.of(new Account(), new Account());
-        when(accountService.getAccounts()).thenReturn(accounts);
+        CursorPage<Account> page = new CursorPage<>(List.of(new Account(), new Account()), "2");
+        when(accountService.getAccounts(null, 2, "12345", "USD")).thenReturn(page);
 
-        ResponseEntity<List<Account>> response = accountController.getAccounts();
+        ResponseEntity<CursorPage<Account>> response = accountController.getAccounts(null, 2, "12345", "USD");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(2, response.getBody().size());
-        verify(accountService, times(1)).getAccounts();
+        assertEquals(2, response.getBody().getItems().size());
+        assertEquals("2", response.getBody().getNext());
+        verify(accountService, times(1)).getAccounts(null, 2, "12345", "USD");
     }
 
     @Test
     void testGetAccounts_NoContent() {
-        when(accountService.getAccounts()).thenReturn(Collections.emptyList());
+        when(accountService.getAccounts(null, null, null, null)).thenReturn(new CursorPage<>(Collections.emptyList(), null));
 
-        ResponseEntity<List<Account>> response = accountController.getAccounts();
+        ResponseEntity<CursorPage<Account>> response = accountController.getAccounts(null, null, null, null);
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(accountService, times(1)).getAccounts();
+        verify(accountService, times(1)).getAccounts(null, null, null, null);
     }
 
     @Test
     void testGetSupportedCurrencyMap_Success() {
         Map<String, String> currencyMap = Map.of("USD", "United States Dollar", "EUR", "Euro");
-        when(accountService.getSupportedCurrencyMap()).thenReturn(currencyMap);
+        when(currencyCatalogService.getCatalog()).thenReturn(new CurrencyCatalogDto(currencyMap, "\"v1\"", Instant.now()));
 
-        ResponseEntity<Map<String, String>> response = accountController.getSupportedCurrencyMap();
+        ResponseEntity<Map<String, String>> response = accountController.getSupportedCurrencyMap(currencyMapRequest(null));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(2, response.getBody().size());
-        verify(accountService, times(1)).getSupportedCurrencyMap();
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        assertEquals("max-age=300, public", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void testGetSupportedCurrencyMap_NotModified() {
+        when(currencyCatalogService.getCatalog()).thenReturn(new CurrencyCatalogDto(Map.of("USD", "United States Dollar"), "\"v1\"", Instant.now()));
+
+        ResponseEntity<Map<String, String>> response = accountController.getSupportedCurrencyMap(currencyMapRequest("\"v1\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void testGetSupportedCurrencyMap_NotModifiedForWeakETagInList() {
+        when(currencyCatalogService.getCatalog()).thenReturn(new CurrencyCatalogDto(Map.of("USD", "United States Dollar"), "\"v1\"", Instant.now()));
+
+        ResponseEntity<Map<String, String>> response = accountController.getSupportedCurrencyMap(currencyMapRequest("\"v0\", W/\"v1\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
     }
 
     @Test
     void testGetAccount_Success() throws AccountNotFoundException {
         Account account = new Account();
-        when(accountService.getAccountByAccountNumber(anyString())).thenReturn(account);
+        when(accountService.getCurrentAccount(anyString())).thenReturn(account);
 
         ResponseEntity<Account> response = accountController.getAccount("12345");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        verify(accountService, times(1)).getAccountByAccountNumber(anyString());
+        verify(accountService, times(1)).getCurrentAccount(anyString());
     }
 
     @Test
     void testGetAccount_AccountNotFoundException() throws AccountNotFoundException {
-        when(accountService.getAccountByAccountNumber(anyString())).thenThrow(new AccountNotFoundException());
+        when(accountService.getCurrentAccount(anyString())).thenThrow(new AccountNotFoundException());
 
         ResponseEntity<Account> response = accountController.getAccount("99999");
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(accountService, times(1)).getAccountByAccountNumber(anyString());
+        verify(accountService, times(1)).getCurrentAccount(anyString());
+    }
+
+    @Test
+    void testGetTransactions_Success() {
+        CursorPage<Transaction> page = new CursorPage<>(List.of(new Transaction()), "cursor");
+        when(accountService.getAccountInfo("12345")).thenReturn(new AccountInfoDto(1L, "12345", "USD", "owner"));
+        when(transactionHistoryService.getAccountHistory("12345", null, null, TypeTransactionEnum.DEPOSIT, null, 10)).thenReturn(page);
+
+        ResponseEntity<CursorPage<Transaction>> response = accountController.getTransactions("12345", null, null, TypeTransactionEnum.DEPOSIT, null, 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    void testGetTransactions_AccountNotFoundException() {
+        when(accountService.getAccountInfo(anyString())).thenThrow(new AccountNotFoundException());
+
+        ResponseEntity<CursorPage<Transaction>> response = accountController.getTransactions("99999", null, null, null, null, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(transactionHistoryService, never()).getAccountHistory(anyString(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testExportTransactions_Csv() throws Exception {
+        when(accountService.getAccountInfo("12345")).thenReturn(new AccountInfoDto(1L, "12345", "USD", "owner"));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        WebAsyncTask<Void> task = accountController.exportTransactions("12345", "CSV", response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals("text/csv;charset=UTF-8", response.getContentType());
+        assertNotNull(task);
+        assertEquals(transactionExportProperties.getTimeout().toMillis(), task.getTimeout());
+        task.getCallable().call();
+        verify(transactionExportService, times(1)).exportAccountHistory("12345", ExportFormatEnum.CSV, response.getOutputStream());
+    }
+
+    @Test
+    void testExportTransactions_AccountNotFoundException() throws Exception {
+        when(accountService.getAccountInfo(anyString())).thenThrow(new AccountNotFoundException());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        WebAsyncTask<Void> task = accountController.exportTransactions("99999", "ndjson", response);
+
+        assertNull(task);
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+        verify(transactionExportService, never()).exportAccountHistory(anyString(), any(), any());
+    }
+
+    @Test
+    void testExportTransactions_UnsupportedFormat() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        WebAsyncTask<Void> task = accountController.exportTransactions("12345", "xml", response);
+
+        assertNull(task);
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
     }
 
     @Test
@@ -145,4 +264,10 @@ class AccountControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         verify(accountService, times(1)).deleteAccount(anyString());
     }
+
+    private ServletWebRequest currencyMapRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/accounts/supported-currency-map");
+        if (ifNoneMatch != null) request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
 }
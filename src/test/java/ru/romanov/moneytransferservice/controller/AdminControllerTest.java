@@ -0,0 +1,50 @@
+package ru.romanov.moneytransferservice.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.romanov.moneytransferservice.service.UserService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdminControllerTest {
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private AdminController adminController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void deleteUsers_Success() {
+        when(userService.deleteUsers(List.of(1L, 2L, 3L))).thenReturn(2);
+
+        ResponseEntity<String> response = adminController.deleteUsers(List.of(1L, 2L, 3L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Users deleted: 2", response.getBody());
+    }
+
+    @Test
+    void deleteUsers_BadRequest() {
+        ResponseEntity<String> response = adminController.deleteUsers(List.of());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(userService, times(0)).deleteUsers(anyList());
+    }
+}
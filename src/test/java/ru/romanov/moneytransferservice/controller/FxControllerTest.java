@@ -0,0 +1,52 @@
+package ru.romanov.moneytransferservice.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.romanov.moneytransferservice.model.dto.FxQuoteDto;
+import ru.romanov.moneytransferservice.service.FxQuoteService;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FxControllerTest {
+
+    @Mock
+    private FxQuoteService fxQuoteService;
+
+    @InjectMocks
+    private FxController fxController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void createQuote_Success() {
+        FxQuoteDto quote = new FxQuoteDto("quote-1", "USD", "EUR", 0.9, Instant.now());
+        when(fxQuoteService.createQuote("USD", "EUR")).thenReturn(quote);
+
+        ResponseEntity<FxQuoteDto> response = fxController.createQuote("usd", "eur");
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(quote, response.getBody());
+    }
+
+    @Test
+    void createQuote_BadRequest() {
+        ResponseEntity<FxQuoteDto> response = fxController.createQuote("USD", "usd");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(fxQuoteService, times(0)).createQuote(anyString(), anyString());
+    }
+}
@@ -7,12 +7,24 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import ru.romanov.moneytransferservice.enums.BatchTransferStatusEnum;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.dto.BatchTransferResultDto;
+import ru.romanov.moneytransferservice.model.dto.TransferRequestDto;
+import ru.romanov.moneytransferservice.model.entity.PendingTransfer;
 import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.service.AsyncTransferService;
+import ru.romanov.moneytransferservice.service.IdempotencyService;
 import ru.romanov.moneytransferservice.service.TransactionService;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -22,6 +34,12 @@ class TransactionControllerTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private AsyncTransferService asyncTransferService;
+
     @InjectMocks
     private TransactionController transactionController;
 
@@ -33,52 +51,114 @@ class TransactionControllerTest {
     @Test
     void transferMoney_Success() {
         Transaction transaction = new Transaction();
-        when(transactionService.transferMoney(anyString(), anyString(), anyDouble())).thenReturn(transaction);
+        when(transactionService.transferMoney(anyString(), anyString(), any(Money.class), isNull())).thenReturn(transaction);
 
-        ResponseEntity<Transaction> response = transactionController.transferMoney("123", "456", 100.0);
+        ResponseEntity<Transaction> response = transactionController.transferMoney("123", "456", Money.valueOf("100.0"), null, null);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(transaction, response.getBody());
-        verify(transactionService, times(1)).transferMoney("123", "456", 100.0);
+        verify(transactionService, times(1)).transferMoney("123", "456", Money.valueOf("100.0"), null);
+    }
+
+    @Test
+    void transferMoney_WithIdempotencyKey() {
+        Transaction transaction = new Transaction();
+        when(idempotencyService.execute(eq("key-1"), eq("transfer:123:456:100:null"), any(), any())).thenReturn(transaction);
+
+        ResponseEntity<Transaction> response = transactionController.transferMoney("123", "456", Money.valueOf("100.00"), null, "key-1");
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(transaction, response.getBody());
+        verify(transactionService, times(0)).transferMoney(anyString(), anyString(), any(Money.class), isNull());
     }
 
     @Test
     void transferMoney_BadRequest() {
-        ResponseEntity<Transaction> response = transactionController.transferMoney(null, null, 100.0);
+        ResponseEntity<Transaction> response = transactionController.transferMoney(null, null, Money.valueOf("100.0"), null, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        verify(transactionService, times(0)).transferMoney(anyString(), anyString(), anyDouble());
+        verify(transactionService, times(0)).transferMoney(anyString(), anyString(), any(Money.class), isNull());
     }
 
     @Test
     void transferMoney_Conflict() {
-        ResponseEntity<Transaction> response = transactionController.transferMoney("123", "123", 100.0);
+        ResponseEntity<Transaction> response = transactionController.transferMoney("123", "123", Money.valueOf("100.0"), null, null);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(transactionService, times(0)).transferMoney(anyString(), anyString(), any(Money.class), isNull());
+    }
+
+    @Test
+    void submitTransfer_Accepted() {
+        PendingTransfer transfer = new PendingTransfer();
+        when(asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.0"))).thenReturn(transfer);
+
+        ResponseEntity<PendingTransfer> response = transactionController.submitTransfer("123", "456", Money.valueOf("100.0"));
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(transfer, response.getBody());
+    }
+
+    @Test
+    void submitTransfer_Conflict() {
+        ResponseEntity<PendingTransfer> response = transactionController.submitTransfer("123", "123", Money.valueOf("100.0"));
 
         assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
-        verify(transactionService, times(0)).transferMoney(anyString(), anyString(), anyDouble());
+        verify(asyncTransferService, times(0)).submitTransfer(anyString(), anyString(), any(Money.class));
+    }
+
+    @Test
+    void getTransferStatus_Success() {
+        PendingTransfer transfer = new PendingTransfer();
+        when(asyncTransferService.getTransfer(1L)).thenReturn(transfer);
+
+        ResponseEntity<PendingTransfer> response = transactionController.getTransferStatus(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(transfer, response.getBody());
+    }
+
+    @Test
+    void transferMoneyBatch_Success() {
+        List<TransferRequestDto> transfers = List.of(new TransferRequestDto("123", "456", Money.valueOf("100.0")));
+        List<BatchTransferResultDto> results = List.of(new BatchTransferResultDto(0, BatchTransferStatusEnum.SUCCESS, new Transaction()));
+        when(transactionService.transferMoneyBatch(transfers)).thenReturn(results);
+
+        ResponseEntity<List<BatchTransferResultDto>> response = transactionController.transferMoneyBatch(transfers);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+
+    @Test
+    void transferMoneyBatch_BadRequest() {
+        ResponseEntity<List<BatchTransferResultDto>> response = transactionController.transferMoneyBatch(List.of());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(transactionService, times(0)).transferMoneyBatch(anyList());
     }
 
     @Test
     void depositMoney_Success() {
         Transaction transaction = new Transaction();
-        when(transactionService.depositMoney(anyString(), anyDouble())).thenReturn(transaction);
+        when(transactionService.depositMoney(anyString(), any(Money.class))).thenReturn(transaction);
 
-        ResponseEntity<Transaction> response = transactionController.depositMoney("456", 200.0);
+        ResponseEntity<Transaction> response = transactionController.depositMoney("456", Money.valueOf("200.0"), null);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(transaction, response.getBody());
-        verify(transactionService, times(1)).depositMoney("456", 200.0);
+        verify(transactionService, times(1)).depositMoney("456", Money.valueOf("200.0"));
     }
 
     @Test
     void debitMoney_Success() {
         Transaction transaction = new Transaction();
-        when(transactionService.debitMoney(anyString(), anyDouble())).thenReturn(transaction);
+        when(transactionService.debitMoney(anyString(), any(Money.class))).thenReturn(transaction);
 
-        ResponseEntity<Transaction> response = transactionController.debitMoney("123", 150.0);
+        ResponseEntity<Transaction> response = transactionController.debitMoney("123", Money.valueOf("150.0"), null);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(transaction, response.getBody());
-        verify(transactionService, times(1)).debitMoney("123", 150.0);
+        verify(transactionService, times(1)).debitMoney("123", Money.valueOf("150.0"));
     }
 }
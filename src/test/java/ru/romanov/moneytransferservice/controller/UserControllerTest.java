@@ -5,10 +5,19 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import ru.romanov.moneytransferservice.config.UserImportProperties;
+import ru.romanov.moneytransferservice.enums.ImportFormatEnum;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
 import ru.romanov.moneytransferservice.model.dto.UserDto;
 import ru.romanov.moneytransferservice.model.entity.User;
+import ru.romanov.moneytransferservice.service.UserImportService;
 import ru.romanov.moneytransferservice.service.UserService;
 import ru.romanov.moneytransferservice.service.ValidationService;
 
@@ -17,6 +26,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.any;
@@ -33,6 +44,12 @@ class UserControllerTest {
     @Mock
     private ValidationService validationService;
 
+    @Mock
+    private UserImportService userImportService;
+
+    @Spy
+    private UserImportProperties userImportProperties = new UserImportProperties();
+
     @InjectMocks
     private UserController userController;
 
@@ -70,14 +87,14 @@ class UserControllerTest {
 
     @Test
     void getUsers_Success() {
-        List<User> users = Arrays.asList(new User(), new User());
-        when(userService.getUsers()).thenReturn(users);
+        CursorPage<User> page = new CursorPage<>(Arrays.asList(new User(), new User()), null);
+        when(userService.getUsers(10L, 50)).thenReturn(page);
 
-        ResponseEntity<List<User>> response = userController.getUsers();
+        ResponseEntity<CursorPage<User>> response = userController.getUsers(10L, 50);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(users, response.getBody());
-        verify(userService, times(1)).getUsers();
+        assertEquals(page, response.getBody());
+        verify(userService, times(1)).getUsers(10L, 50);
     }
 
     @Test
@@ -114,4 +131,31 @@ class UserControllerTest {
         assertEquals("User deleted successfully.", response.getBody());
         verify(userService, times(1)).deleteUser(1L);
     }
+
+    @Test
+    void importUsers_Success() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent("lastName,firstName\n".getBytes());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        WebAsyncTask<Void> task = userController.importUsers("CSV", request, response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType());
+        assertNotNull(task);
+        assertEquals(userImportProperties.getTimeout().toMillis(), task.getTimeout());
+        task.getCallable().call();
+        verify(userImportService, times(1)).importUsers(ImportFormatEnum.CSV, request.getInputStream(), response.getOutputStream());
+    }
+
+    @Test
+    void importUsers_UnsupportedFormat() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        WebAsyncTask<Void> task = userController.importUsers("xml", new MockHttpServletRequest(), response);
+
+        assertNull(task);
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus());
+    }
 }
@@ -0,0 +1,58 @@
+package ru.romanov.moneytransferservice.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void plusMinus_ExactWithoutDrift() {
+        Money sum = Money.zero();
+        for (int i = 0; i < 10; i++) sum = sum.plus(Money.valueOf("0.1"));
+
+        assertEquals(Money.valueOf("1"), sum);
+        assertEquals(Money.valueOf("0.05"), Money.valueOf("0.1").minus(Money.valueOf("0.05")));
+    }
+
+    @Test
+    void equals_IgnoresScale() {
+        assertEquals(Money.valueOf("10.5"), Money.valueOf("10.50"));
+        assertEquals(Money.valueOf("10.5").hashCode(), Money.valueOf("10.50").hashCode());
+        assertTrue(Money.valueOf("10.49").compareTo(Money.valueOf("10.5")) < 0);
+    }
+
+    @Test
+    void plus_OverflowThrows() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, 2);
+
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1, 2)));
+    }
+
+    @Test
+    void roundTo_UsesCurrencyScale() {
+        assertEquals(new BigDecimal("10.12"), Money.valueOf("10.125").roundTo("USD").toBigDecimal());
+        assertEquals(new BigDecimal("10"), Money.valueOf("10.5").roundTo("JPY").toBigDecimal());
+        assertEquals(new BigDecimal("12"), Money.valueOf("11.5").roundTo("JPY").toBigDecimal());
+        assertEquals(new BigDecimal("1.00"), Money.valueOf("1").roundTo("XYZ").toBigDecimal());
+    }
+
+    @Test
+    void multiply_RoundsToTargetCurrency() {
+        assertEquals(new BigDecimal("85.00"), Money.valueOf("100").multiply(0.85, "EUR").toBigDecimal());
+        assertEquals(new BigDecimal("15000"), Money.valueOf("100").multiply(150.004, "JPY").toBigDecimal());
+    }
+
+    @Test
+    void json_SerializedAsNumber() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertEquals("12.30", objectMapper.writeValueAsString(Money.valueOf("12.30")));
+        assertEquals(Money.valueOf("12.3"), objectMapper.readValue("12.30", Money.class));
+    }
+}
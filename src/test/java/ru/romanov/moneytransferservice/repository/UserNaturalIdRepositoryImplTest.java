@@ -0,0 +1,58 @@
+package ru.romanov.moneytransferservice.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SimpleNaturalIdLoadAccess;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ru.romanov.moneytransferservice.model.entity.User;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserNaturalIdRepositoryImplTest {
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private SimpleNaturalIdLoadAccess<User> naturalIdLoadAccess;
+
+    private UserNaturalIdRepositoryImpl userNaturalIdRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userNaturalIdRepository = new UserNaturalIdRepositoryImpl(entityManager);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.bySimpleNaturalId(User.class)).thenReturn(naturalIdLoadAccess);
+    }
+
+    @Test
+    void findByUniqueNumber_LoadsByNaturalId() {
+        User user = new User();
+        when(naturalIdLoadAccess.loadOptional("UNIQUE12-UNIQUE12-UNIQUE12")).thenReturn(Optional.of(user));
+
+        Optional<User> result = userNaturalIdRepository.findByUniqueNumber("UNIQUE12-UNIQUE12-UNIQUE12");
+
+        assertEquals(Optional.of(user), result);
+        verify(entityManager, never()).createQuery(anyString());
+    }
+
+    @Test
+    void findByUniqueNumber_NotFound() {
+        when(naturalIdLoadAccess.loadOptional("UNKNOWN")).thenReturn(Optional.empty());
+
+        assertTrue(userNaturalIdRepository.findByUniqueNumber("UNKNOWN").isEmpty());
+    }
+}
@@ -1,21 +1,35 @@
 package ru.romanov.moneytransferservice.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import ru.romanov.moneytransferservice.client.CurrencyConverterClient;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import ru.romanov.moneytransferservice.config.AccountCacheProperties;
+import ru.romanov.moneytransferservice.config.LockingProperties;
+import ru.romanov.moneytransferservice.config.PaginationProperties;
 import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
 import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
 import ru.romanov.moneytransferservice.exception.InsufficientFundsException;
 import ru.romanov.moneytransferservice.exception.UserNotFoundException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.dto.AccountInfoDto;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
 import ru.romanov.moneytransferservice.model.entity.Account;
 import ru.romanov.moneytransferservice.model.entity.User;
 import ru.romanov.moneytransferservice.repository.AccountRepository;
 import ru.romanov.moneytransferservice.repository.UserRepository;
+import ru.romanov.moneytransferservice.service.CurrencyCatalogService;
+import ru.romanov.moneytransferservice.service.UniqueNumberGenerator;
+import ru.romanov.moneytransferservice.service.ledger.LedgerEngine;
 
-import java.util.Map;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -23,6 +37,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -37,7 +54,25 @@ class AccountServiceImplTest {
     private UserRepository userRepository;
 
     @Mock
-    private CurrencyConverterClient currencyConverterClient;
+    private CurrencyCatalogService currencyCatalogService;
+
+    @Mock
+    private UniqueNumberGenerator uniqueNumberGenerator;
+
+    @Spy
+    private LockingProperties lockingProperties = new LockingProperties();
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
+    @Spy
+    private AccountCacheProperties accountCacheProperties = new AccountCacheProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private ObjectProvider<LedgerEngine> ledgerEngineProvider;
 
     @InjectMocks
     private AccountServiceImpl accountService;
@@ -52,7 +87,7 @@ class AccountServiceImplTest {
         String currency = "USD";
 
         when(userRepository.findByUniqueNumber(anyString())).thenReturn(Optional.empty());
-        when(currencyConverterClient.supportedCurrencyMap()).thenReturn(Map.of(currency, "Dollar"));
+        when(currencyCatalogService.isSupported(currency)).thenReturn(true);
 
         assertThrows(UserNotFoundException.class, () -> accountService.createAccount(currency, "12345"));
 
@@ -69,19 +104,48 @@ class AccountServiceImplTest {
         user.setUniqueNumber(userUniqueNumber);
 
         when(userRepository.findByUniqueNumber(userUniqueNumber)).thenReturn(Optional.of(user));
-        when(currencyConverterClient.supportedCurrencyMap()).thenReturn(Map.of(currency, "Dollar"));
+        when(currencyCatalogService.isSupported(currency)).thenReturn(true);
         when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(uniqueNumberGenerator.generateAccountNumber()).thenReturn("ABCDEF-ABCDEF-ABCDEF-ABCDEF");
 
         Account account = accountService.createAccount(currency, userUniqueNumber);
 
         assertNotNull(account);
         assertEquals(userUniqueNumber, account.getOwnerUniqueNumber());
         assertEquals(currency, account.getCurrency());
+        assertEquals("ABCDEF-ABCDEF-ABCDEF-ABCDEF", account.getAccountNumber());
+        verify(accountRepository, never()).existsByAccountNumber(anyString());
 
         verify(accountRepository, times(1)).save(any(Account.class));
     }
 
 
+    @Test
+    void testGetAccounts_FiltersPushedToQuery() {
+        Account first = new Account();
+        first.setId(5L);
+        Account second = new Account();
+        second.setId(9L);
+        when(accountRepository.findByIdGreaterThanAndOwnerUniqueNumberAndCurrencyOrderByIdAsc(3L, "12345", "USD", Limit.of(2))).thenReturn(List.of(first, second));
+
+        CursorPage<Account> page = accountService.getAccounts(3L, 1, "12345", "usd");
+
+        assertEquals(List.of(first), page.getItems());
+        assertEquals("5", page.getNext());
+        verify(accountRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetAccounts_QueryPerFilterCombination() {
+        accountService.getAccounts(null, 10, null, null);
+        accountService.getAccounts(null, 10, "12345", null);
+        accountService.getAccounts(null, 10, null, "eur");
+
+        verify(accountRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(11));
+        verify(accountRepository).findByIdGreaterThanAndOwnerUniqueNumberOrderByIdAsc(0L, "12345", Limit.of(11));
+        verify(accountRepository).findByIdGreaterThanAndCurrencyOrderByIdAsc(0L, "EUR", Limit.of(11));
+    }
+
     @Test
     void testGetAccountByAccountNumber_AccountNotFoundException() {
         when(accountRepository.findByAccountNumber(anyString())).thenReturn(Optional.empty());
@@ -105,42 +169,185 @@ class AccountServiceImplTest {
     }
 
     @Test
-    void testUpdateAccountBalance_DebitInsufficientFundsException() {
+    void testGetCurrentAccount_BalanceFromLedger() {
         Account account = new Account();
         account.setAccountNumber("12345");
-        account.setBalance(50.0);
+        account.setBalance(Money.valueOf("10.00"));
+        LedgerEngine ledgerEngine = mock(LedgerEngine.class);
+        when(ledgerEngineProvider.getIfAvailable()).thenReturn(ledgerEngine);
+        when(ledgerEngine.getBalance("12345")).thenReturn(Money.valueOf("25.00"));
         when(accountRepository.findByAccountNumber("12345")).thenReturn(Optional.of(account));
 
-        assertThrows(InsufficientFundsException.class, () ->
-                accountService.updateAccountBalance("12345", TypeTransactionEnum.DEBIT, 100.0));
+        Account result = accountService.getCurrentAccount("12345");
 
-        verify(accountRepository, times(1)).findByAccountNumber("12345");
+        assertEquals(Money.valueOf("25.00"), result.getBalance());
     }
 
     @Test
-    void testUpdateAccountBalance_DepositSuccess() {
+    void testGetAccountInfo_CachedAfterFirstLookup() {
         Account account = new Account();
+        account.setId(1L);
         account.setAccountNumber("12345");
-        account.setBalance(50.0);
+        account.setCurrency("USD");
         when(accountRepository.findByAccountNumber("12345")).thenReturn(Optional.of(account));
 
-        accountService.updateAccountBalance("12345", TypeTransactionEnum.DEPOSIT, 50.0);
+        AccountInfoDto first = accountService.getAccountInfo("12345");
+        AccountInfoDto second = accountService.getAccountInfo("12345");
+
+        assertEquals("USD", second.getCurrency());
+        assertEquals(first, second);
+        verify(accountRepository, times(1)).findByAccountNumber("12345");
+        assertEquals(0.5, meterRegistry.get("accounts.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void testGetAccountInfo_AccountNotFoundException() {
+        when(accountRepository.findByAccountNumber(anyString())).thenReturn(Optional.empty());
 
-        verify(accountRepository, times(1)).save(account);
-        assertEquals(100.0, account.getBalance());
+        assertThrows(AccountNotFoundException.class, () -> accountService.getAccountInfo("99999"));
+    }
+
+    @Test
+    void testUpdateAccountBalance_DebitInsufficientFundsException() {
+        when(accountRepository.debitBalance("12345", Money.valueOf("100.0"))).thenReturn(0);
+        when(accountRepository.existsByAccountNumber("12345")).thenReturn(true);
+
+        assertThrows(InsufficientFundsException.class, () ->
+                accountService.updateAccountBalance("12345", TypeTransactionEnum.DEBIT, Money.valueOf("100.0")));
+
+        verify(accountRepository, times(1)).debitBalance("12345", Money.valueOf("100.0"));
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void testUpdateAccountBalance_DebitAccountNotFoundException() {
+        when(accountRepository.debitBalance("99999", Money.valueOf("100.0"))).thenReturn(0);
+        when(accountRepository.existsByAccountNumber("99999")).thenReturn(false);
+
+        assertThrows(AccountNotFoundException.class, () ->
+                accountService.updateAccountBalance("99999", TypeTransactionEnum.DEBIT, Money.valueOf("100.0")));
+    }
+
+    @Test
+    void testUpdateAccountBalance_DepositAccountNotFoundException() {
+        when(accountRepository.creditBalance("99999", Money.valueOf("50.0"))).thenReturn(0);
+
+        assertThrows(AccountNotFoundException.class, () ->
+                accountService.updateAccountBalance("99999", TypeTransactionEnum.DEPOSIT, Money.valueOf("50.0")));
+    }
+
+    @Test
+    void testUpdateAccountBalance_DepositSuccess() {
+        when(accountRepository.creditBalance("12345", Money.valueOf("50.0"))).thenReturn(1);
+
+        accountService.updateAccountBalance("12345", TypeTransactionEnum.DEPOSIT, Money.valueOf("50.0"));
+
+        verify(accountRepository, times(1)).creditBalance("12345", Money.valueOf("50.0"));
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        verify(accountRepository, never()).save(any(Account.class));
     }
 
     @Test
     void testUpdateAccountBalance_DebitSuccess() {
+        when(accountRepository.debitBalance("12345", Money.valueOf("50.0"))).thenReturn(1);
+
+        accountService.updateAccountBalance("12345", TypeTransactionEnum.DEBIT, Money.valueOf("50.0"));
+
+        verify(accountRepository, times(1)).debitBalance("12345", Money.valueOf("50.0"));
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        verify(accountRepository, never()).existsByAccountNumber(anyString());
+    }
+
+    @Test
+    void testRefreshContendedAccounts_PublishesTopAccounts() {
+        lockingProperties.setEnabled(true);
+        lockingProperties.setContendedAccounts(2);
+        when(accountRepository.findForUpdateByAccountNumber(anyString())).thenReturn(Optional.of(new Account()));
+        accountService.lockAccounts("A", "B", "C");
+
+        accountService.refreshContendedAccounts();
+
+        assertEquals(2, meterRegistry.find("account.lock.wait.top").gauges().size());
+        accountService.refreshContendedAccounts();
+        assertEquals(0, meterRegistry.find("account.lock.wait.top").gauges().size());
+    }
+
+    @Test
+    void testLockAccounts_Disabled() {
+        accountService.lockAccounts("B", "A");
+
+        verify(accountRepository, never()).findForUpdateByAccountNumber(anyString());
+    }
+
+    @Test
+    void testLockAccounts_LocksInCanonicalOrder() {
+        lockingProperties.setEnabled(true);
+        when(accountRepository.findForUpdateByAccountNumber(anyString())).thenReturn(Optional.of(new Account()));
+
+        accountService.lockAccounts("B", "A");
+
+        InOrder order = inOrder(accountRepository);
+        order.verify(accountRepository).setLocalLockTimeout("3000ms");
+        order.verify(accountRepository).findForUpdateByAccountNumber("A");
+        order.verify(accountRepository).findForUpdateByAccountNumber("B");
+        assertEquals(2, meterRegistry.get("account.lock.wait").tag("scope", "single").timer().count());
+    }
+
+    @Test
+    void testLockAccounts_AccountNotFoundException() {
+        lockingProperties.setEnabled(true);
+        when(accountRepository.findForUpdateByAccountNumber(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class, () -> accountService.lockAccounts("A", "B"));
+    }
+
+    @Test
+    void testCloseAccounts_SetBased() {
         Account account = new Account();
         account.setAccountNumber("12345");
-        account.setBalance(100.0);
-        when(accountRepository.findByAccountNumber("12345")).thenReturn(Optional.of(account));
+        List<String> owners = List.of("OWNER-1", "OWNER-2");
+        when(accountRepository.findAllForUpdateByOwnerUniqueNumberIn(owners)).thenReturn(List.of(account));
+        when(accountRepository.insertClosingDebits(any(), any())).thenReturn(1);
+        when(accountRepository.deleteAllByOwners(owners)).thenReturn(1);
+
+        int closed = accountService.closeAccounts(owners);
+
+        assertEquals(1, closed);
+        InOrder order = inOrder(accountRepository);
+        order.verify(accountRepository).findAllForUpdateByOwnerUniqueNumberIn(owners);
+        order.verify(accountRepository).insertClosingDebits(any(), any());
+        order.verify(accountRepository).deleteAllByOwners(owners);
+        verify(accountRepository, never()).deleteById(any());
+        verify(accountRepository, never()).findAccountNumbersByOwnerUniqueNumberIn(any());
+    }
+
+    @Test
+    void testCloseAccounts_ClosedInLedgerBeforeLocking() {
+        LedgerEngine ledgerEngine = mock(LedgerEngine.class);
+        when(ledgerEngineProvider.getIfAvailable()).thenReturn(ledgerEngine);
+        Account account = new Account();
+        account.setAccountNumber("12345");
+        List<String> owners = List.of("OWNER-1");
+        when(accountRepository.findAccountNumbersByOwnerUniqueNumberIn(owners)).thenReturn(List.of("12345"));
+        when(accountRepository.findAllForUpdateByOwnerUniqueNumberIn(owners)).thenReturn(List.of(account));
+
+        accountService.closeAccounts(owners);
 
-        accountService.updateAccountBalance("12345", TypeTransactionEnum.DEBIT, 50.0);
+        InOrder order = inOrder(ledgerEngine, accountRepository);
+        order.verify(accountRepository).findAccountNumbersByOwnerUniqueNumberIn(owners);
+        order.verify(ledgerEngine).closeAccounts(List.of("12345"));
+        order.verify(accountRepository).findAllForUpdateByOwnerUniqueNumberIn(owners);
+        order.verify(accountRepository).deleteAllByOwners(owners);
+    }
+
+    @Test
+    void testCloseAccounts_NoAccounts() {
+        when(accountRepository.findAllForUpdateByOwnerUniqueNumberIn(any())).thenReturn(List.of());
 
-        verify(accountRepository, times(1)).save(account);
-        assertEquals(50.0, account.getBalance());
+        assertEquals(0, accountService.closeAccounts(List.of("OWNER-1")));
+
+        verify(accountRepository, never()).insertClosingDebits(any(), any());
+        verify(accountRepository, never()).deleteAllByOwners(any());
     }
 
     @Test
@@ -160,13 +367,44 @@ class AccountServiceImplTest {
         Account account = new Account();
         account.setId(accountId);
         account.setAccountNumber(accountNumber);
-        account.setBalance(0.0);
+        account.setBalance(Money.valueOf("0.0"));
 
         when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
 
+        accountService.getAccountInfo(accountNumber);
         accountService.deleteAccount(accountNumber);
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.empty());
 
-        verify(accountRepository, times(1)).findByAccountNumber(accountNumber);
+        assertThrows(AccountNotFoundException.class, () -> accountService.getAccountInfo(accountNumber));
         verify(accountRepository, times(1)).deleteById(accountId);
     }
+
+    @Test
+    void testDeleteAccount_ReopenedInLedgerWhenCloseFails() {
+        LedgerEngine ledgerEngine = mock(LedgerEngine.class);
+        when(ledgerEngineProvider.getIfAvailable()).thenReturn(ledgerEngine);
+        doThrow(new IllegalStateException("Ledger journal is not flushed")).when(ledgerEngine).closeAccounts(List.of("12345"));
+
+        assertThrows(IllegalStateException.class, () -> accountService.deleteAccount("12345"));
+
+        verify(ledgerEngine).reopenAccounts(List.of("12345"));
+        verify(accountRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void testDeleteAccount_ClosedInLedgerBeforeDelete() {
+        LedgerEngine ledgerEngine = mock(LedgerEngine.class);
+        when(ledgerEngineProvider.getIfAvailable()).thenReturn(ledgerEngine);
+        Account account = new Account();
+        account.setId(1L);
+        account.setAccountNumber("12345");
+        account.setBalance(Money.valueOf("0.0"));
+        when(accountRepository.findByAccountNumber("12345")).thenReturn(Optional.of(account));
+
+        accountService.deleteAccount("12345");
+
+        InOrder order = inOrder(ledgerEngine, accountRepository);
+        order.verify(ledgerEngine).closeAccounts(List.of("12345"));
+        order.verify(accountRepository).deleteById(1L);
+    }
 }
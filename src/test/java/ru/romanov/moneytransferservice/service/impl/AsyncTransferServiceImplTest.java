@@ -0,0 +1,265 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.romanov.moneytransferservice.config.AsyncTransferProperties;
+import ru.romanov.moneytransferservice.config.LockingProperties;
+import ru.romanov.moneytransferservice.enums.TransferStatusEnum;
+import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
+import ru.romanov.moneytransferservice.exception.InsufficientFundsException;
+import ru.romanov.moneytransferservice.exception.InvalidAmountException;
+import ru.romanov.moneytransferservice.exception.PendingTransferNotFoundException;
+import ru.romanov.moneytransferservice.exception.ServiceUnavailableException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.dto.AccountInfoDto;
+import ru.romanov.moneytransferservice.model.dto.PreparedTransferDto;
+import ru.romanov.moneytransferservice.model.entity.PendingTransfer;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.PendingTransferRepository;
+import ru.romanov.moneytransferservice.service.AccountService;
+import ru.romanov.moneytransferservice.service.TransactionService;
+import ru.romanov.moneytransferservice.service.ledger.LedgerEngine;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncTransferServiceImplTest {
+    private static final PreparedTransferDto PREPARED =
+            new PreparedTransferDto("123", "456", "USD", Money.valueOf("100.0"), Money.valueOf("100.0"));
+
+    @Mock
+    private PendingTransferRepository pendingTransferRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<LedgerEngine> ledgerEngineProvider;
+
+    private final AsyncTransferProperties asyncTransferProperties = new AsyncTransferProperties();
+
+    private AsyncTransferServiceImpl asyncTransferService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        LockingProperties lockingProperties = new LockingProperties();
+        lockingProperties.setRetryDelay(1);
+        asyncTransferService = new AsyncTransferServiceImpl(pendingTransferRepository, transactionService, accountService,
+                transactionManager, lockingProperties, asyncTransferProperties, ledgerEngineProvider);
+        when(pendingTransferRepository.save(any(PendingTransfer.class))).thenAnswer(invocation -> {
+            PendingTransfer transfer = invocation.getArgument(0);
+            transfer.setId(1L);
+            when(pendingTransferRepository.findById(1L)).thenReturn(Optional.of(transfer));
+            return transfer;
+        });
+        when(pendingTransferRepository.claim(eq(1L), any())).thenReturn(1);
+        when(pendingTransferRepository.complete(eq(1L), any(), any())).thenReturn(1);
+        when(transactionService.prepareTransfer("123", "456", Money.valueOf("100.0"), null)).thenReturn(PREPARED);
+        when(accountService.getAccountInfo("123")).thenReturn(new AccountInfoDto(1L, "123", "USD", "U1"));
+        when(accountService.getAccountInfo("456")).thenReturn(new AccountInfoDto(2L, "456", "USD", "U2"));
+    }
+
+    @Test
+    void submitTransfer_Completed() throws InterruptedException {
+        Transaction transaction = new Transaction();
+        transaction.setId(10L);
+        when(transactionService.transferMoney(PREPARED)).thenReturn(transaction);
+
+        PendingTransfer transfer = asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.0"));
+        asyncTransferService.shutdown();
+
+        assertEquals(TransferStatusEnum.PENDING, transfer.getStatus());
+        verify(pendingTransferRepository).complete(eq(1L), eq(10L), any());
+        verify(pendingTransferRepository, never()).fail(any(), anyString(), any());
+    }
+
+    @Test
+    void submitTransfer_AccountNotFoundException() {
+        when(accountService.getAccountInfo("456")).thenThrow(new AccountNotFoundException());
+
+        assertThrows(AccountNotFoundException.class, () -> asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.0")));
+
+        verify(pendingTransferRepository, never()).save(any());
+    }
+
+    @Test
+    void submitTransfer_AmountRoundedToAccountCurrency() throws InterruptedException {
+        PendingTransfer transfer = asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.004"));
+        asyncTransferService.shutdown();
+
+        assertEquals(2, transfer.getAmount().getScale());
+        assertEquals(Money.valueOf("100.00"), transfer.getAmount());
+    }
+
+    @Test
+    void submitTransfer_InvalidAmountException() {
+        assertThrows(InvalidAmountException.class, () -> asyncTransferService.submitTransfer("123", "456", Money.valueOf("0.004")));
+
+        verify(pendingTransferRepository, never()).save(any());
+    }
+
+    @Test
+    void submitTransfer_BacklogFullRejected() throws InterruptedException {
+        asyncTransferProperties.setMaxBacklog(1);
+        asyncTransferService = new AsyncTransferServiceImpl(pendingTransferRepository, transactionService, accountService,
+                transactionManager, new LockingProperties(), asyncTransferProperties, ledgerEngineProvider);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionService.prepareTransfer("123", "456", Money.valueOf("100.0"), null)).thenAnswer(invocation -> {
+            release.await();
+            return PREPARED;
+        });
+        when(transactionService.transferMoney(PREPARED)).thenReturn(new Transaction());
+
+        asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.0"));
+        assertThrows(ServiceUnavailableException.class, () -> asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.0")));
+        release.countDown();
+        asyncTransferService.shutdown();
+
+        verify(pendingTransferRepository, times(1)).save(any());
+    }
+
+    @Test
+    void submitTransfer_PreparedBeforeTransaction() throws InterruptedException {
+        when(transactionService.transferMoney(PREPARED)).thenReturn(new Transaction());
+
+        asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.0"));
+        asyncTransferService.shutdown();
+
+        var order = inOrder(transactionService, transactionManager);
+        order.verify(transactionService).prepareTransfer("123", "456", Money.valueOf("100.0"), null);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(transactionService).transferMoney(PREPARED);
+        verify(transactionService, never()).transferMoney(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void submitTransfer_PrepareFailedWithoutTransaction() throws InterruptedException {
+        when(transactionService.prepareTransfer("123", "456", Money.valueOf("100.0"), null))
+                .thenThrow(new ServiceUnavailableException("Currency converter is unavailable", null));
+
+        asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.0"));
+        asyncTransferService.shutdown();
+
+        verify(transactionManager, never()).getTransaction(any());
+        verify(pendingTransferRepository).fail(eq(1L), eq("Currency converter is unavailable"), any());
+    }
+
+    @Test
+    void submitTransfer_Failed() throws InterruptedException {
+        when(transactionService.transferMoney(PREPARED)).thenThrow(new InsufficientFundsException());
+
+        asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.0"));
+        asyncTransferService.shutdown();
+
+        verify(pendingTransferRepository).fail(eq(1L), eq("Insufficient funds"), any());
+    }
+
+    @Test
+    void submitTransfer_RetriedOnLockTimeout() throws InterruptedException {
+        when(transactionService.transferMoney(PREPARED))
+                .thenThrow(new PessimisticLockingFailureException("lock timeout"))
+                .thenReturn(new Transaction());
+
+        asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.0"));
+        asyncTransferService.shutdown();
+
+        verify(transactionService, times(1)).prepareTransfer("123", "456", Money.valueOf("100.0"), null);
+        verify(transactionService, times(2)).transferMoney(PREPARED);
+        verify(pendingTransferRepository).complete(eq(1L), any(), any());
+    }
+
+    @Test
+    void submitTransfer_NotExecutedWhenClaimedElsewhere() throws InterruptedException {
+        when(pendingTransferRepository.claim(eq(1L), any())).thenReturn(0);
+
+        asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.0"));
+        asyncTransferService.shutdown();
+
+        verify(transactionService, never()).prepareTransfer(anyString(), anyString(), any(), any());
+        verify(transactionService, never()).transferMoney(any());
+    }
+
+    @Test
+    void submitTransfer_NotRetriedInShardedMode() throws InterruptedException {
+        when(ledgerEngineProvider.getIfAvailable()).thenReturn(mock(LedgerEngine.class));
+        when(transactionService.transferMoney(PREPARED))
+                .thenThrow(new PessimisticLockingFailureException("lock timeout"))
+                .thenReturn(new Transaction());
+
+        asyncTransferService.submitTransfer("123", "456", Money.valueOf("100.0"));
+        asyncTransferService.shutdown();
+
+        verify(transactionService, times(1)).transferMoney(PREPARED);
+        verify(pendingTransferRepository).fail(eq(1L), eq("lock timeout"), any());
+    }
+
+    @Test
+    void resumePendingTransfers_StaleRunningReleasedInJpaMode() {
+        asyncTransferService.resumePendingTransfers();
+
+        verify(pendingTransferRepository).releaseStale(any(), any());
+        verify(pendingTransferRepository, never()).failStale(anyString(), any(), any());
+    }
+
+    @Test
+    void resumePendingTransfers_StaleRunningFailedInShardedMode() {
+        when(ledgerEngineProvider.getIfAvailable()).thenReturn(mock(LedgerEngine.class));
+
+        asyncTransferService.resumePendingTransfers();
+
+        verify(pendingTransferRepository).failStale(anyString(), any(), any());
+        verify(pendingTransferRepository, never()).releaseStale(any(), any());
+    }
+
+    @Test
+    void resumePendingTransfers_Success() throws InterruptedException {
+        PendingTransfer transfer = new PendingTransfer();
+        transfer.setId(1L);
+        transfer.setFromAccountNumber("123");
+        transfer.setToAccountNumber("456");
+        transfer.setAmount(Money.valueOf("50.0"));
+        transfer.setStatus(TransferStatusEnum.PENDING);
+        when(pendingTransferRepository.findIdsByStatus(TransferStatusEnum.PENDING)).thenReturn(List.of(1L));
+        when(pendingTransferRepository.findById(1L)).thenReturn(Optional.of(transfer));
+        PreparedTransferDto prepared = new PreparedTransferDto("123", "456", "USD", Money.valueOf("50.0"), Money.valueOf("50.0"));
+        when(transactionService.prepareTransfer("123", "456", Money.valueOf("50.0"), null)).thenReturn(prepared);
+        when(transactionService.transferMoney(prepared)).thenReturn(new Transaction());
+
+        asyncTransferService.resumePendingTransfers();
+        asyncTransferService.shutdown();
+
+        verify(transactionService).transferMoney(prepared);
+    }
+
+    @Test
+    void getTransfer_PendingTransferNotFoundException() {
+        when(pendingTransferRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(PendingTransferNotFoundException.class, () -> asyncTransferService.getTransfer(2L));
+    }
+}
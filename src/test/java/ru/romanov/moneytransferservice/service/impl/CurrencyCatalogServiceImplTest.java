@@ -0,0 +1,80 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ru.romanov.moneytransferservice.client.ResilientCurrencyConverterClient;
+import ru.romanov.moneytransferservice.model.dto.CurrencyCatalogDto;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CurrencyCatalogServiceImplTest {
+
+    @Mock
+    private ResilientCurrencyConverterClient currencyConverterClient;
+
+    private CurrencyCatalogServiceImpl currencyCatalogService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        currencyCatalogService = new CurrencyCatalogServiceImpl(currencyConverterClient, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void getCatalog_LoadedOnce() {
+        when(currencyConverterClient.supportedCurrencyMap()).thenReturn(Map.of("USD", "Dollar"));
+
+        assertTrue(currencyCatalogService.isSupported("USD"));
+        assertFalse(currencyCatalogService.isSupported("EUR"));
+
+        verify(currencyConverterClient, times(1)).supportedCurrencyMap();
+    }
+
+    @Test
+    void refresh_KeepsLastKnownGoodOnFailure() {
+        when(currencyConverterClient.supportedCurrencyMap())
+                .thenReturn(Map.of("USD", "Dollar"))
+                .thenThrow(new RuntimeException("Converter is down"));
+        currencyCatalogService.refresh();
+        CurrencyCatalogDto loaded = currencyCatalogService.getCatalog();
+
+        currencyCatalogService.refresh();
+
+        assertSame(loaded, currencyCatalogService.getCatalog());
+        assertTrue(currencyCatalogService.isSupported("USD"));
+    }
+
+    @Test
+    void refresh_ChangesVersion() {
+        when(currencyConverterClient.supportedCurrencyMap())
+                .thenReturn(Map.of("USD", "Dollar"))
+                .thenReturn(Map.of("USD", "Dollar", "EUR", "Euro"));
+        currencyCatalogService.refresh();
+        String etag = currencyCatalogService.getCatalog().getEtag();
+
+        currencyCatalogService.refresh();
+
+        assertNotEquals(etag, currencyCatalogService.getCatalog().getEtag());
+        assertEquals(2, currencyCatalogService.getCatalog().getCurrencies().size());
+    }
+
+    @Test
+    void getCatalog_UnavailableBeforeFirstLoad() {
+        when(currencyConverterClient.supportedCurrencyMap()).thenThrow(new RuntimeException("Converter is down"));
+
+        assertThrows(RuntimeException.class, () -> currencyCatalogService.getCatalog());
+    }
+}
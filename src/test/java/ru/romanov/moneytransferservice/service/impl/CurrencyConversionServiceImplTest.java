@@ -0,0 +1,102 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.client.ResilientCurrencyConverterClient;
+import ru.romanov.moneytransferservice.config.CurrencyRateProperties;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CurrencyConversionServiceImplTest {
+
+    @Mock
+    private ResilientCurrencyConverterClient currencyConverterClient;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CurrencyConversionServiceImpl currencyConversionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        currencyConversionService = new CurrencyConversionServiceImpl(currencyConverterClient, new CurrencyRateProperties(), meterRegistry);
+    }
+
+    @Test
+    void convert_RateCachedPerPair() {
+        when(currencyConverterClient.convert("USD", "EUR", 1.0)).thenReturn(0.85);
+
+        assertEquals(Money.valueOf("85.00"), currencyConversionService.convert("USD", "EUR", Money.valueOf("100")));
+        assertEquals(Money.valueOf("170.00"), currencyConversionService.convert("USD", "EUR", Money.valueOf("200")));
+
+        verify(currencyConverterClient, times(1)).convert("USD", "EUR", 1.0);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "currency.rates").tag("result", "hit").functionCounter().count());
+        assertNotNull(meterRegistry.get("currency.rates.staleness").gauge());
+    }
+
+    @Test
+    void convert_SameCurrencyWithoutRemoteCall() {
+        assertEquals(Money.valueOf("100.00"), currencyConversionService.convert("USD", "USD", Money.valueOf("100")));
+
+        verify(currencyConverterClient, never()).convert(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void convert_InvalidRate() {
+        when(currencyConverterClient.convert("USD", "EUR", 1.0)).thenReturn(null);
+
+        assertThrows(IllegalStateException.class, () -> currencyConversionService.convert("USD", "EUR", Money.valueOf("100")));
+    }
+
+    @Test
+    void getRate_ConcurrentMissesCollapsed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(currencyConverterClient.convert("USD", "EUR", 1.0)).thenAnswer(invocation -> {
+            release.await();
+            return 0.85;
+        });
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<Double>> results = IntStream.range(0, 8)
+                    .mapToObj(i -> executor.submit(() -> currencyConversionService.getRate("USD", "EUR")))
+                    .toList();
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<Double> result : results) assertEquals(0.85, result.get());
+        }
+
+        verify(currencyConverterClient, times(1)).convert("USD", "EUR", 1.0);
+        assertEquals(1 - 1.0 / 8, meterRegistry.get("currency.rates.dedup.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void getRate_FailureMemoizedPerPair() {
+        when(currencyConverterClient.convert("USD", "EUR", 1.0)).thenReturn(null);
+        when(currencyConverterClient.convert("USD", "GBP", 1.0)).thenReturn(0.75);
+
+        assertThrows(IllegalStateException.class, () -> currencyConversionService.getRate("USD", "EUR"));
+        assertThrows(IllegalStateException.class, () -> currencyConversionService.getRate("USD", "EUR"));
+        assertEquals(0.75, currencyConversionService.getRate("USD", "GBP"));
+
+        verify(currencyConverterClient, times(1)).convert("USD", "EUR", 1.0);
+    }
+}
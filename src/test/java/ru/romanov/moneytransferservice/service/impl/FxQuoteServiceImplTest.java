@@ -0,0 +1,66 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ru.romanov.moneytransferservice.config.FxQuoteProperties;
+import ru.romanov.moneytransferservice.exception.QuoteMismatchException;
+import ru.romanov.moneytransferservice.exception.QuoteNotFoundException;
+import ru.romanov.moneytransferservice.model.dto.FxQuoteDto;
+import ru.romanov.moneytransferservice.service.CurrencyConversionService;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FxQuoteServiceImplTest {
+
+    @Mock
+    private CurrencyConversionService currencyConversionService;
+
+    private FxQuoteProperties fxQuoteProperties;
+
+    private FxQuoteServiceImpl fxQuoteService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        fxQuoteProperties = new FxQuoteProperties();
+        fxQuoteService = new FxQuoteServiceImpl(currencyConversionService, fxQuoteProperties);
+        when(currencyConversionService.getRate("USD", "EUR")).thenReturn(0.9);
+    }
+
+    @Test
+    void getQuote_RateLockedWithoutRemoteCall() {
+        FxQuoteDto quote = fxQuoteService.createQuote("USD", "EUR");
+        when(currencyConversionService.getRate("USD", "EUR")).thenReturn(0.5);
+
+        assertEquals(0.9, fxQuoteService.getQuote(quote.getId(), "USD", "EUR").getRate());
+        verify(currencyConversionService, times(1)).getRate("USD", "EUR");
+    }
+
+    @Test
+    void getQuote_QuoteMismatchException() {
+        FxQuoteDto quote = fxQuoteService.createQuote("USD", "EUR");
+
+        assertThrows(QuoteMismatchException.class, () -> fxQuoteService.getQuote(quote.getId(), "USD", "GBP"));
+    }
+
+    @Test
+    void getQuote_QuoteNotFoundException() {
+        assertThrows(QuoteNotFoundException.class, () -> fxQuoteService.getQuote("unknown", "USD", "EUR"));
+    }
+
+    @Test
+    void getQuote_Expired() {
+        fxQuoteProperties.setTtl(Duration.ofMillis(-1));
+        FxQuoteDto quote = fxQuoteService.createQuote("USD", "EUR");
+
+        assertThrows(QuoteNotFoundException.class, () -> fxQuoteService.getQuote(quote.getId(), "USD", "EUR"));
+    }
+}
@@ -0,0 +1,205 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.romanov.moneytransferservice.config.IdempotencyProperties;
+import ru.romanov.moneytransferservice.enums.IdempotencyStatusEnum;
+import ru.romanov.moneytransferservice.exception.IdempotencyKeyInProgressException;
+import ru.romanov.moneytransferservice.exception.IdempotencyKeyMismatchException;
+import ru.romanov.moneytransferservice.exception.InsufficientFundsException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.entity.IdempotencyKey;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.IdempotencyKeyRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceImplTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyServiceImpl(idempotencyKeyRepository, new IdempotencyProperties(), objectMapper, transactionTemplate);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(idempotencyKeyRepository.reserve(anyString(), anyString(), any())).thenReturn(1);
+    }
+
+    @Test
+    void execute_RepeatedRequestReturnsCachedResponse() {
+        Transaction transaction = transaction(1L);
+        AtomicInteger calls = new AtomicInteger();
+
+        Transaction first = idempotencyService.execute("key", "transfer:1:2:10.0", () -> {
+            calls.incrementAndGet();
+            return transaction;
+        });
+        Transaction second = idempotencyService.execute("key", "transfer:1:2:10.0", () -> {
+            calls.incrementAndGet();
+            return transaction(2L);
+        });
+
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+        verify(idempotencyKeyRepository, times(1)).complete(eq("key"), anyString());
+    }
+
+    @Test
+    void execute_ReplaysResponseStoredByAnotherNode() throws Exception {
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setIdempotencyKey("key");
+        stored.setFingerprint("deposit:1:10.0");
+        stored.setStatus(IdempotencyStatusEnum.COMPLETED);
+        stored.setResponse(objectMapper.writeValueAsString(transaction(7L)));
+        when(idempotencyKeyRepository.reserve(anyString(), anyString(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById("key")).thenReturn(Optional.of(stored));
+
+        Transaction result = idempotencyService.execute("key", "deposit:1:10.0", () -> {
+            throw new AssertionError("Operation must not be executed");
+        });
+
+        assertEquals(7L, result.getId());
+    }
+
+    @Test
+    void execute_InProgressOnAnotherNode() {
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setFingerprint("deposit:1:10.0");
+        stored.setStatus(IdempotencyStatusEnum.IN_PROGRESS);
+        when(idempotencyKeyRepository.reserve(anyString(), anyString(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById("key")).thenReturn(Optional.of(stored));
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> idempotencyService.execute("key", "deposit:1:10.0", () -> transaction(1L)));
+    }
+
+    @Test
+    void execute_ReclaimsAbandonedKey() {
+        when(idempotencyKeyRepository.reserve(anyString(), anyString(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.reclaim(eq("key"), eq("deposit:1:10.0"), any(), any())).thenReturn(1);
+
+        Transaction result = idempotencyService.execute("key", "deposit:1:10.0", () -> transaction(4L));
+
+        assertEquals(4L, result.getId());
+        verify(idempotencyKeyRepository).complete(eq("key"), anyString());
+        verify(idempotencyKeyRepository, never()).findById("key");
+    }
+
+    @Test
+    void execute_CompletedInOperationTransaction() {
+        List<String> events = new ArrayList<>();
+        doAnswer(invocation -> {
+            events.add("begin");
+            Object result = invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            events.add("commit");
+            return result;
+        }).when(transactionTemplate).execute(any());
+        doAnswer(invocation -> events.add("complete")).when(idempotencyKeyRepository).complete(eq("key"), anyString());
+
+        idempotencyService.execute("key", "transfer:1:2:10.0", () -> {
+            events.add("prepare");
+            return 5L;
+        }, prepared -> {
+            events.add("operation");
+            return transaction(prepared);
+        });
+
+        assertEquals(List.of("prepare", "begin", "operation", "complete", "commit"), events);
+    }
+
+    @Test
+    void execute_IdempotencyKeyMismatchException() {
+        idempotencyService.execute("key", "deposit:1:10.0", () -> transaction(1L));
+
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> idempotencyService.execute("key", "deposit:1:20.0", () -> transaction(2L)));
+    }
+
+    @Test
+    void execute_FailedOperationReleasesKey() {
+        assertThrows(InsufficientFundsException.class, () -> idempotencyService.execute("key", "debit:1:10.0", () -> {
+            throw new InsufficientFundsException();
+        }));
+
+        verify(idempotencyKeyRepository).deleteById("key");
+        assertEquals(3L, idempotencyService.execute("key", "debit:1:10.0", () -> transaction(3L)).getId());
+    }
+
+    @Test
+    void execute_ConcurrentDuplicatesExecutedOnce() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            Future<Transaction> first = executor.submit(() -> idempotencyService.execute("key", "transfer:1:2:10.0", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return transaction(1L);
+            }));
+            started.await();
+            List<Future<Transaction>> duplicates = IntStream.range(0, 7)
+                    .mapToObj(i -> executor.submit(() -> idempotencyService.execute("key", "transfer:1:2:10.0", () -> {
+                        calls.incrementAndGet();
+                        return transaction(2L);
+                    })))
+                    .toList();
+            release.countDown();
+
+            assertEquals(1L, first.get().getId());
+            for (Future<Transaction> duplicate : duplicates) assertEquals(1L, duplicate.get().getId());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    private Transaction transaction(Long id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(Money.valueOf("10.0"));
+        return transaction;
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ru.romanov.moneytransferservice.enums.ExportFormatEnum;
+import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.TransactionRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionExportServiceImplTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private TransactionExportServiceImpl transactionExportService;
+
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        transactionExportService = new TransactionExportServiceImpl(transactionRepository, entityManager, objectMapper);
+        when(transactionRepository.streamByAccountNumber("A")).thenReturn(Stream.of(
+                transaction(1L, null, "A", TypeTransactionEnum.DEPOSIT, "100.0"),
+                transaction(2L, "A", "B", TypeTransactionEnum.TRANSFER, "25.5")
+        ).onClose(() -> streamClosed.set(true)));
+    }
+
+    @Test
+    void exportAccountHistory_Ndjson() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        transactionExportService.exportAccountHistory("A", ExportFormatEnum.NDJSON, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[1].contains("\"fromAccountNumber\":\"A\""));
+        verify(entityManager, times(2)).detach(any(Transaction.class));
+        assertTrue(streamClosed.get());
+    }
+
+    @Test
+    void exportAccountHistory_Csv() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        transactionExportService.exportAccountHistory("A", ExportFormatEnum.CSV, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,transaction_date,type,from_account_number,to_account_number,amount,currency_code", lines[0]);
+        assertEquals("1,2024-06-19T10:15,DEPOSIT,,A,100.0,USD", lines[1]);
+        assertEquals("2,2024-06-19T10:15,TRANSFER,A,B,25.5,USD", lines[2]);
+        verify(entityManager, times(2)).detach(any(Transaction.class));
+        assertTrue(streamClosed.get());
+    }
+
+    @Test
+    void exportAccountHistory_StopsWhenInterrupted() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(InterruptedIOException.class, () ->
+                    transactionExportService.exportAccountHistory("A", ExportFormatEnum.CSV, outputStream));
+        } finally {
+            Thread.interrupted();
+        }
+
+        verify(entityManager, never()).detach(any(Transaction.class));
+        assertTrue(streamClosed.get());
+    }
+
+    private Transaction transaction(Long id, String from, String to, TypeTransactionEnum type, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setTransactionDate(LocalDateTime.of(2024, 6, 19, 10, 15));
+        transaction.setFromAccountNumber(from);
+        transaction.setToAccountNumber(to);
+        transaction.setType(type);
+        transaction.setAmount(Money.valueOf(amount));
+        transaction.setCurrencyCode("USD");
+        return transaction;
+    }
+}
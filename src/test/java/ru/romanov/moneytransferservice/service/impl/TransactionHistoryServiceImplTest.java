@@ -0,0 +1,94 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import ru.romanov.moneytransferservice.config.PaginationProperties;
+import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
+import ru.romanov.moneytransferservice.exception.InvalidCursorException;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.TransactionRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionHistoryServiceImplTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
+    @InjectMocks
+    private TransactionHistoryServiceImpl transactionHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void getAccountHistory_NextCursorResumesAfterLastItem() {
+        Transaction first = transaction(1L, LocalDateTime.of(2024, 1, 5, 10, 0));
+        Transaction second = transaction(2L, LocalDateTime.of(2024, 1, 5, 10, 0));
+        Transaction third = transaction(3L, LocalDateTime.of(2024, 1, 6, 9, 30));
+        when(transactionRepository.findHistoryPage(eq("A"), eq(FROM), eq(TO), eq("TRANSFER"), any(), eq(0L), eq(3)))
+                .thenReturn(List.of(first, second, third));
+
+        CursorPage<Transaction> page = transactionHistoryService.getAccountHistory("A", FROM, TO, TypeTransactionEnum.TRANSFER, null, 2);
+
+        assertEquals(List.of(first, second), page.getItems());
+        when(transactionRepository.findHistoryPage(eq("A"), eq(FROM), eq(TO), eq("TRANSFER"), eq(second.getTransactionDate()), eq(2L), eq(3)))
+                .thenReturn(List.of(third));
+
+        CursorPage<Transaction> next = transactionHistoryService.getAccountHistory("A", FROM, TO, TypeTransactionEnum.TRANSFER, page.getNext(), 2);
+
+        assertEquals(List.of(third), next.getItems());
+        assertNull(next.getNext());
+    }
+
+    @Test
+    void getAccountHistory_OpenRangeAndAllTypes() {
+        when(transactionRepository.findHistoryPage(eq("A"), any(), any(), eq(null), any(), anyLong(), anyInt())).thenReturn(List.of());
+
+        CursorPage<Transaction> page = transactionHistoryService.getAccountHistory("A", null, null, null, null, null);
+
+        assertEquals(0, page.getItems().size());
+        verify(transactionRepository).findHistoryPage(eq("A"), eq(LocalDateTime.of(1, 1, 1, 0, 0)),
+                eq(LocalDateTime.of(9999, 12, 31, 23, 59, 59)), eq(null), any(), eq(0L), eq(101));
+    }
+
+    @Test
+    void getAccountHistory_InvalidCursorException() {
+        assertThrows(InvalidCursorException.class,
+                () -> transactionHistoryService.getAccountHistory("A", null, null, null, "not a cursor", null));
+        assertThrows(InvalidCursorException.class,
+                () -> transactionHistoryService.getAccountHistory("A", null, null, null, "MjAyNHwx", null));
+    }
+
+    private Transaction transaction(Long id, LocalDateTime date) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setTransactionDate(date);
+        transaction.setType(TypeTransactionEnum.TRANSFER);
+        return transaction;
+    }
+}
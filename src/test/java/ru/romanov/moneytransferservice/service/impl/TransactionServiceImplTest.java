@@ -1,23 +1,51 @@
 package ru.romanov.moneytransferservice.service.impl;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import ru.romanov.moneytransferservice.client.CurrencyConverterClient;
+import org.mockito.Spy;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.romanov.moneytransferservice.config.BatchTransferProperties;
+import ru.romanov.moneytransferservice.enums.BatchTransferStatusEnum;
 import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
+import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
+import ru.romanov.moneytransferservice.exception.BatchSizeExceededException;
+import ru.romanov.moneytransferservice.exception.InvalidAmountException;
+import ru.romanov.moneytransferservice.exception.QuoteNotFoundException;
 import ru.romanov.moneytransferservice.exception.TransferYourselfException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.dto.AccountInfoDto;
+import ru.romanov.moneytransferservice.model.dto.BatchTransferResultDto;
+import ru.romanov.moneytransferservice.model.dto.FxQuoteDto;
+import ru.romanov.moneytransferservice.model.dto.TransferRequestDto;
 import ru.romanov.moneytransferservice.model.entity.Account;
 import ru.romanov.moneytransferservice.model.entity.Transaction;
 import ru.romanov.moneytransferservice.repository.TransactionRepository;
 import ru.romanov.moneytransferservice.service.AccountService;
+import ru.romanov.moneytransferservice.service.CurrencyConversionService;
+import ru.romanov.moneytransferservice.service.FxQuoteService;
+import ru.romanov.moneytransferservice.service.journal.TransactionJournal;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -31,7 +59,22 @@ class TransactionServiceImplTest {
     private AccountService accountService;
 
     @Mock
-    private CurrencyConverterClient currencyConverterClient;
+    private CurrencyConversionService currencyConversionService;
+
+    @Mock
+    private TransactionJournal transactionJournal;
+
+    @Mock
+    private FxQuoteService fxQuoteService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private BatchTransferProperties batchTransferProperties = new BatchTransferProperties();
 
     @InjectMocks
     private TransactionServiceImpl transactionService;
@@ -39,6 +82,8 @@ class TransactionServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
@@ -47,55 +92,204 @@ class TransactionServiceImplTest {
         transaction.setTransactionDate(LocalDateTime.now());
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
 
-        Transaction result = transactionService.createTransaction("123", "456", TypeTransactionEnum.TRANSFER, 100.0, "USD");
+        Transaction result = transactionService.createTransaction("123", "456", TypeTransactionEnum.TRANSFER, Money.valueOf("100.0"), "USD");
 
         assertNotNull(result);
         verify(transactionRepository, times(1)).save(any(Transaction.class));
     }
 
+    @Test
+    void createTransaction_JournalAppendedAfterFlushBeforeCommit() {
+        when(transactionJournal.isEnabled()).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Transaction result = transactionService.createTransaction("123", "456", TypeTransactionEnum.TRANSFER, Money.valueOf("100.0"), "USD");
+            verify(transactionJournal, never()).append(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+
+            InOrder inOrder = inOrder(entityManager, transactionJournal);
+            inOrder.verify(entityManager).flush();
+            inOrder.verify(transactionJournal).append(List.of(result));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void createTransaction_JournalEnabled() {
+        when(transactionJournal.isEnabled()).thenReturn(true);
+
+        Transaction result = transactionService.createTransaction("123", "456", TypeTransactionEnum.TRANSFER, Money.valueOf("100.0"), "USD");
+
+        assertNotNull(result);
+        assertEquals("123", result.getFromAccountNumber());
+        verify(transactionJournal, times(1)).append(List.of(result));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
     @Test
     void transferMoney_Success() {
         String fromAccountNumber = "123";
         String toAccountNumber = "456";
-        double amount = 100.0;
-
-        Account fromAccount = new Account();
-        fromAccount.setAccountNumber(fromAccountNumber);
-        fromAccount.setCurrency("USD");
+        Money amount = Money.valueOf("100.0");
 
-        Account toAccount = new Account();
-        toAccount.setAccountNumber(toAccountNumber);
-        toAccount.setCurrency("EUR");
-
-        when(accountService.getAccountByAccountNumber(fromAccountNumber)).thenReturn(fromAccount);
-        when(accountService.getAccountByAccountNumber(toAccountNumber)).thenReturn(toAccount);
-        when(currencyConverterClient.convert("USD", "EUR", amount)).thenReturn(85.0);
+        when(accountService.getAccountInfo(fromAccountNumber)).thenReturn(accountInfo(fromAccountNumber, "USD"));
+        when(accountService.getAccountInfo(toAccountNumber)).thenReturn(accountInfo(toAccountNumber, "EUR"));
+        when(currencyConversionService.convert("USD", "EUR", amount)).thenReturn(Money.valueOf("85.0"));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(new Transaction());
 
-        Transaction result = transactionService.transferMoney(fromAccountNumber, toAccountNumber, amount);
+        Transaction result = transactionService.transferMoney(fromAccountNumber, toAccountNumber, amount, null);
 
         assertNotNull(result);
+        verify(accountService, times(1)).lockAccounts(fromAccountNumber, toAccountNumber);
         verify(accountService, times(1)).updateAccountBalance(fromAccountNumber, TypeTransactionEnum.DEBIT, amount);
-        verify(accountService, times(1)).updateAccountBalance(toAccountNumber, TypeTransactionEnum.DEPOSIT, 85.0);
+        verify(accountService, times(1)).updateAccountBalance(toAccountNumber, TypeTransactionEnum.DEPOSIT, Money.valueOf("85.0"));
+    }
+
+    @Test
+    void transferMoney_WithQuote() {
+        when(accountService.getAccountInfo("123")).thenReturn(accountInfo("123", "USD"));
+        when(accountService.getAccountInfo("456")).thenReturn(accountInfo("456", "EUR"));
+        when(fxQuoteService.getQuote("quote-1", "USD", "EUR")).thenReturn(new FxQuoteDto("quote-1", "USD", "EUR", 0.9, Instant.now()));
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(new Transaction());
+
+        transactionService.transferMoney("123", "456", Money.valueOf("100.0"), "quote-1");
+
+        verify(currencyConversionService, never()).convert(anyString(), anyString(), any(Money.class));
+        verify(accountService, times(1)).updateAccountBalance("456", TypeTransactionEnum.DEPOSIT, Money.valueOf("90.0"));
+    }
+
+    @Test
+    void transferMoney_QuoteNotFoundException() {
+        when(accountService.getAccountInfo(anyString())).thenReturn(accountInfo("123", "USD"));
+        when(fxQuoteService.getQuote("expired", "USD", "USD")).thenThrow(new QuoteNotFoundException());
+
+        assertThrows(QuoteNotFoundException.class, () -> transactionService.transferMoney("123", "456", Money.valueOf("100.0"), "expired"));
+
+        verify(transactionTemplate, never()).execute(any());
     }
 
     @Test
     void transferMoney_TransferYourselfException() {
         String accountNumber = "123";
 
-        assertThrows(TransferYourselfException.class, () -> transactionService.transferMoney(accountNumber, accountNumber, 100.0));
+        assertThrows(TransferYourselfException.class, () -> transactionService.transferMoney(accountNumber, accountNumber, Money.valueOf("100.0"), null));
+    }
+
+    @Test
+    void transferMoney_CreditRoundedToZeroRejected() {
+        when(accountService.getAccountInfo("123")).thenReturn(accountInfo("123", "USD"));
+        when(accountService.getAccountInfo("456")).thenReturn(accountInfo("456", "JPY"));
+        when(currencyConversionService.convert("USD", "JPY", Money.valueOf("0.01"))).thenReturn(Money.valueOf("0"));
+
+        assertThrows(InvalidAmountException.class, () -> transactionService.transferMoney("123", "456", Money.valueOf("0.01"), null));
+        verify(transactionTemplate, times(0)).execute(any());
+    }
+
+    @Test
+    void transferMoneyBatch_MixedResults() {
+        Account first = new Account();
+        first.setAccountNumber("A");
+        first.setCurrency("USD");
+        first.setBalance(Money.valueOf("100.0"));
+
+        Account second = new Account();
+        second.setAccountNumber("B");
+        second.setCurrency("USD");
+        second.setBalance(Money.valueOf("0.0"));
+
+        when(accountService.getAccountsForUpdate(any())).thenReturn(Map.of("A", first, "B", second));
+        when(accountService.getAccountInfo("A")).thenReturn(new AccountInfoDto(1L, "A", "USD", "U1"));
+        when(accountService.getAccountInfo("B")).thenReturn(new AccountInfoDto(2L, "B", "USD", "U2"));
+        when(accountService.getAccountInfo("C")).thenThrow(new AccountNotFoundException());
+
+        List<BatchTransferResultDto> results = transactionService.transferMoneyBatch(List.of(
+                new TransferRequestDto("A", "B", Money.valueOf("60.0")),
+                new TransferRequestDto("A", "B", Money.valueOf("60.0")),
+                new TransferRequestDto("B", "A", Money.valueOf("10.0")),
+                new TransferRequestDto("A", "C", Money.valueOf("1.0")),
+                new TransferRequestDto("A", "A", Money.valueOf("1.0")),
+                new TransferRequestDto("A", "B", Money.valueOf("-1.0")),
+                new TransferRequestDto("A", "B", Money.valueOf("0.001"))));
+
+        assertEquals(BatchTransferStatusEnum.SUCCESS, results.get(0).getStatus());
+        assertEquals(BatchTransferStatusEnum.INSUFFICIENT_FUNDS, results.get(1).getStatus());
+        assertNull(results.get(1).getTransaction());
+        assertEquals(BatchTransferStatusEnum.SUCCESS, results.get(2).getStatus());
+        assertEquals(BatchTransferStatusEnum.ACCOUNT_NOT_FOUND, results.get(3).getStatus());
+        assertEquals(BatchTransferStatusEnum.TRANSFER_YOURSELF, results.get(4).getStatus());
+        assertEquals(BatchTransferStatusEnum.INVALID_REQUEST, results.get(5).getStatus());
+        assertEquals(BatchTransferStatusEnum.INVALID_REQUEST, results.get(6).getStatus());
+        assertEquals(Money.valueOf("50.0"), first.getBalance());
+        assertEquals(Money.valueOf("50.0"), second.getBalance());
+        verify(transactionRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void transferMoneyBatch_RatesResolvedBeforeLocking() {
+        Account usd = new Account();
+        usd.setAccountNumber("A");
+        usd.setCurrency("USD");
+        usd.setBalance(Money.valueOf("100.0"));
+        Account eur = new Account();
+        eur.setAccountNumber("B");
+        eur.setCurrency("EUR");
+        eur.setBalance(Money.valueOf("0.0"));
+        when(accountService.getAccountInfo("A")).thenReturn(new AccountInfoDto(1L, "A", "USD", "U1"));
+        when(accountService.getAccountInfo("B")).thenReturn(new AccountInfoDto(2L, "B", "EUR", "U2"));
+        when(currencyConversionService.getRate("USD", "EUR")).thenReturn(0.5);
+        when(accountService.getAccountsForUpdate(any())).thenReturn(Map.of("A", usd, "B", eur));
+
+        List<BatchTransferResultDto> results = transactionService.transferMoneyBatch(List.of(
+                new TransferRequestDto("A", "B", Money.valueOf("10.0")),
+                new TransferRequestDto("A", "B", Money.valueOf("20.0"))));
+
+        assertEquals(BatchTransferStatusEnum.SUCCESS, results.get(1).getStatus());
+        assertEquals(Money.valueOf("15.0"), eur.getBalance());
+        InOrder order = inOrder(currencyConversionService, accountService);
+        order.verify(currencyConversionService, times(1)).getRate("USD", "EUR");
+        order.verify(accountService).getAccountsForUpdate(any());
+        verify(currencyConversionService, never()).convert(anyString(), anyString(), any(Money.class));
+    }
+
+    @Test
+    void transferMoneyBatch_RateUnavailableFailed() {
+        Account usd = new Account();
+        usd.setAccountNumber("A");
+        usd.setCurrency("USD");
+        usd.setBalance(Money.valueOf("100.0"));
+        Account eur = new Account();
+        eur.setAccountNumber("B");
+        eur.setCurrency("EUR");
+        eur.setBalance(Money.valueOf("0.0"));
+        when(accountService.getAccountInfo("A")).thenReturn(new AccountInfoDto(1L, "A", "USD", "U1"));
+        when(accountService.getAccountInfo("B")).thenReturn(new AccountInfoDto(2L, "B", "EUR", "U2"));
+        when(currencyConversionService.getRate("USD", "EUR")).thenThrow(new IllegalStateException("down"));
+        when(accountService.getAccountsForUpdate(any())).thenReturn(Map.of("A", usd, "B", eur));
+
+        List<BatchTransferResultDto> results = transactionService.transferMoneyBatch(List.of(
+                new TransferRequestDto("A", "B", Money.valueOf("10.0"))));
+
+        assertEquals(BatchTransferStatusEnum.FAILED, results.getFirst().getStatus());
+        assertEquals(Money.valueOf("100.0"), usd.getBalance());
+    }
+
+    @Test
+    void transferMoneyBatch_BatchSizeExceededException() {
+        batchTransferProperties.setMaxSize(1);
+
+        assertThrows(BatchSizeExceededException.class, () -> transactionService.transferMoneyBatch(List.of(
+                new TransferRequestDto("A", "B", Money.valueOf("1.0")),
+                new TransferRequestDto("A", "B", Money.valueOf("1.0")))));
     }
 
     @Test
     void depositMoney_Success() {
         String toAccountNumber = "456";
-        double amount = 100.0;
+        Money amount = Money.valueOf("100.0");
 
-        Account toAccount = new Account();
-        toAccount.setAccountNumber(toAccountNumber);
-        toAccount.setCurrency("USD");
-
-        when(accountService.getAccountByAccountNumber(toAccountNumber)).thenReturn(toAccount);
+        when(accountService.getAccountInfo(toAccountNumber)).thenReturn(accountInfo(toAccountNumber, "USD"));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(new Transaction());
 
         Transaction result = transactionService.depositMoney(toAccountNumber, amount);
@@ -104,16 +298,20 @@ class TransactionServiceImplTest {
         verify(accountService, times(1)).updateAccountBalance(toAccountNumber, TypeTransactionEnum.DEPOSIT, amount);
     }
 
+    @Test
+    void depositMoney_RoundedToZeroRejected() {
+        when(accountService.getAccountInfo("456")).thenReturn(accountInfo("456", "JPY"));
+
+        assertThrows(InvalidAmountException.class, () -> transactionService.depositMoney("456", Money.valueOf("0.4")));
+        verify(accountService, times(0)).updateAccountBalance(anyString(), any(), any());
+    }
+
     @Test
     void debitMoney_Success() {
         String fromAccountNumber = "123";
-        double amount = 100.0;
-
-        Account fromAccount = new Account();
-        fromAccount.setAccountNumber(fromAccountNumber);
-        fromAccount.setCurrency("USD");
+        Money amount = Money.valueOf("100.0");
 
-        when(accountService.getAccountByAccountNumber(fromAccountNumber)).thenReturn(fromAccount);
+        when(accountService.getAccountInfo(fromAccountNumber)).thenReturn(accountInfo(fromAccountNumber, "USD"));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(new Transaction());
 
         Transaction result = transactionService.debitMoney(fromAccountNumber, amount);
@@ -121,4 +319,8 @@ class TransactionServiceImplTest {
         assertNotNull(result);
         verify(accountService, times(1)).updateAccountBalance(fromAccountNumber, TypeTransactionEnum.DEBIT, amount);
     }
+
+    private AccountInfoDto accountInfo(String accountNumber, String currency) {
+        return new AccountInfoDto(1L, accountNumber, currency, "owner");
+    }
 }
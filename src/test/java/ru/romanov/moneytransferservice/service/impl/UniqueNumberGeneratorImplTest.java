@@ -0,0 +1,56 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.romanov.moneytransferservice.config.UniqueNumberProperties;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UniqueNumberGeneratorImplTest {
+
+    private UniqueNumberGeneratorImpl uniqueNumberGenerator;
+
+    @BeforeEach
+    void setUp() {
+        UniqueNumberProperties uniqueNumberProperties = new UniqueNumberProperties();
+        uniqueNumberProperties.setNodeId(7);
+        uniqueNumberGenerator = new UniqueNumberGeneratorImpl(uniqueNumberProperties);
+    }
+
+    @Test
+    void generate_Format() {
+        String accountNumber = uniqueNumberGenerator.generateAccountNumber();
+        String userNumber = uniqueNumberGenerator.generateUserNumber();
+
+        assertTrue(accountNumber.matches("[A-Z0-9]{6}-[A-Z0-9]{6}-[A-Z0-9]{6}-[A-Z0-9]{6}"));
+        assertTrue(userNumber.matches("[A-Z0-9]{8}-[A-Z0-9]{8}-[A-Z0-9]{8}"));
+    }
+
+    @Test
+    void generate_ConcurrentCallersGetDistinctNumbers() {
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 8).forEach(i -> executor.execute(() -> {
+                for (int j = 0; j < 20_000; j++) numbers.add(uniqueNumberGenerator.generateAccountNumber());
+            }));
+        }
+
+        assertEquals(160_000, numbers.size());
+    }
+
+    @Test
+    void constructor_NodeIdOutOfRange() {
+        UniqueNumberProperties uniqueNumberProperties = new UniqueNumberProperties();
+        uniqueNumberProperties.setNodeId(70_000);
+
+        assertThrows(IllegalArgumentException.class, () -> new UniqueNumberGeneratorImpl(uniqueNumberProperties));
+    }
+}
@@ -0,0 +1,181 @@
+package ru.romanov.moneytransferservice.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.romanov.moneytransferservice.config.UserImportProperties;
+import ru.romanov.moneytransferservice.enums.ImportFormatEnum;
+import ru.romanov.moneytransferservice.model.entity.User;
+import ru.romanov.moneytransferservice.repository.UserRepository;
+import ru.romanov.moneytransferservice.service.UniqueNumberGenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceImplTest {
+    private static final String VALID_ROW = "{\"lastName\":\"Doe\",\"firstName\":\"John\",\"birthDate\":\"2000-01-01\",\"email\":\"john.doe@example.com\",\"phoneNumber\":\"+71234567890\"}";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UniqueNumberGenerator uniqueNumberGenerator;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private UserImportServiceImpl userImportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        UserImportProperties userImportProperties = new UserImportProperties();
+        userImportProperties.setChunkSize(2);
+        userImportProperties.setParallelism(2);
+        when(uniqueNumberGenerator.generateUserNumber()).thenReturn("USER-1");
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        userImportService = new UserImportServiceImpl(userRepository, new ValidationServiceImpl(), uniqueNumberGenerator,
+                transactionTemplate, entityManager, objectMapper, userImportProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userImportService.shutdown();
+    }
+
+    @Test
+    void importUsers_NdjsonSavedInChunks() throws IOException {
+        String input = String.join("\n", VALID_ROW, VALID_ROW.replace("Doe", "D0e"), "{\"lastName\":\"Doe\",\"birthDate\":\"01.01.2000\"}", VALID_ROW);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long created = userImportService.importUsers(ImportFormatEnum.NDJSON, stream(input), outputStream);
+
+        List<JsonNode> report = report(outputStream);
+        assertEquals(2, created);
+        assertEquals(4, report.size());
+        assertEquals("CREATED", report.get(0).get("status").asText());
+        assertEquals("USER-1", report.get(0).get("uniqueNumber").asText());
+        assertEquals("INVALID", report.get(1).get("status").asText());
+        assertEquals(2, report.get(1).get("row").asInt());
+        assertEquals("LAST_NAME", report.get(1).get("errors").get(0).asText());
+        assertEquals("INVALID", report.get(2).get("status").asText());
+        assertEquals("CREATED", report.get(3).get("status").asText());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void importUsers_CsvWithHeader() throws IOException {
+        String input = """
+                lastName,firstName,patronymicName,birthDate,email,phoneNumber
+                Doe,John,,2000-01-01,john.doe@example.com,+71234567890
+                Doe,John,Smith,2000-01-01,invalid-email,+71234567890
+                """;
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long created = userImportService.importUsers(ImportFormatEnum.CSV, stream(input), outputStream);
+
+        List<JsonNode> report = report(outputStream);
+        assertEquals(1, created);
+        assertEquals("CREATED", report.get(0).get("status").asText());
+        assertEquals("INVALID", report.get(1).get("status").asText());
+        ArgumentCaptor<List<User>> captor = savedUsers();
+        assertEquals(LocalDate.of(2000, 1, 1), captor.getValue().getFirst().getBirthDate());
+        assertEquals("", captor.getValue().getFirst().getPatronymicName());
+    }
+
+    @Test
+    void importUsers_MissingFieldsInvalid() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long created = userImportService.importUsers(ImportFormatEnum.NDJSON, stream("{\"lastName\":\"Doe\"}"), outputStream);
+
+        assertEquals(0, created);
+        assertEquals("INVALID", report(outputStream).getFirst().get("status").asText());
+        verify(transactionTemplate, times(0)).execute(any());
+    }
+
+    @Test
+    void importUsers_ChunkFailedToSave() throws IOException {
+        when(userRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long created = userImportService.importUsers(ImportFormatEnum.NDJSON, stream(VALID_ROW + "\n" + VALID_ROW), outputStream);
+
+        List<JsonNode> report = report(outputStream);
+        assertEquals(0, created);
+        assertEquals("FAILED", report.get(0).get("status").asText());
+        assertEquals("FAILED", report.get(1).get("status").asText());
+    }
+
+    @Test
+    void importUsers_OnlyFailedRowMarkedFailed() throws IOException {
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> user.setId(1));
+            if (users.stream().anyMatch(user -> user.getEmail().equals("dup@example.com")))
+                throw new DataIntegrityViolationException("duplicate key");
+            return users;
+        });
+        String input = String.join("\n", VALID_ROW, VALID_ROW.replace("john.doe@", "dup@"), VALID_ROW, VALID_ROW);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long created = userImportService.importUsers(ImportFormatEnum.NDJSON, stream(input), outputStream);
+
+        List<JsonNode> report = report(outputStream);
+        assertEquals(3, created);
+        assertEquals("CREATED", report.get(0).get("status").asText());
+        assertEquals("FAILED", report.get(1).get("status").asText());
+        assertEquals("CREATED", report.get(2).get("status").asText());
+        assertEquals("CREATED", report.get(3).get("status").asText());
+        ArgumentCaptor<List<User>> captor = savedUsers();
+        assertEquals(4, captor.getAllValues().size());
+        assertEquals(0, captor.getAllValues().get(2).getFirst().getId());
+    }
+
+    private ByteArrayInputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<JsonNode> report(ByteArrayOutputStream outputStream) throws IOException {
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : outputStream.toString(StandardCharsets.UTF_8).split("\n")) rows.add(objectMapper.readTree(line));
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<List<User>> savedUsers() {
+        ArgumentCaptor<List<User>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userRepository, atLeastOnce()).saveAll(captor.capture());
+        return captor;
+    }
+}
@@ -2,13 +2,21 @@ package ru.romanov.moneytransferservice.service.impl;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import ru.romanov.moneytransferservice.config.PaginationProperties;
+import ru.romanov.moneytransferservice.config.UserDeletionProperties;
+import ru.romanov.moneytransferservice.exception.BatchSizeExceededException;
 import ru.romanov.moneytransferservice.exception.UserNotFoundException;
+import ru.romanov.moneytransferservice.model.dto.CursorPage;
 import ru.romanov.moneytransferservice.model.entity.User;
-import ru.romanov.moneytransferservice.repository.AccountRepository;
 import ru.romanov.moneytransferservice.repository.UserRepository;
+import ru.romanov.moneytransferservice.service.AccountService;
+import ru.romanov.moneytransferservice.service.UniqueNumberGenerator;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -17,9 +25,12 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,7 +41,16 @@ class UserServiceImplTest {
     private UserRepository userRepository;
 
     @Mock
-    private AccountRepository accountRepository;
+    private AccountService accountService;
+
+    @Mock
+    private UniqueNumberGenerator uniqueNumberGenerator;
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
+    @Spy
+    private UserDeletionProperties userDeletionProperties = new UserDeletionProperties();
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -53,13 +73,24 @@ class UserServiceImplTest {
 
     @Test
     void getUsers_Success() {
-        List<User> users = Arrays.asList(new User(), new User());
-        when(userRepository.findAll()).thenReturn(users);
+        List<User> users = Arrays.asList(user(1), user(2), user(3));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(3))).thenReturn(users);
+
+        CursorPage<User> result = userService.getUsers(null, 2);
+
+        assertEquals(2, result.getItems().size());
+        assertEquals("2", result.getNext());
+        verify(userRepository, never()).findAll();
+    }
 
-        List<User> result = userService.getUsers();
+    @Test
+    void getUsers_LastPage() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(2, Limit.of(1001))).thenReturn(List.of(user(3)));
+
+        CursorPage<User> result = userService.getUsers(2L, 5000);
 
-        assertEquals(2, result.size());
-        verify(userRepository, times(1)).findAll();
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNext());
     }
 
     @Test
@@ -109,34 +140,62 @@ class UserServiceImplTest {
     @Test
     void deleteUser_Success() {
         User user = new User();
-        user.setId(1L);
-        user.setUniqueNumber("UNIQUE12-UNIQUE12-UNIQUE12");
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(accountRepository.findByOwnerUniqueNumber("UNIQUE12-UNIQUE12-UNIQUE12")).thenReturn(List.of());
+        when(userRepository.findUniqueNumbersByIdIn(List.of(1L))).thenReturn(List.of("UNIQUE12-UNIQUE12-UNIQUE12"));
+        when(userRepository.findAllById(List.of(1L))).thenReturn(List.of(user));
 
         userService.deleteUser(1L);
 
-        verify(accountRepository, times(1)).findByOwnerUniqueNumber("UNIQUE12-UNIQUE12-UNIQUE12");
-        verify(userRepository, times(1)).deleteById(1L);
+        InOrder order = inOrder(accountService, userRepository);
+        order.verify(accountService).closeAccounts(List.of("UNIQUE12-UNIQUE12-UNIQUE12"));
+        order.verify(userRepository).deleteAll(List.of(user));
+        verify(userRepository, never()).deleteAllByIdInBatch(any());
     }
 
     @Test
     void deleteUser_UserNotFoundException() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.findUniqueNumbersByIdIn(List.of(1L))).thenReturn(List.of());
 
         assertThrows(UserNotFoundException.class, () -> userService.deleteUser(1L));
+
+        verify(accountService, never()).closeAccounts(any());
+        verify(userRepository, never()).deleteAll(any());
+    }
+
+    @Test
+    void deleteUsers_SkipsMissingIds() {
+        when(userRepository.findUniqueNumbersByIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of("A", "C"));
+        when(accountService.closeAccounts(List.of("A", "C"))).thenReturn(5);
+        when(userRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(new User(), new User()));
+
+        int deleted = userService.deleteUsers(List.of(1L, 2L, 3L));
+
+        assertEquals(2, deleted);
+        verify(userRepository, times(1)).deleteAll(anyList());
+    }
+
+    @Test
+    void deleteUsers_BatchSizeExceededException() {
+        userDeletionProperties.setMaxBatchSize(2);
+
+        assertThrows(BatchSizeExceededException.class, () -> userService.deleteUsers(List.of(1L, 2L, 3L)));
+
+        verify(userRepository, never()).findUniqueNumbersByIdIn(any());
     }
 
     @Test
     void generateUniqueNumber_Success() {
-        User user = new User();
-        user.setUniqueNumber("UNIQUE12-UNIQUE12-UNIQUE12");
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(uniqueNumberGenerator.generateUserNumber()).thenReturn("UNIQUE12-UNIQUE12-UNIQUE12");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         String uniqueNumber = userService.createUser("Doe", "John", "Middle", LocalDate.of(1990, 1, 1), "john.doe@example.com", "1234567890").getUniqueNumber();
 
-        assertNotNull(uniqueNumber);
         assertEquals("UNIQUE12-UNIQUE12-UNIQUE12", uniqueNumber);
-        assertTrue(uniqueNumber.matches("[A-Z0-9/]{8}-[A-Z0-9/]{8}-[A-Z0-9/]{8}"));
+        verify(userRepository, never()).existsByUniqueNumber(any());
+    }
+
+    private User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
     }
 }
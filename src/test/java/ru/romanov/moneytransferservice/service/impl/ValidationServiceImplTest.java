@@ -2,12 +2,17 @@ package ru.romanov.moneytransferservice.service.impl;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.romanov.moneytransferservice.enums.UserFieldEnum;
 import ru.romanov.moneytransferservice.model.dto.UserDto;
+import ru.romanov.moneytransferservice.model.dto.UserValidationResultDto;
 import ru.romanov.moneytransferservice.model.entity.User;
 import ru.romanov.moneytransferservice.service.ValidationService;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -72,6 +77,41 @@ class ValidationServiceImplTest {
         assertFalse(validationService.isUserDtoValidated(userDto));
     }
 
+    @Test
+    void testValidate_ReturnsInvalidFields() {
+        UserDto userDto = new UserDto("Doe", "John", null, LocalDate.of(2000, 1, 1), "invalid-email", "8123");
+
+        assertEquals(Set.of(UserFieldEnum.EMAIL, UserFieldEnum.PHONE_NUMBER), validationService.validate(userDto));
+    }
+
+    @Test
+    void testValidate_MissingFieldsInvalid() {
+        UserDto userDto = new UserDto(null, "John", "", null, "john.doe@example.com", null);
+
+        assertEquals(Set.of(UserFieldEnum.LAST_NAME, UserFieldEnum.BIRTH_DATE, UserFieldEnum.PHONE_NUMBER), validationService.validate(userDto));
+    }
+
+    @Test
+    void testValidate_TooLongFieldsInvalid() {
+        String longName = "A".repeat(51);
+        String longEmail = "a".repeat(250) + "@example.com";
+        UserDto userDto = new UserDto(longName, "A".repeat(50), longName, LocalDate.of(2000, 1, 1), longEmail, "+71234567890");
+
+        assertEquals(Set.of(UserFieldEnum.LAST_NAME, UserFieldEnum.PATRONYMIC_NAME, UserFieldEnum.EMAIL), validationService.validate(userDto));
+    }
+
+    @Test
+    void testValidateAll_ReturnsOnlyInvalidUsers() {
+        UserDto valid = new UserDto("Doe", "John", "Smith", LocalDate.of(2000, 1, 1), "john.doe@example.com", "+71234567890");
+        UserDto invalid = new UserDto("Doe1", "John", "Smith", LocalDate.of(2000, 1, 1), "john.doe@example.com", "+71234567890");
+
+        List<UserValidationResultDto> results = validationService.validateAll(List.of(valid, invalid, valid));
+
+        assertEquals(1, results.size());
+        assertEquals(1, results.getFirst().getIndex());
+        assertEquals(Set.of(UserFieldEnum.LAST_NAME), results.getFirst().getErrors());
+    }
+
     @Test
     void testIsDateValidated_ValidDate() {
         assertTrue(validationService.isDateValidated("01/01/2000"));
@@ -80,6 +120,7 @@ class ValidationServiceImplTest {
         assertTrue(validationService.isDateValidated("2000/01/01"));
         assertTrue(validationService.isDateValidated("2000-01-01"));
         assertTrue(validationService.isDateValidated("2000.01.01"));
+        assertTrue(validationService.isDateValidated("29.02.2024"));
     }
 
     @Test
@@ -91,6 +132,8 @@ class ValidationServiceImplTest {
         assertFalse(validationService.isDateValidated("2024-01-01T12:00:00"));  // Время включено
         assertFalse(validationService.isDateValidated("2024-01-01 12:00"));     // Неверный формат с временем
         assertFalse(validationService.isDateValidated("invalid-date"));         // Некорректный формат
+        assertFalse(validationService.isDateValidated("29.02.2023"));           // Невисокосный год
+        assertFalse(validationService.isDateValidated("00.01.2000"));           // Нулевой день
     }
 
     @Test
@@ -113,6 +156,8 @@ class ValidationServiceImplTest {
     void testIsPhoneNumberValidated_InvalidPhoneNumber() {
         assertFalse(validationService.isPhoneNumberValidated("1234567890"));
         assertFalse(validationService.isPhoneNumberValidated("invalid-phone"));
+        assertFalse(validationService.isPhoneNumberValidated("+7123456789a"));
+        assertFalse(validationService.isPhoneNumberValidated("+81234567890"));
     }
 
     @Test
@@ -125,5 +170,7 @@ class ValidationServiceImplTest {
     void testIsStringValidated_InvalidString() {
         assertFalse(validationService.isStringValidated("John123"));
         assertFalse(validationService.isStringValidated("!@#$%^&*()"));
+        assertFalse(validationService.isStringValidated(""));
+        assertFalse(validationService.isStringValidated("Пётр"));
     }
 }
@@ -0,0 +1,143 @@
+package ru.romanov.moneytransferservice.service.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.romanov.moneytransferservice.config.JournalProperties;
+import ru.romanov.moneytransferservice.enums.TypeTransactionEnum;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.entity.JournalSegment;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.JournalSegmentRepository;
+import ru.romanov.moneytransferservice.repository.TransactionRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private JournalSegmentRepository journalSegmentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionJournal transactionJournal;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        transactionJournal = newJournal();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        transactionJournal.shutdown();
+    }
+
+    @Test
+    void append_ConcurrentRequestsDrainedToDatabase() {
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 200).forEach(i -> executor.execute(() -> transactionJournal.append(List.of(transaction(i)))));
+        }
+
+        transactionJournal.drain();
+
+        assertEquals(200, savedTransactions().size());
+        verify(journalSegmentRepository, atLeastOnce()).save(any(JournalSegment.class));
+        assertEquals(1, segments().size());
+    }
+
+    @Test
+    void drain_RecoversSegmentWithTornTail() throws Exception {
+        transactionJournal.append(List.of(transaction(1), transaction(2)));
+        transactionJournal.shutdown();
+        Path segment = segments().getFirst();
+        Files.write(segment, new byte[]{0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+
+        transactionJournal = newJournal();
+        transactionJournal.drain();
+
+        List<Transaction> saved = savedTransactions();
+        assertEquals(2, saved.size());
+        assertEquals(Money.valueOf("2"), saved.get(1).getAmount());
+    }
+
+    @Test
+    void drain_SkipsAlreadyDrainedSegment() {
+        transactionJournal.append(List.of(transaction(1)));
+        when(journalSegmentRepository.existsById(anyString())).thenReturn(true);
+
+        transactionJournal.drain();
+
+        verify(transactionRepository, never()).saveAll(any());
+        assertEquals(1, segments().size());
+    }
+
+    private TransactionJournal newJournal() {
+        JournalProperties journalProperties = new JournalProperties();
+        journalProperties.setEnabled(true);
+        journalProperties.setDirectory(directory.toString());
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        return new TransactionJournal(journalProperties, transactionRepository, journalSegmentRepository,
+                transactionManager, objectMapper, new SimpleMeterRegistry());
+    }
+
+    private Transaction transaction(int amount) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setType(TypeTransactionEnum.DEPOSIT);
+        transaction.setToAccountNumber("123");
+        transaction.setAmount(Money.ofMinor(amount, 0));
+        transaction.setCurrencyCode("USD");
+        return transaction;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Transaction> savedTransactions() {
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository, atLeastOnce()).saveAll(captor.capture());
+        List<Transaction> saved = new ArrayList<>();
+        captor.getAllValues().forEach(saved::addAll);
+        return saved;
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
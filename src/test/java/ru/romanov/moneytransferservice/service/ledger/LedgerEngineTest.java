@@ -0,0 +1,232 @@
+package ru.romanov.moneytransferservice.service.ledger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.romanov.moneytransferservice.config.LedgerProperties;
+import ru.romanov.moneytransferservice.exception.AccountNotFoundException;
+import ru.romanov.moneytransferservice.exception.InsufficientFundsException;
+import ru.romanov.moneytransferservice.model.Money;
+import ru.romanov.moneytransferservice.model.entity.Account;
+import ru.romanov.moneytransferservice.model.entity.Transaction;
+import ru.romanov.moneytransferservice.repository.AccountRepository;
+import ru.romanov.moneytransferservice.repository.TransactionRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LedgerEngineTest {
+
+    @TempDir
+    private Path deadLetterDirectory;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerProperties ledgerProperties;
+
+    private LedgerJournal ledgerJournal;
+
+    private LedgerEngine ledgerEngine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ledgerProperties = new LedgerProperties();
+        ledgerProperties.setShards(4);
+        ledgerProperties.setMaxFlushAttempts(2);
+        ledgerProperties.setFlushInterval(10);
+        ledgerProperties.setDeadLetterDirectory(deadLetterDirectory.toString());
+        when(accountRepository.creditBalance(anyString(), any(Money.class))).thenReturn(1);
+        when(accountRepository.findByAccountNumber(anyString())).thenReturn(Optional.empty());
+        mockAccount("A", Money.valueOf("100.0"));
+        mockAccount("B", Money.valueOf("0.0"));
+        mockAccount("C", Money.valueOf("0.0"));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        ledgerJournal = new LedgerJournal(accountRepository, transactionRepository, transactionManager, ledgerProperties, objectMapper);
+        ledgerEngine = new LedgerEngine(accountRepository, ledgerJournal, ledgerProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ledgerEngine.shutdown();
+        ledgerJournal.shutdown();
+    }
+
+    @Test
+    void transfer_Success() {
+        ledgerEngine.transfer("A", "B", Money.valueOf("60.0"), Money.valueOf("60.0"), null);
+        ledgerEngine.transfer("B", "C", Money.valueOf("10.0"), Money.valueOf("10.0"), null);
+
+        assertEquals(Money.valueOf("40.0"), ledgerEngine.getBalance("A"));
+        assertEquals(Money.valueOf("50.0"), ledgerEngine.getBalance("B"));
+        assertEquals(Money.valueOf("10.0"), ledgerEngine.getBalance("C"));
+    }
+
+    @Test
+    void transfer_InsufficientFundsException() {
+        assertThrows(InsufficientFundsException.class, () -> ledgerEngine.transfer("B", "A", Money.valueOf("1.0"), Money.valueOf("1.0"), null));
+
+        assertEquals(Money.valueOf("100.0"), ledgerEngine.getBalance("A"));
+        assertEquals(Money.valueOf("0.0"), ledgerEngine.getBalance("B"));
+    }
+
+    @Test
+    void transfer_AccountNotFoundException() {
+        assertThrows(AccountNotFoundException.class, () -> ledgerEngine.transfer("A", "X", Money.valueOf("10.0"), Money.valueOf("10.0"), null));
+
+        assertEquals(Money.valueOf("100.0"), ledgerEngine.getBalance("A"));
+    }
+
+    @Test
+    void transfer_ConcurrentOppositeDirections() {
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 1000).forEach(i -> executor.execute(() -> {
+                if (i % 2 == 0) ledgerEngine.transfer("A", "B", Money.valueOf("1.0"), Money.valueOf("1.0"), null);
+                else ledgerEngine.transfer("B", "A", Money.valueOf("1.0"), Money.valueOf("1.0"), null);
+            }));
+        }
+
+        assertEquals(Money.valueOf("100.0"), ledgerEngine.getBalance("A").plus(ledgerEngine.getBalance("B")));
+    }
+
+    @Test
+    void journal_PersistsBalanceDeltas() throws InterruptedException {
+        ledgerEngine.transfer("A", "B", Money.valueOf("60.0"), Money.valueOf("60.0"), null);
+        ledgerEngine.debit("A", Money.valueOf("15.0"), null);
+
+        ledgerEngine.shutdown();
+        ledgerJournal.shutdown();
+
+        assertEquals(Money.valueOf("-75.0"), persistedDelta("A"));
+        assertEquals(Money.valueOf("60.0"), persistedDelta("B"));
+    }
+
+    @Test
+    void closeAccounts_FlushesDeltasAndRejectsOperations() {
+        ledgerEngine.transfer("A", "B", Money.valueOf("60.0"), Money.valueOf("60.0"), null);
+
+        ledgerEngine.closeAccounts(List.of("B"));
+
+        assertEquals(Money.valueOf("60.0"), persistedDelta("B"));
+        assertThrows(AccountNotFoundException.class, () -> ledgerEngine.transfer("A", "B", Money.valueOf("1.0"), Money.valueOf("1.0"), null));
+        assertEquals(Money.valueOf("40.0"), ledgerEngine.getBalance("A"));
+    }
+
+    @Test
+    void reopenAccounts_ReloadsFromDatabase() {
+        ledgerEngine.deposit("B", Money.valueOf("5.0"), null);
+        ledgerEngine.closeAccounts(List.of("B"));
+        when(accountRepository.findByAccountNumber("B")).thenReturn(Optional.empty());
+
+        ledgerEngine.reopenAccounts(List.of("B"));
+
+        assertThrows(AccountNotFoundException.class, () -> ledgerEngine.getBalance("B"));
+    }
+
+    @Test
+    void journal_MissingAccountMovedToDeadLetterStore() throws Exception {
+        when(accountRepository.creditBalance(eq("B"), any(Money.class))).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> ledgerEngine.deposit("B", Money.valueOf("7.0"), null));
+        ledgerEngine.shutdown();
+        ledgerJournal.shutdown();
+
+        assertTrue(deadLetters().contains("\"deltas\":{\"B\":7.0}"));
+        assertEquals(0, ledgerJournal.pending());
+    }
+
+    @Test
+    void journal_DeadLetterReloadsAccountsFromDatabase() throws InterruptedException {
+        ledgerEngine.deposit("B", Money.valueOf("5.0"), null);
+        when(accountRepository.creditBalance(eq("B"), any(Money.class))).thenReturn(0);
+        mockAccount("B", Money.valueOf("3.0"));
+
+        assertThrows(IllegalStateException.class, () -> ledgerEngine.deposit("B", Money.valueOf("7.0"), null));
+
+        for (int i = 0; i < 100 && !Money.valueOf("3.0").equals(balanceOrNull("B")); i++) Thread.sleep(10);
+        assertEquals(Money.valueOf("3.0"), ledgerEngine.getBalance("B"));
+    }
+
+    @Test
+    void journal_PersistsTransferLegsInOneBatch() {
+        ledgerProperties.setFlushBatchSize(1);
+
+        ledgerEngine.transfer("A", "B", Money.valueOf("60.0"), Money.valueOf("60.0"), null);
+
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertEquals(Money.valueOf("-60.0"), persistedDelta("A"));
+        assertEquals(Money.valueOf("60.0"), persistedDelta("B"));
+    }
+
+    @Test
+    void transfer_AcknowledgedAfterTransactionPersisted() {
+        Transaction transaction = new Transaction();
+
+        ledgerEngine.transfer("A", "B", Money.valueOf("10.0"), Money.valueOf("10.0"), transaction);
+
+        verify(transactionRepository).saveAll(List.of(transaction));
+    }
+
+    private Money balanceOrNull(String accountNumber) {
+        try {
+            return ledgerEngine.getBalance(accountNumber);
+        } catch (AccountNotFoundException e) {
+            return null;
+        }
+    }
+
+    private String deadLetters() throws IOException {
+        StringBuilder content = new StringBuilder();
+        try (Stream<Path> files = Files.list(deadLetterDirectory)) {
+            for (Path file : files.toList()) content.append(Files.readString(file));
+        }
+        return content.toString();
+    }
+
+    private void mockAccount(String accountNumber, Money balance) {
+        Account account = new Account();
+        account.setAccountNumber(accountNumber);
+        account.setCurrency("USD");
+        account.setBalance(balance);
+        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
+    }
+
+    private Money persistedDelta(String accountNumber) {
+        ArgumentCaptor<Money> deltas = ArgumentCaptor.forClass(Money.class);
+        verify(accountRepository, atLeastOnce()).creditBalance(eq(accountNumber), deltas.capture());
+        List<Money> values = deltas.getAllValues();
+        return values.stream().reduce(Money.zero(), Money::plus);
+    }
+}
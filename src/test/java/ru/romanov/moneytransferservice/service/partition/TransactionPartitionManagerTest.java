@@ -0,0 +1,196 @@
+package ru.romanov.moneytransferservice.service.partition;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import ru.romanov.moneytransferservice.config.PartitionProperties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionPartitionManagerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    @TempDir
+    private Path archiveDirectory;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet lockResult;
+
+    @Mock
+    private ResultSet partitionsResult;
+
+    @Mock
+    private ResultSet defaultPartitionResult;
+
+    @Mock
+    private CopyManager copyManager;
+
+    private TransactionPartitionManager transactionPartitionManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        PartitionProperties partitionProperties = new PartitionProperties();
+        partitionProperties.setPremakeMonths(2);
+        partitionProperties.setRetentionMonths(12);
+        partitionProperties.setArchiveDirectory(archiveDirectory.toString());
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl("jdbc:postgresql://localhost:5432/money_transfer");
+        transactionPartitionManager = new TransactionPartitionManager(dataSourceProperties, partitionProperties, new SimpleMeterRegistry());
+
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(startsWith("SELECT pg_try_advisory_lock"))).thenReturn(lockResult);
+        when(statement.executeQuery(startsWith("SELECT c.relname"))).thenReturn(partitionsResult);
+        when(statement.executeQuery(startsWith("SELECT partdefid"))).thenReturn(defaultPartitionResult);
+        when(defaultPartitionResult.next()).thenReturn(true);
+        when(defaultPartitionResult.getBoolean(1)).thenReturn(true);
+        when(lockResult.next()).thenReturn(true);
+        when(lockResult.getBoolean(1)).thenReturn(true);
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+    }
+
+    @Test
+    void maintain_CreatesFuturePartitions() throws Exception {
+        when(partitionsResult.next()).thenReturn(false);
+
+        transactionPartitionManager.maintain(connection, TODAY);
+
+        verify(statement).execute("CREATE TABLE IF NOT EXISTS transaction_p2026_10 PARTITION OF transaction FOR VALUES FROM ('2026-10-01') TO ('2026-11-01')");
+        verify(statement).execute("CREATE TABLE IF NOT EXISTS transaction_p2026_11 PARTITION OF transaction FOR VALUES FROM ('2026-11-01') TO ('2026-12-01')");
+        verify(statement).execute("CREATE TABLE IF NOT EXISTS transaction_p2026_12 PARTITION OF transaction FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')");
+        verify(statement).execute(startsWith("SELECT pg_advisory_unlock"));
+    }
+
+    @Test
+    void maintain_ArchivesExpiredPartitionBeforeDrop() throws Exception {
+        when(partitionsResult.next()).thenReturn(true, true, false);
+        when(partitionsResult.getString(1)).thenReturn("transaction_p2025_09", "transaction_p2025_10");
+        when(partitionsResult.getBoolean(2)).thenReturn(true, true);
+        when(copyManager.copyOut(anyString(), any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("id\n1\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        transactionPartitionManager.maintain(connection, TODAY);
+
+        var order = inOrder(statement, copyManager);
+        order.verify(statement).execute("SET lock_timeout = '500ms'");
+        order.verify(statement).execute("ALTER TABLE transaction DETACH PARTITION transaction_p2025_09");
+        order.verify(copyManager).copyOut(eq("COPY transaction_p2025_09 TO STDOUT WITH (FORMAT csv, HEADER)"), any(OutputStream.class));
+        order.verify(statement).execute("DROP TABLE transaction_p2025_09");
+        verify(statement, never()).execute("DROP TABLE transaction_p2025_10");
+        assertEquals("id\n1\n", readArchive("transaction_p2025_09"));
+    }
+
+    @Test
+    void maintain_DetachesConcurrentlyWithoutDefaultPartition() throws Exception {
+        when(defaultPartitionResult.getBoolean(1)).thenReturn(false);
+        when(partitionsResult.next()).thenReturn(true, true, false);
+        when(partitionsResult.getString(1)).thenReturn("transaction_p2025_08", "transaction_p2025_09");
+        when(partitionsResult.getBoolean(2)).thenReturn(true, true);
+        when(partitionsResult.getBoolean(3)).thenReturn(true, false);
+
+        transactionPartitionManager.maintain(connection, TODAY);
+
+        verify(statement).execute("ALTER TABLE transaction DETACH PARTITION transaction_p2025_08 FINALIZE");
+        verify(statement).execute("ALTER TABLE transaction DETACH PARTITION transaction_p2025_09 CONCURRENTLY");
+        verify(statement).execute("DROP TABLE transaction_p2025_08");
+        verify(statement).execute("DROP TABLE transaction_p2025_09");
+    }
+
+    @Test
+    void maintain_LockTimeoutSkipsPartition() throws Exception {
+        when(partitionsResult.next()).thenReturn(true, true, false);
+        when(partitionsResult.getString(1)).thenReturn("transaction_p2025_08", "transaction_p2025_09");
+        when(partitionsResult.getBoolean(2)).thenReturn(true, true);
+        doAnswer(invocation -> {
+            throw new SQLException("canceling statement due to lock timeout", "55P03");
+        }).when(statement).execute("ALTER TABLE transaction DETACH PARTITION transaction_p2025_08");
+
+        transactionPartitionManager.maintain(connection, TODAY);
+
+        verify(statement, never()).execute("DROP TABLE transaction_p2025_08");
+        verify(statement).execute("DROP TABLE transaction_p2025_09");
+        verify(statement).execute(startsWith("SELECT pg_advisory_unlock"));
+    }
+
+    @Test
+    void maintain_KeepsPartitionWhenExportFails() throws Exception {
+        when(partitionsResult.next()).thenReturn(true, false);
+        when(partitionsResult.getString(1)).thenReturn("transaction_p2020_01");
+        when(partitionsResult.getBoolean(2)).thenReturn(false);
+        doAnswer(invocation -> {
+            throw new IOException("disk full");
+        }).when(copyManager).copyOut(anyString(), any(OutputStream.class));
+
+        transactionPartitionManager.maintain(connection, TODAY);
+
+        verify(statement, never()).execute("ALTER TABLE transaction DETACH PARTITION transaction_p2020_01");
+        verify(statement, never()).execute("DROP TABLE transaction_p2020_01");
+        assertFalse(Files.exists(archiveDirectory.resolve("transaction_p2020_01.csv.gz")));
+    }
+
+    @Test
+    void maintain_SkippedWhenLockHeldByAnotherInstance() throws Exception {
+        when(lockResult.getBoolean(1)).thenReturn(false);
+
+        transactionPartitionManager.maintain(connection, TODAY);
+
+        verify(statement).execute("SET lock_timeout = '500ms'");
+        verify(statement, never()).execute(startsWith("CREATE"));
+        verify(statement, never()).execute(startsWith("SELECT pg_advisory_unlock"));
+    }
+
+    @Test
+    void isExpired_RetentionBoundary() {
+        assertTrue(TransactionPartitionManager.isExpired("transaction_p2025_09", TODAY, 12));
+        assertFalse(TransactionPartitionManager.isExpired("transaction_p2025_10", TODAY, 12));
+        assertFalse(TransactionPartitionManager.isExpired("transaction_default", TODAY, 12));
+    }
+
+    private String readArchive(String partition) throws IOException {
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(archiveDirectory.resolve(partition + ".csv.gz")))) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}